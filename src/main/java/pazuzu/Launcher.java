@@ -1,13 +1,123 @@
 package pazuzu;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import javafx.application.Application;
+import pazuzu.cli.ConsoleRepl;
+import pazuzu.cli.ScriptRunner;
+import pazuzu.server.ApiServer;
 import pazuzu.ui.Main;
 
 /**
  * A launcher class to workaround classpath issues.
+ * With --script, runs a file of commands without the GUI instead, with --cli, starts a text console,
+ * and with --serve, serves a local HTTP API. None of these options loads any JavaFX class.
  */
 public class Launcher {
+    private static final String SCRIPT_FLAG = "--script";
+    private static final String SAVE_EVERY_FLAG = "--save-every";
+    private static final String CLI_FLAG = "--cli";
+    private static final String SERVE_FLAG = "--serve";
+    private static final int DEFAULT_PORT = 8765;
+    private static final String USAGE = "Usage: [--cli | --serve [port] | --script <file> [--save-every <changes>]]";
+
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(SCRIPT_FLAG)) {
+            System.exit(runScript(args));
+        } else if (args.length == 1 && args[0].equals(CLI_FLAG)) {
+            System.exit(runConsole());
+        } else if (args.length > 0 && args[0].equals(SERVE_FLAG)) {
+            // The server's threads keep running after main returns
+            if (!startServer(args)) {
+                System.exit(1);
+            }
+            return;
+        }
+        launchGui(args);
+    }
+
+    /**
+     * Starts the JavaFX GUI. Kept apart so the other modes never touch JavaFX classes.
+     */
+    private static void launchGui(String[] args) {
         Application.launch(Main.class, args);
     }
-}
 
+    /**
+     * Runs the text console on standard input and output and returns the exit status.
+     */
+    private static int runConsole() {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        try {
+            new ConsoleRepl(new Pazuzu(), in, out).run();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Error reading input: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Starts the API server on the loopback address and saves the tasks when the JVM shuts down.
+     */
+    private static boolean startServer(String[] args) {
+        int port = DEFAULT_PORT;
+        try {
+            if (args.length == 2) {
+                port = Integer.parseInt(args[1]);
+            }
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (args.length > 2 || port < 0 || port > 65535) {
+            System.err.println(USAGE);
+            return false;
+        }
+        try {
+            ApiServer server = new ApiServer(new Pazuzu(), new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            server.start();
+            System.out.println("Listening on http://localhost:" + server.getPort() + ApiServer.COMMAND_PATH);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error starting server: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Runs the script named in the arguments and returns the exit status.
+     */
+    private static int runScript(String[] args) {
+        int saveInterval = 0;
+        if (args.length == 4 && args[2].equals(SAVE_EVERY_FLAG)) {
+            try {
+                saveInterval = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                saveInterval = -1;
+            }
+        }
+        if ((args.length != 2 && args.length != 4) || saveInterval < 0) {
+            System.err.println(USAGE);
+            return 1;
+        }
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        try (BufferedReader script = Files.newBufferedReader(Path.of(args[1]), StandardCharsets.UTF_8)) {
+            new ScriptRunner(new Pazuzu(), out, saveInterval).run(script);
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Error reading script: " + e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -1,61 +1,338 @@
 package pazuzu;
 
+import pazuzu.command.CommandInput;
+import pazuzu.command.CommandRegistry;
+import pazuzu.command.CommandRegistry.Arguments;
+import pazuzu.command.CommandResult;
+import pazuzu.command.ErrorResult;
+import pazuzu.command.FormattedResult;
+import pazuzu.command.MessageResult;
+import pazuzu.command.Response;
+import pazuzu.command.TaskListResult;
+import pazuzu.command.TaskResult;
 import pazuzu.exception.PazuzuExceptions;
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import pazuzu.history.UndoLog;
+import pazuzu.index.DateHistogram;
+import pazuzu.index.DueQueue;
+import pazuzu.index.FuzzyIndex;
+import pazuzu.index.NgramFilter;
+import pazuzu.index.SortedTaskView;
+import pazuzu.index.TagIndex;
+import pazuzu.index.TaskCopies;
+import pazuzu.index.TaskPositions;
+import pazuzu.index.TaskStatistics;
 import pazuzu.parser.CommandParser;
-import pazuzu.storage.Storage;
+import pazuzu.parser.DateParser;
+import pazuzu.reminder.ReminderScheduler;
+import pazuzu.storage.Archive;
+import pazuzu.task.RecurringTask;
 import pazuzu.task.Task;
 import pazuzu.task.TaskList;
+import pazuzu.transfer.TaskExporter;
+import pazuzu.transfer.TaskFormat;
+import pazuzu.transfer.TaskImporter;
+import pazuzu.util.DateTimeUtil;
+import pazuzu.util.NameInterner;
+import pazuzu.workspace.Workspace;
+import pazuzu.workspace.WorkspaceManager;
 /**
  * Main controller class that coordinates between different components 
  * to provide a task management system.
  */
 public class Pazuzu {
-    // Command strings
+    // Command keywords
     private static final String BYE_COMMAND = "bye";
     private static final String LIST_COMMAND = "List";
-    private static final String MARK_COMMAND = "mark ";
-    private static final String UNMARK_COMMAND = "unmark ";
-    private static final String DELETE_COMMAND = "delete ";
-    private static final String FIND_COMMAND = "find ";
-    private static final String EDIT_COMMAND = "edit ";
+    private static final String MARK_COMMAND = "mark";
+    private static final String UNMARK_COMMAND = "unmark";
+    private static final String DELETE_COMMAND = "delete";
+    private static final String FIND_COMMAND = "find";
+    private static final String FUZZY_FIND_COMMAND = "find~";
+    private static final String EDIT_COMMAND = "edit";
     private static final String TODO_COMMAND = "todo";
     private static final String DEADLINE_COMMAND = "deadline";
     private static final String EVENT_COMMAND = "event";
+    private static final String RECUR_COMMAND = "recur";
+    private static final String OCCURRENCES_COMMAND = "occurrences";
+    private static final String COMPLETE_COMMAND = "complete";
+    private static final String SKIP_COMMAND = "skip";
+    private static final String RECURRING_VIEW = "recurring";
+    private static final String UNDO_COMMAND = "undo";
+    private static final String REDO_COMMAND = "redo";
+    private static final String STATS_COMMAND = "stats";
+    private static final String MEMORY_COMMAND = "memory";
+    private static final String ARCHIVE_COMMAND = "archive";
+    private static final String ARCHIVED_COMMAND = "archived";
+    private static final String NEXT_COMMAND = "next";
+    private static final String COUNT_COMMAND = "count";
+    private static final String HISTOGRAM_COMMAND = "histogram";
+    private static final String USE_COMMAND = "use";
+    private static final String IMPORT_COMMAND = "import";
+    private static final String EXPORT_COMMAND = "export";
+    private static final String DAY_UNIT = "day";
+    private static final String WEEK_UNIT = "week";
     
     // Response messages
     private static final String BYE_RESPONSE = "Bye.";
     private static final String NO_TASKS_RESPONSE = "No tasks in your list.";
-    private static final String TASK_DONE_PREFIX = "done:\n  ";
-    private static final String TASK_NOT_DONE_PREFIX = "not done:\n  ";
-    private static final String TASK_ADDED_PREFIX = "Got it. I've added this task:\n  ";
-    private static final String TASK_ADDED_SUFFIX = "\nNow you have ";
-    private static final String TASK_ADDED_SUFFIX2 = " tasks in the list.";
-    private static final String TASK_DELETED_PREFIX = "Deleted task ";
-    private static final String TASK_NOT_LOCKED_IN = "\nGuess ur not locked-in enough for this";
+    private static final String NO_TASKS_IN_VIEW_RESPONSE = "No tasks in this view.";
+    private static final String VIEW_HEADER_PREFIX = "Tasks by ";
+    private static final String VIEW_HEADER_SUFFIX = ":\n";
+    private static final String TAG_HEADER_PREFIX = "Tasks tagged ";
+    private static final String NO_TAGGED_TASKS_RESPONSE = "No tasks with all of those tags.";
     private static final String FOUND_TASKS_PREFIX = "Found:\n";
-    private static final String TASK_EDITED_PREFIX = "Task edited successfully:\n  ";
-    
-    // Error messages
-    private static final String UNDEFINED_COMMAND_ERROR = "I don't understand that command. Please try again.";
-    private static final String BAD_TASK_ERROR = "Invalid task format. Please check your input.";
-    private static final String MARKING_ERROR = "Unable to change task status. Please check the task number.";
-    private static final String NO_SUCH_TASK_ERROR = "No such task";
+    private static final String NO_TASKS_FOUND_PREFIX = "No tasks found containing: ";
+    private static final String NO_TASKS_NEAR_PREFIX = "No tasks found close to: ";
+    private static final int ARCHIVE_AFTER_DAYS = 30;
+    private static final String DATA_DIRECTORY = "./data/";
+    private static final String LIST_MEMORY_PROPERTY = "pazuzu.listMemoryBytes";
+    private static final long DEFAULT_LIST_MEMORY_BYTES = 16L * 1024 * 1024;
+    private static final String DATE_CACHE_PROPERTY = "pazuzu.dateCacheSize";
+    private static final String USING_LIST_TEMPLATE = "Now using the %s list. It has %d tasks.";
+    private static final String ARCHIVED_PREFIX = "Archived %d tasks done more than %d days ago."
+            + " Find them with archived. Archiving can't be undone.\n";
+    private static final String NOTHING_TO_ARCHIVE_RESPONSE = "No tasks have been done for that long.";
+    private static final String ARCHIVED_HEADER = "Archived tasks:\n";
+    private static final String NO_ARCHIVED_TASKS_RESPONSE = "No archived tasks found.";
+    private static final String IMPORTED_TEMPLATE = "Imported %d tasks from %s, skipping %d invalid lines."
+            + " Now you have %d tasks in the list. Importing can't be undone.";
+    private static final String EXPORTED_TEMPLATE = "Exported %d tasks to %s.";
+    private static final String NEXT_HEADER = "Coming up:\n";
+    private static final String NOTHING_NEXT_RESPONSE = "Nothing coming up. No open deadlines or events.";
+    private static final String NOTHING_TO_UNDO_RESPONSE = "Nothing to undo.";
+    private static final String NOTHING_TO_REDO_RESPONSE = "Nothing to redo.";
+    private static final String STATS_TEMPLATE = "Tasks: %d (%d todos, %d deadlines, %d events, %d recurring)\n"
+            + "Done: %d, open: %d\n"
+            + "Overdue deadlines: %d\n"
+            + "Events starting in the next 24 hours: %d\n"
+            + "Find misses answered without a scan: %d of %d\n"
+            + "Dates read from cache: %d of %d";
+    private static final int UPCOMING_EVENT_HOURS = 24;
+    private static final String MEMORY_TEMPLATE = "Task names: %d (%d distinct)\n"
+            + "Name memory: %d bytes, %d bytes saved by sharing names\n"
+            + "Names reused on load and input: %d\n"
+            + "Lists in memory: %d, about %d of %d bytes (%d dropped to stay within it)";
+    private static final String COUNT_TEMPLATE = "From %s to %s: %d deadlines, %d events";
+    private static final String HISTOGRAM_HEADER_PREFIX = "Due per ";
+    private static final String HISTOGRAM_LINE_TEMPLATE = "%s: %d deadlines, %d events";
+    private static final int MAX_HISTOGRAM_BUCKETS = 366;
+    private static final int DAYS_PER_WEEK = 7;
+    private static final String OCCURRENCES_HEADER = "Occurrences:";
+    private static final String NO_OCCURRENCES_RESPONSE = "No occurrences in that range.";
+    private static final String OCCURRENCE_LINE_TEMPLATE = "%s [%s] %s";
+    private static final int MAX_OCCURRENCE_DAYS = 366;
+    private static final Duration REMINDER_LEAD_TIME = Duration.ofMinutes(15);
+    private CommandRegistry commands;
+    private WorkspaceManager workspaces;
+    private Workspace workspace;
     private TaskList tasks;
-    private Storage storage;
+    private Archive archive;
     private CommandParser parser;
+    private NameInterner names;
+    private FuzzyIndex fuzzyIndex;
+    private NgramFilter findFilter;
+    private LinkedHashMap<String, SortedTaskView> views;
+    private SortedTaskView activeView;
+    private TaskStatistics statistics;
+    private DateHistogram histogram;
+    private DueQueue dueQueue;
+    private TagIndex tagIndex;
+    private TaskPositions positions;
+    private ReminderScheduler reminders;
+    private UndoLog undoLog;
+    private int saveInterval = 1;
+    private int unsavedChangeCount;
+    private TaskCopies taskCopies;
+    private Snapshot snapshot;
+    private boolean isExitRequested;
     
     /**
-     * Initializes the Pazuzu application for GUI integration.
+     * Initializes the Pazuzu application for GUI integration, starting with the default task list.
      */
     public Pazuzu() {
-        storage = new Storage();
-        parser = new CommandParser();
-        tasks = storage.loadTasks();
-        assert storage != null : "Storage must be initialized";
+        this(DATA_DIRECTORY);
+    }
+    
+    /**
+     * Initializes the Pazuzu application with its files in the given directory.
+     * 
+     * @param dataDirectory the directory of the task files, ending with a slash
+     */
+    public Pazuzu(String dataDirectory) {
+        names = new NameInterner();
+        parser = new CommandParser(names,
+                new DateParser(Math.max(0, Integer.getInteger(DATE_CACHE_PROPERTY, DateParser.DEFAULT_CACHE_SIZE))));
+        reminders = new ReminderScheduler(REMINDER_LEAD_TIME);
+        commands = createCommands();
+        workspaces = new WorkspaceManager(dataDirectory, names, reminders, ARCHIVE_AFTER_DAYS,
+                Long.getLong(LIST_MEMORY_PROPERTY, DEFAULT_LIST_MEMORY_BYTES));
+        try {
+            activate(workspaces.get(WorkspaceManager.DEFAULT_LIST));
+        } catch (PazuzuExceptions.BadTaskException e) {
+            throw new IllegalStateException("Default list name must be valid", e);
+        }
+        assert workspace != null : "Workspace must be initialized";
         assert parser != null : "Parser must be initialized";
         assert tasks != null : "TaskList must be loaded successfully";
     }
     
+    /**
+     * Registers the handler of every command under its keyword.
+     */
+    private CommandRegistry createCommands() {
+        CommandRegistry registry = new CommandRegistry();
+        registry.register(BYE_COMMAND, Arguments.NONE, input -> handleByeCommand());
+        registry.register(UNDO_COMMAND, Arguments.NONE, input -> handleUndoCommand());
+        registry.register(REDO_COMMAND, Arguments.NONE, input -> handleRedoCommand());
+        registry.register(LIST_COMMAND, Arguments.OPTIONAL, input -> input.hasArguments()
+                ? handleListViewCommand(input) : handleListCommand());
+        registry.register(STATS_COMMAND, Arguments.NONE, input -> handleStatsCommand());
+        registry.register(MEMORY_COMMAND, Arguments.NONE, input -> handleMemoryCommand());
+        registry.register(ARCHIVE_COMMAND, Arguments.OPTIONAL, input -> handleArchiveCommand(input));
+        registry.register(ARCHIVED_COMMAND, Arguments.OPTIONAL, input -> handleArchivedCommand(input));
+        registry.register(NEXT_COMMAND, Arguments.OPTIONAL, input -> handleNextCommand(input));
+        registry.register(COUNT_COMMAND, Arguments.REQUIRED, input -> handleCountCommand(input));
+        registry.register(HISTOGRAM_COMMAND, Arguments.REQUIRED, input -> handleHistogramCommand(input));
+        registry.register(USE_COMMAND, Arguments.REQUIRED, input -> handleUseCommand(input));
+        registry.register(IMPORT_COMMAND, Arguments.REQUIRED, input -> handleImportCommand(input));
+        registry.register(EXPORT_COMMAND, Arguments.REQUIRED, input -> handleExportCommand(input));
+        registry.register(MARK_COMMAND, Arguments.REQUIRED, input -> handleMarkCommand(input));
+        registry.register(UNMARK_COMMAND, Arguments.REQUIRED, input -> handleUnmarkCommand(input));
+        registry.register(DELETE_COMMAND, Arguments.REQUIRED, input -> handleDeleteCommand(input));
+        registry.register(FIND_COMMAND, Arguments.REQUIRED, input -> handleFindCommand(input));
+        registry.register(FUZZY_FIND_COMMAND, Arguments.REQUIRED, input -> handleFuzzyFindCommand(input));
+        registry.register(EDIT_COMMAND, Arguments.REQUIRED, input -> handleEditCommand(input));
+        registry.register(OCCURRENCES_COMMAND, Arguments.REQUIRED, input -> handleOccurrencesCommand(input));
+        registry.register(COMPLETE_COMMAND, Arguments.REQUIRED, input -> handleCompleteCommand(input));
+        registry.register(SKIP_COMMAND, Arguments.REQUIRED, input -> handleSkipCommand(input));
+        for (String keyword : new String[] {TODO_COMMAND, DEADLINE_COMMAND, EVENT_COMMAND, RECUR_COMMAND}) {
+            registry.register(keyword, Arguments.OPTIONAL, this::handleTaskCommand);
+        }
+        return registry;
+    }
+    
+    /**
+     * Makes the given list the one that commands work on.
+     * Numbers from a sorted view belong to the previous list, so the plain list order applies again.
+     */
+    private void activate(Workspace workspace) {
+        if (taskCopies != null) {
+            // Copies of the previous list are no longer needed; the next snapshot copies the new one
+            tasks.removeListener(taskCopies);
+            taskCopies = null;
+        }
+        this.workspace = workspace;
+        tasks = workspace.getTasks();
+        archive = workspace.getArchive();
+        fuzzyIndex = workspace.getFuzzyIndex();
+        findFilter = workspace.getFindFilter();
+        views = workspace.getViews();
+        activeView = null;
+        statistics = workspace.getStatistics();
+        histogram = workspace.getHistogram();
+        dueQueue = workspace.getDueQueue();
+        tagIndex = workspace.getTagIndex();
+        positions = workspace.getPositions();
+        undoLog = workspace.getUndoLog();
+        snapshot = null;
+    }
+    
+    /**
+     * Sets how many changes may be made before the tasks are saved.
+     * Saving after every change is the default; scripts save less often to run faster.
+     * 
+     * @param changes the number of changes between saves, or 0 to save only when flush is called
+     */
+    public void setSaveInterval(int changes) {
+        assert changes >= 0 : "Save interval cannot be negative";
+        saveInterval = changes;
+    }
+    
+    /**
+     * Saves every task list with unsaved changes.
+     * If a list fails to save, the changes stay counted so the next change tries again.
+     */
+    public void flush() {
+        if (workspaces.flushAll()) {
+            unsavedChangeCount = 0;
+        }
+    }
+    
+    /**
+     * Counts a change to the current list and saves once enough changes have been made.
+     */
+    private void saveTasks() {
+        unsavedChangeCount++;
+        if (saveInterval > 0 && unsavedChangeCount >= saveInterval) {
+            flush();
+        }
+    }
+    
+    /**
+     * Gets a copy of the current list that answers List and find without touching the live tasks.
+     * The copy is only rebuilt when the list has changed since the last call, and then shares
+     * the copies of every task that has not changed since they were made.
+     * Must be called from the thread that runs the commands, but the copy can be used on any thread.
+     * 
+     * @return the snapshot of the current list
+     */
+    public Snapshot getSnapshot() {
+        boolean isViewActive = activeView != null;
+        if (snapshot == null || snapshot.changeCount != workspace.getChangeCount()
+                || snapshot.isViewActive != isViewActive) {
+            if (taskCopies == null) {
+                // Only lists read through snapshots keep copies
+                taskCopies = new TaskCopies(positions);
+                tasks.addListener(taskCopies);
+            }
+            snapshot = new Snapshot(parser, taskCopies.toList(), workspace.getChangeCount(), isViewActive);
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Starts sending reminders for upcoming deadlines, events and recurring occurrences.
+     * The notifier is called from a background thread.
+     * 
+     * @param notifier receives the text of each reminder
+     */
+    public void startReminders(Consumer<String> notifier) {
+        reminders.start(notifier);
+    }
+    
+    /**
+     * Stops sending reminders.
+     */
+    public void stopReminders() {
+        reminders.stop();
+    }
+    
+    /**
+     * Processes a command and returns its reply, which also tells whether the command asked to exit.
+     * 
+     * @param input the command input from user
+     * @return the reply to display
+     */
+    public Response respond(String input) {
+        isExitRequested = false;
+        CommandResult result = execute(input);
+        return new Response(result, isExitRequested);
+    }
+    
     /**
      * Processes a command and returns the response message.
      * This method is used for GUI integration.
@@ -64,122 +341,443 @@ public class Pazuzu {
      * @return the response message to display
      */
     public String processCommand(String input) {
+        return execute(input).render();
+    }
+    
+    /**
+     * Processes a command and returns what it did, without building any text.
+     * Callers that do not show the reply to a user can read the result directly.
+     * 
+     * @param input the command input
+     * @return the result of the command, or an error result saying why it failed
+     */
+    public CommandResult execute(String input) {
         try {
-            if (input.equals(BYE_COMMAND)) {
-                return BYE_RESPONSE;
-            } else if (input.equals(LIST_COMMAND)) {
-                return handleListCommand();
-            } else if (input.startsWith(MARK_COMMAND)) {
-                return handleMarkCommand(input);
-            } else if (input.startsWith(UNMARK_COMMAND)) {
-                return handleUnmarkCommand(input);
-            } else if (input.startsWith(DELETE_COMMAND)) {
-                return handleDeleteCommand(input);
-            } else if (input.startsWith(FIND_COMMAND)) {
-                return handleFindCommand(input);
-            } else if (input.startsWith(EDIT_COMMAND)) {
-                return handleEditCommand(input);
-            } else if (input.startsWith(TODO_COMMAND) || input.startsWith(DEADLINE_COMMAND) || input.startsWith(EVENT_COMMAND)) {
-                return handleTaskCommand(input);
-            } else {
-                throw new PazuzuExceptions.UndefinedCmdException("Undefined command");
-            }
+            return commands.dispatch(CommandInput.parse(input));
         } catch (PazuzuExceptions.UndefinedCmdException e) {
-            return UNDEFINED_COMMAND_ERROR;
+            return new ErrorResult(ErrorResult.Code.UNDEFINED_COMMAND);
         } catch (PazuzuExceptions.BadTaskException e) {
-            return BAD_TASK_ERROR;
+            return new ErrorResult(ErrorResult.Code.BAD_TASK);
         } catch (PazuzuExceptions.MarkingException e) {
-            return MARKING_ERROR;
+            return new ErrorResult(ErrorResult.Code.MARKING);
         } catch (IndexOutOfBoundsException e) {
-            return NO_SUCH_TASK_ERROR;
+            return new ErrorResult(ErrorResult.Code.NO_SUCH_TASK);
         } catch (NumberFormatException e) {
-            return NO_SUCH_TASK_ERROR;
+            return new ErrorResult(ErrorResult.Code.NO_SUCH_TASK);
+        } finally {
+            undoLog.closeStep();
         }
     }
     
     // Handler methods for GUI integration
     
+    /**
+     * Handles the bye command, saving every loaded list.
+     */
+    private CommandResult handleByeCommand() {
+        flush();
+        isExitRequested = true;
+        return new MessageResult(BYE_RESPONSE);
+    }
+    
     /**
      * Handles the list command and returns formatted task list.
      */
-    private String handleListCommand() {
-        if (tasks.isEmpty()) {
-            return NO_TASKS_RESPONSE;
+    private CommandResult handleListCommand() {
+        activeView = null;
+        return TaskListResult.numbered("", tasks.getAllTasks(), NO_TASKS_RESPONSE);
+    }
+    
+    /**
+     * Handles the list command with a view name and returns the tasks in that view's order.
+     * Task numbers given to later commands refer to this order until the plain list is shown again.
+     */
+    private CommandResult handleListViewCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String viewName = parser.parseListCommand(input);
+        if (viewName.isEmpty()) {
+            return handleListCommand();
+        } else if (viewName.startsWith(Task.TAG_PREFIX)) {
+            return handleTagListCommand(viewName);
         }
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < tasks.getSize(); i++) {
-            result.append((i + 1)).append(". ").append(tasks.getTask(i).getTask()).append("\n");
+        SortedTaskView view = views.get(viewName.toLowerCase());
+        if (view == null) {
+            return new ErrorResult(ErrorResult.Code.UNKNOWN_VIEW);
+        }
+        activeView = view;
+        return TaskListResult.numbered(VIEW_HEADER_PREFIX + view.getName() + VIEW_HEADER_SUFFIX, view.getTasks(),
+                NO_TASKS_IN_VIEW_RESPONSE);
+    }
+    
+    /**
+     * Handles the list command with tags and returns the tasks that have all of them.
+     */
+    private CommandResult handleTagListCommand(String tagText) throws PazuzuExceptions.BadTaskException {
+        List<Task> taggedTasks = tagIndex.findTasksTagged(parser.parseTagFilter(tagText));
+        return TaskListResult.numbered(TAG_HEADER_PREFIX + tagText.trim() + VIEW_HEADER_SUFFIX, taggedTasks,
+                NO_TAGGED_TASKS_RESPONSE);
+    }
+    
+    /**
+     * Converts a task number as shown to the user into its position in the task list,
+     * following the order of the view last listed, if any.
+     */
+    private int toTaskNumber(int shownNumber) throws IndexOutOfBoundsException {
+        if (activeView == null) {
+            return shownNumber;
         }
-        return result.toString().trim();
+        return positions.getTaskNumber(activeView.getTask(shownNumber));
     }
     
     /**
      * Handles the mark command and returns confirmation message.
      */
-    private String handleMarkCommand(String input) throws PazuzuExceptions.MarkingException, NumberFormatException, IndexOutOfBoundsException {
-        int taskNumber = parser.parseTaskNumber(input, CommandParser.MARK_COMMAND_LENGTH);
+    private CommandResult handleMarkCommand(CommandInput input) throws PazuzuExceptions.MarkingException, NumberFormatException, IndexOutOfBoundsException {
+        int taskNumber = toTaskNumber(parser.parseTaskNumber(input));
         Task markedTask = tasks.markTask(taskNumber);
-        storage.saveTasks(tasks);
-        return TASK_DONE_PREFIX + markedTask.getTask();
+        saveTasks();
+        return TaskResult.of(TaskResult.Action.MARKED_DONE, markedTask);
     }
     
     /**
      * Handles the unmark command and returns confirmation message.
      */
-    private String handleUnmarkCommand(String input) throws PazuzuExceptions.MarkingException, NumberFormatException, IndexOutOfBoundsException {
-        int taskNumber = parser.parseTaskNumber(input, CommandParser.UNMARK_COMMAND_LENGTH);
+    private CommandResult handleUnmarkCommand(CommandInput input) throws PazuzuExceptions.MarkingException, NumberFormatException, IndexOutOfBoundsException {
+        int taskNumber = toTaskNumber(parser.parseTaskNumber(input));
         Task unmarkedTask = tasks.unmarkTask(taskNumber);
-        storage.saveTasks(tasks);
-        return TASK_NOT_DONE_PREFIX + unmarkedTask.getTask();
+        saveTasks();
+        return TaskResult.of(TaskResult.Action.MARKED_NOT_DONE, unmarkedTask);
     }
     
     /**
      * Handles task creation commands and returns confirmation message.
      */
-    private String handleTaskCommand(String input) throws PazuzuExceptions.BadTaskException {
+    private CommandResult handleTaskCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
         Task newTask = parser.parseTaskCommand(input);
         tasks.addTask(newTask);
-        storage.saveTasks(tasks);
-        return TASK_ADDED_PREFIX + newTask.getTask() + TASK_ADDED_SUFFIX + tasks.getSize() + TASK_ADDED_SUFFIX2;
+        saveTasks();
+        return TaskResult.added(newTask, tasks.getSize());
     }
     
     /**
      * Handles the delete command and returns confirmation message.
      */
-    private String handleDeleteCommand(String input) throws NumberFormatException, IndexOutOfBoundsException {
-        int taskNumber = parser.parseTaskNumber(input, CommandParser.DELETE_COMMAND_LENGTH);
+    private CommandResult handleDeleteCommand(CommandInput input) throws NumberFormatException, IndexOutOfBoundsException {
+        int taskNumber = toTaskNumber(parser.parseTaskNumber(input));
         Task deletedTask = tasks.deleteTask(taskNumber);
-        storage.saveTasks(tasks);
-        String result = TASK_DELETED_PREFIX + deletedTask.getTask();
-        if (!deletedTask.checkIsDone()) {
-            result += TASK_NOT_LOCKED_IN;
-        }
-        return result;
+        saveTasks();
+        return TaskResult.of(TaskResult.Action.DELETED, deletedTask);
     }
     
     /**
      * Handles the find command and returns search results.
+     * Keywords that the n-gram filter rules out are answered without scanning the list.
      */
-    private String handleFindCommand(String input) throws PazuzuExceptions.BadTaskException {
+    private CommandResult handleFindCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
         String keyword = parser.parseFindCommand(input);
+        if (!findFilter.mightContain(keyword)) {
+            return TaskListResult.numbered(FOUND_TASKS_PREFIX, List.of(), NO_TASKS_FOUND_PREFIX + keyword);
+        }
         TaskList matchingTasks = tasks.findTasksContaining(keyword);
         if (matchingTasks.isEmpty()) {
-            return "No tasks found containing: " + keyword;
+            findFilter.recordFalsePositive();
+        }
+        return TaskListResult.numbered(FOUND_TASKS_PREFIX, matchingTasks.getAllTasks(), NO_TASKS_FOUND_PREFIX + keyword);
+    }
+    
+    /**
+     * Handles the fuzzy find command and returns tasks whose names are close to the keywords.
+     */
+    private CommandResult handleFuzzyFindCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String keyword = parser.parseFuzzyFindCommand(input);
+        TaskList matchingTasks = fuzzyIndex.findTasksNear(keyword);
+        return TaskListResult.numbered(FOUND_TASKS_PREFIX, matchingTasks.getAllTasks(), NO_TASKS_NEAR_PREFIX + keyword);
+    }
+    
+    /**
+     * Handles the undo command and returns the task whose change was undone.
+     */
+    private CommandResult handleUndoCommand() {
+        Task task = undoLog.undo();
+        if (task == null) {
+            return new MessageResult(NOTHING_TO_UNDO_RESPONSE);
+        }
+        saveTasks();
+        return TaskResult.of(TaskResult.Action.UNDONE, task);
+    }
+    
+    /**
+     * Handles the redo command and returns the task whose change was redone.
+     */
+    private CommandResult handleRedoCommand() {
+        Task task = undoLog.redo();
+        if (task == null) {
+            return new MessageResult(NOTHING_TO_REDO_RESPONSE);
+        }
+        saveTasks();
+        return TaskResult.of(TaskResult.Action.REDONE, task);
+    }
+    
+    /**
+     * Handles the stats command and returns task counts kept up to date by the statistics index.
+     */
+    private CommandResult handleStatsCommand() {
+        LocalDateTime now = LocalDateTime.now();
+        DateParser dates = parser.getDateParser();
+        return new FormattedResult(STATS_TEMPLATE,
+                statistics.getTotalCount(), statistics.getTodoCount(),
+                statistics.getDeadlineCount(), statistics.getEventCount(), statistics.getRecurringCount(),
+                statistics.getDoneCount(), statistics.getOpenCount(),
+                statistics.countOverdueDeadlines(now),
+                statistics.countEventsStartingBetween(now, now.plusHours(UPCOMING_EVENT_HOURS)),
+                findFilter.getSkippedCount(), findFilter.getSkippedCount() + findFilter.getFalsePositiveCount(),
+                dates.getHitCount(), dates.getHitCount() + dates.getMissCount());
+    }
+    
+    /**
+     * Handles the archive command and returns the tasks moved to the archive.
+     */
+    private CommandResult handleArchiveCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        int days = parser.parseArchiveCommand(input, ARCHIVE_AFTER_DAYS);
+        List<Task> archived;
+        try {
+            archived = archive.archiveCompletedBefore(tasks, LocalDateTime.now().minusDays(days));
+        } catch (IOException e) {
+            return new ErrorResult(ErrorResult.Code.ARCHIVE_WRITE);
+        }
+        if (archived.isEmpty()) {
+            return new MessageResult(NOTHING_TO_ARCHIVE_RESPONSE);
+        }
+        undoLog.clear();
+        activeView = null;
+        saveTasks();
+        return TaskListResult.indented(String.format(ARCHIVED_PREFIX, archived.size(), days), archived,
+                NOTHING_TO_ARCHIVE_RESPONSE);
+    }
+    
+    /**
+     * Handles the import command, adding every valid task in a CSV or JSON Lines file to the end of the list.
+     * Nothing is added unless the whole file can be read. The tasks are saved once at the end rather than
+     * after each one, and the import is not kept for undo.
+     */
+    private CommandResult handleImportCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String path = parser.parseFileCommand(input);
+        TaskFormat format = TaskFormat.forPath(path);
+        if (format == null) {
+            return new ErrorResult(ErrorResult.Code.FILE_TYPE);
+        }
+        TaskImporter.Result result;
+        try {
+            result = new TaskImporter(format, names).readFile(Path.of(path));
+        } catch (IOException | InvalidPathException e) {
+            return new ErrorResult(ErrorResult.Code.FILE_ACCESS);
+        }
+        if (result.getImportedCount() > 0) {
+            // The whole file has been read, so nothing below can leave the list half imported
+            undoLog.pause();
+            try {
+                result.addTo(tasks);
+            } finally {
+                undoLog.resume();
+            }
+            activeView = null;
+            saveTasks();
+        }
+        return new FormattedResult(IMPORTED_TEMPLATE, result.getImportedCount(), path, result.getSkippedCount(),
+                tasks.getSize());
+    }
+    
+    /**
+     * Handles the export command, writing every task in the list to a CSV or JSON Lines file.
+     */
+    private CommandResult handleExportCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String path = parser.parseFileCommand(input);
+        TaskFormat format = TaskFormat.forPath(path);
+        if (format == null) {
+            return new ErrorResult(ErrorResult.Code.FILE_TYPE);
+        }
+        try {
+            return new FormattedResult(EXPORTED_TEMPLATE, new TaskExporter(format).exportFile(tasks, Path.of(path)),
+                    path);
+        } catch (IOException | InvalidPathException e) {
+            return new ErrorResult(ErrorResult.Code.FILE_ACCESS);
+        }
+    }
+    
+    /**
+     * Handles the archived command and returns archived tasks, optionally only those containing a keyword.
+     * The archive file is read only for this command.
+     */
+    private CommandResult handleArchivedCommand(CommandInput input) {
+        String keyword = parser.parseArchivedCommand(input);
+        TaskList archived = archive.loadArchived();
+        TaskList matchingTasks = keyword.isEmpty() ? archived : archived.findTasksContaining(keyword);
+        // Loaded just for this command, so nothing else can change these tasks
+        return TaskListResult.ofCopies(ARCHIVED_HEADER, matchingTasks.getAllTasks(), NO_ARCHIVED_TASKS_RESPONSE);
+    }
+    
+    /**
+     * Handles the next command and returns the open deadlines and events that fall due first.
+     */
+    private CommandResult handleNextCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        List<Task> nextTasks = dueQueue.getFirst(parser.parseNextCommand(input));
+        return TaskListResult.numbered(NEXT_HEADER, nextTasks, NOTHING_NEXT_RESPONSE);
+    }
+    
+    /**
+     * Handles the memory command and returns how much heap the task names take and how much sharing them saves.
+     */
+    private CommandResult handleMemoryCommand() {
+        IdentityHashMap<String, Boolean> distinctNames = new IdentityHashMap<>();
+        long unsharedBytes = 0;
+        long sharedBytes = 0;
+        for (int i = 0; i < tasks.getSize(); i++) {
+            String name = tasks.getTask(i).getName();
+            long bytes = NameInterner.estimateBytes(name);
+            unsharedBytes += bytes;
+            if (distinctNames.put(name, Boolean.TRUE) == null) {
+                sharedBytes += bytes;
+            }
+        }
+        return new FormattedResult(MEMORY_TEMPLATE, tasks.getSize(), distinctNames.size(),
+                sharedBytes, unsharedBytes - sharedBytes, names.getReuseCount(),
+                workspaces.getLoadedCount(), workspaces.estimateBytes(), workspaces.getMemoryBudgetBytes(),
+                workspaces.getEvictionCount());
+    }
+    
+    /**
+     * Handles the use command and switches to the named task list, loading it if it is not in memory.
+     */
+    private CommandResult handleUseCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        activate(workspaces.get(parser.parseUseCommand(input)));
+        return new FormattedResult(USING_LIST_TEMPLATE, workspace.getName(), tasks.getSize());
+    }
+    
+    /**
+     * Handles the count command and returns how many deadlines and events fall in a date range.
+     */
+    private CommandResult handleCountCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        LocalDate[] range = parser.parseCountCommand(input);
+        return new FormattedResult(COUNT_TEMPLATE,
+                range[0].format(DateTimeUtil.OUTPUT_DATE_FORMATTER), range[1].format(DateTimeUtil.OUTPUT_DATE_FORMATTER),
+                histogram.countDeadlines(range[0], range[1]), histogram.countEvents(range[0], range[1]));
+    }
+    
+    /**
+     * Handles the histogram command and returns deadline and event counts per day or week of a date range.
+     */
+    private CommandResult handleHistogramCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String unit = parser.parseHistogramUnit(input).toLowerCase();
+        LocalDate[] range = parser.parseHistogramRange(input);
+        int bucketDays;
+        if (unit.equals(DAY_UNIT)) {
+            bucketDays = 1;
+        } else if (unit.equals(WEEK_UNIT)) {
+            bucketDays = DAYS_PER_WEEK;
         } else {
-            StringBuilder result = new StringBuilder(FOUND_TASKS_PREFIX);
-            for (int i = 0; i < matchingTasks.getSize(); i++) {
-                result.append((i + 1)).append(". ").append(matchingTasks.getTask(i).getTask()).append("\n");
+            return new ErrorResult(ErrorResult.Code.HISTOGRAM_UNIT);
+        }
+        long days = range[1].toEpochDay() - range[0].toEpochDay() + 1;
+        if ((days + bucketDays - 1) / bucketDays > MAX_HISTOGRAM_BUCKETS) {
+            return new ErrorResult(ErrorResult.Code.HISTOGRAM_RANGE);
+        }
+        
+        StringBuilder result = new StringBuilder(HISTOGRAM_HEADER_PREFIX + unit + ":");
+        for (LocalDate start = range[0]; !start.isAfter(range[1]); start = start.plusDays(bucketDays)) {
+            LocalDate end = start.plusDays(bucketDays - 1);
+            if (end.isAfter(range[1])) {
+                end = range[1];
             }
-            return result.toString().trim();
+            result.append("\n").append(String.format(HISTOGRAM_LINE_TEMPLATE,
+                    start.format(DateTimeUtil.OUTPUT_DATE_FORMATTER),
+                    histogram.countDeadlines(start, end), histogram.countEvents(start, end)));
         }
+        return new MessageResult(result.toString());
+    }
+    
+    /**
+     * Handles the occurrences command and returns every occurrence of every recurring task in a date range, in time order.
+     * Occurrences are generated from each series on demand; only the recurring tasks are visited.
+     */
+    private CommandResult handleOccurrencesCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        LocalDate[] range = parser.parseOccurrencesCommand(input);
+        if (range[1].toEpochDay() - range[0].toEpochDay() + 1 > MAX_OCCURRENCE_DAYS) {
+            return new ErrorResult(ErrorResult.Code.OCCURRENCE_RANGE);
+        }
+        LocalDateTime from = range[0].atStartOfDay();
+        LocalDateTime to = range[1].atTime(LocalTime.MAX);
+        
+        TreeMap<LocalDateTime, List<String>> lines = new TreeMap<>();
+        for (Task task : views.get(RECURRING_VIEW).getTasks()) {
+            RecurringTask series = (RecurringTask) task;
+            if (series.checkIsDone()) {
+                continue;
+            }
+            for (LocalDateTime occurrence : series.getOccurrencesBetween(from, to)) {
+                String status = series.isOccurrenceDone(occurrence.toLocalDate()) ? "X" : " ";
+                lines.computeIfAbsent(occurrence, time -> new ArrayList<>()).add(String.format(OCCURRENCE_LINE_TEMPLATE,
+                        occurrence.format(DateTimeUtil.OUTPUT_FORMATTER), status, series.getName()));
+            }
+        }
+        if (lines.isEmpty()) {
+            return new MessageResult(NO_OCCURRENCES_RESPONSE);
+        }
+        
+        StringBuilder result = new StringBuilder(OCCURRENCES_HEADER);
+        for (List<String> linesAtTime : lines.values()) {
+            for (String line : linesAtTime) {
+                result.append("\n").append(line);
+            }
+        }
+        return new MessageResult(result.toString());
+    }
+    
+    /**
+     * Handles the complete command and returns confirmation message.
+     */
+    private CommandResult handleCompleteCommand(CommandInput input) throws PazuzuExceptions.BadTaskException, NumberFormatException, IndexOutOfBoundsException {
+        String[] params = parser.parseOccurrenceCommand(input);
+        int taskNumber = toTaskNumber(Integer.parseInt(params[0]));
+        LocalDate date = toOccurrenceDate(taskNumber, params[1]);
+        RecurringTask task = tasks.completeOccurrence(taskNumber, date);
+        saveTasks();
+        return TaskResult.ofOccurrence(TaskResult.Action.OCCURRENCE_COMPLETED, task, date);
+    }
+    
+    /**
+     * Handles the skip command and returns confirmation message.
+     */
+    private CommandResult handleSkipCommand(CommandInput input) throws PazuzuExceptions.BadTaskException, NumberFormatException, IndexOutOfBoundsException {
+        String[] params = parser.parseOccurrenceCommand(input);
+        int taskNumber = toTaskNumber(Integer.parseInt(params[0]));
+        LocalDate date = toOccurrenceDate(taskNumber, params[1]);
+        RecurringTask task = tasks.skipOccurrence(taskNumber, date);
+        saveTasks();
+        return TaskResult.ofOccurrence(TaskResult.Action.OCCURRENCE_SKIPPED, task, date);
+    }
+    
+    /**
+     * Resolves the occurrence date given to complete or skip, where "_" means the current occurrence of the task.
+     */
+    private LocalDate toOccurrenceDate(int taskNumber, String date) throws PazuzuExceptions.BadTaskException, IndexOutOfBoundsException {
+        if (!date.equals("_")) {
+            return parser.parseDateTime(date).toLocalDate();
+        }
+        if (taskNumber < 1 || taskNumber > tasks.getSize()) {
+            throw new IndexOutOfBoundsException("Task number out of range");
+        }
+        Task task = tasks.getTask(taskNumber - 1);
+        if (!(task instanceof RecurringTask)) {
+            throw new PazuzuExceptions.BadTaskException("Task is not recurring");
+        }
+        return ((RecurringTask) task).getCurrentOccurrenceDate(LocalDateTime.now());
     }
     
     /**
      * Handles the edit command and returns confirmation message.
      */
-    private String handleEditCommand(String input) throws PazuzuExceptions.BadTaskException, NumberFormatException, IndexOutOfBoundsException {
+    private CommandResult handleEditCommand(CommandInput input) throws PazuzuExceptions.BadTaskException, NumberFormatException, IndexOutOfBoundsException {
         String[] editParams = parser.parseEditCommand(input);
-        int taskNumber = Integer.parseInt(editParams[0]);
+        int taskNumber = toTaskNumber(Integer.parseInt(editParams[0]));
         String newName = editParams[1];
         String newDate1 = editParams[2];
         String newDate2 = editParams[3];
@@ -195,8 +793,72 @@ public class Pazuzu {
             parsedDate2 = parser.parseDateTime(newDate2);
         }
         
-        Task editedTask = tasks.editTask(taskNumber, newName, parsedDate1, parsedDate2);
-        storage.saveTasks(tasks);
-        return TASK_EDITED_PREFIX + editedTask.getTask();
+        List<String> newTags = editParams[4].equals("_") ? null : List.of(editParams[4].split(" "));
+        Task editedTask = tasks.editTask(taskNumber, newName, newTags, parsedDate1, parsedDate2);
+        saveTasks();
+        return TaskResult.of(TaskResult.Action.EDITED, editedTask);
+    }
+    
+    /**
+     * An unchanging copy of the tasks in a list, published by the thread that runs commands
+     * so that other threads can answer List and find while the live list keeps changing.
+     * Its answers match execute's for the list as it was when the copy was taken.
+     */
+    public static final class Snapshot {
+        private final CommandParser parser;
+        private final long changeCount;
+        private final boolean isViewActive;
+        private final List<Task> tasks;
+        
+        private Snapshot(CommandParser parser, List<Task> copies, long changeCount, boolean isViewActive) {
+            this.parser = parser;
+            this.changeCount = changeCount;
+            this.isViewActive = isViewActive;
+            this.tasks = copies;
+        }
+        
+        /**
+         * Checks if the command only reads the list and can be answered from this copy.
+         * A plain List is not, while a sorted view is active, since it also switches numbering back to the plain list.
+         * 
+         * @param input the split command input
+         * @return true if answer can be called with the command
+         */
+        public boolean canAnswer(CommandInput input) {
+            if (input.getKeyword().equals(FIND_COMMAND)) {
+                return input.hasArguments();
+            }
+            return input.getKeyword().equals(LIST_COMMAND) && !input.hasArguments() && !isViewActive;
+        }
+        
+        /**
+         * Answers a List or find command from this copy.
+         * 
+         * @param input a command that canAnswer accepts
+         * @return the result of the command
+         */
+        public CommandResult answer(CommandInput input) {
+            assert canAnswer(input) : "Command must only read the list";
+            if (input.getKeyword().equals(LIST_COMMAND)) {
+                return TaskListResult.ofCopies("", tasks, NO_TASKS_RESPONSE);
+            }
+            String keyword;
+            try {
+                keyword = parser.parseFindCommand(input);
+            } catch (PazuzuExceptions.BadTaskException e) {
+                return new ErrorResult(ErrorResult.Code.BAD_TASK);
+            }
+            ArrayList<Task> matchingTasks = new ArrayList<>();
+            for (Task task : tasks) {
+                if (task.hasNameContaining(keyword)) {
+                    matchingTasks.add(task);
+                }
+            }
+            return TaskListResult.ofCopies(FOUND_TASKS_PREFIX, matchingTasks, NO_TASKS_FOUND_PREFIX + keyword);
+        }
+        
+        public int getSize() {
+            return tasks.size();
+        }
     }
 }
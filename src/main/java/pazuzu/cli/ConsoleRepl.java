@@ -0,0 +1,76 @@
+package pazuzu.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.Response;
+
+/**
+ * A text console for Pazuzu that reads commands at a prompt and prints each response.
+ * It uses no JavaFX classes, so it starts quickly and works over a plain terminal or SSH.
+ * Reminders are printed as they fall due, between commands.
+ */
+public class ConsoleRepl {
+    private static final String PROMPT = "> ";
+
+    private final Pazuzu pazuzu;
+    private final BufferedReader in;
+    private final PrintWriter out;
+
+    /**
+     * Creates a console that sends commands to the given Pazuzu.
+     *
+     * @param pazuzu the Pazuzu to run commands with
+     * @param in the commands typed by the user
+     * @param out receives the prompts, responses and reminders
+     */
+    public ConsoleRepl(Pazuzu pazuzu, BufferedReader in, PrintWriter out) {
+        this.pazuzu = pazuzu;
+        this.in = in;
+        this.out = out;
+    }
+
+    /**
+     * Reads and runs commands until one asks to exit or the input ends, then saves.
+     *
+     * @throws IOException if the input cannot be read
+     */
+    public void run() throws IOException {
+        pazuzu.startReminders(this::print);
+        try {
+            while (true) {
+                synchronized (out) {
+                    out.print(PROMPT);
+                    out.flush();
+                }
+                String line = in.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (line.isBlank()) {
+                    continue;
+                }
+                Response response = pazuzu.respond(line.trim());
+                print(response.getText());
+                if (response.isExit()) {
+                    break;
+                }
+            }
+        } finally {
+            pazuzu.stopReminders();
+            pazuzu.flush();
+        }
+    }
+
+    /**
+     * Prints a message, also from the reminder thread, without mixing it into another message.
+     */
+    private void print(String message) {
+        synchronized (out) {
+            out.println(message);
+            out.flush();
+        }
+    }
+}
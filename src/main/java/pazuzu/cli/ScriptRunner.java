@@ -0,0 +1,61 @@
+package pazuzu.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.Response;
+
+/**
+ * Runs a file of commands through Pazuzu without the GUI, writing each response to an output stream.
+ * Tasks are saved every given number of changes and once more at the end, instead of after every change,
+ * so long scripts such as bulk imports are not slowed down by rewriting the task file.
+ */
+public class ScriptRunner {
+    private final Pazuzu pazuzu;
+    private final PrintWriter out;
+
+    /**
+     * Creates a runner that sends commands to the given Pazuzu.
+     *
+     * @param pazuzu the Pazuzu to run commands with
+     * @param out receives the response to each command
+     * @param saveInterval the number of changes between saves, or 0 to save only at the end
+     */
+    public ScriptRunner(Pazuzu pazuzu, PrintWriter out, int saveInterval) {
+        this.pazuzu = pazuzu;
+        this.out = out;
+        pazuzu.setSaveInterval(saveInterval);
+    }
+
+    /**
+     * Runs every command of the script until its end or a command that asks to exit, then saves.
+     * Lines are trimmed as at the console, and blank lines are skipped.
+     *
+     * @param script the commands, one per line
+     * @return the number of commands run
+     * @throws IOException if the script cannot be read
+     */
+    public int run(BufferedReader script) throws IOException {
+        int commandCount = 0;
+        try {
+            String line;
+            while ((line = script.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Response response = pazuzu.respond(line.trim());
+                out.println(response.getText());
+                commandCount++;
+                if (response.isExit()) {
+                    break;
+                }
+            }
+        } finally {
+            pazuzu.flush();
+            out.flush();
+        }
+        return commandCount;
+    }
+}
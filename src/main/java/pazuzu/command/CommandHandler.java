@@ -0,0 +1,21 @@
+package pazuzu.command;
+
+import pazuzu.exception.PazuzuExceptions;
+
+/**
+ * Carries out one command and returns what it did.
+ */
+@FunctionalInterface
+public interface CommandHandler {
+    /**
+     * Handles a command whose keyword this handler was registered for.
+     *
+     * @param input the split command input
+     * @return the result of the command
+     * @throws PazuzuExceptions.BadTaskException when the arguments are invalid
+     * @throws PazuzuExceptions.MarkingException when a task status cannot be changed
+     * @throws PazuzuExceptions.UndefinedCmdException when the input is not a command after all
+     */
+    CommandResult handle(CommandInput input) throws PazuzuExceptions.BadTaskException, PazuzuExceptions.MarkingException,
+            PazuzuExceptions.UndefinedCmdException;
+}
@@ -0,0 +1,73 @@
+package pazuzu.command;
+
+/**
+ * A line of user input split once into its command keyword and the rest.
+ * The keyword is everything before the first space; the arguments are everything after it.
+ * Handlers and the parser share this split instead of testing the input against each command prefix.
+ */
+public class CommandInput {
+    private final String text;
+    private final String keyword;
+
+    private CommandInput(String text, String keyword) {
+        this.text = text;
+        this.keyword = keyword;
+    }
+
+    /**
+     * Splits the input at its first space.
+     *
+     * @param text the input from the user
+     * @return the split input
+     */
+    public static CommandInput parse(String text) {
+        assert text != null : "Input cannot be null";
+        int spaceIndex = text.indexOf(' ');
+        return new CommandInput(text, spaceIndex == -1 ? text : text.substring(0, spaceIndex));
+    }
+
+    /**
+     * Gets the whole input, including the keyword.
+     *
+     * @return the input as typed
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the command keyword, such as todo or List.
+     *
+     * @return the text before the first space
+     */
+    public String getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Checks if anything, even just a space, follows the keyword.
+     *
+     * @return true if the input is longer than its keyword
+     */
+    public boolean hasArguments() {
+        return text.length() > keyword.length();
+    }
+
+    /**
+     * Gets the position in the input where the arguments start, just after the first space.
+     *
+     * @return the index of the first argument character
+     */
+    public int getArgumentsStart() {
+        return Math.min(keyword.length() + 1, text.length());
+    }
+
+    /**
+     * Gets the text after the keyword and its space, untrimmed.
+     *
+     * @return the arguments, or an empty string if there are none
+     */
+    public String getArguments() {
+        return text.substring(getArgumentsStart());
+    }
+}
@@ -0,0 +1,79 @@
+package pazuzu.command;
+
+import java.util.HashMap;
+import java.util.Set;
+
+import pazuzu.exception.PazuzuExceptions;
+
+/**
+ * Maps command keywords to their handlers, so a command is found with one hash lookup
+ * however many commands there are, and a new command is added by registering it.
+ */
+public class CommandRegistry {
+    /**
+     * Whether a command takes arguments after its keyword.
+     */
+    public enum Arguments {
+        NONE, OPTIONAL, REQUIRED
+    }
+
+    private final HashMap<String, Command> commands = new HashMap<>();
+
+    /**
+     * Registers the handler of a command.
+     *
+     * @param keyword the first word of the command, matched exactly
+     * @param arguments whether the command takes arguments
+     * @param handler the handler of the command
+     */
+    public void register(String keyword, Arguments arguments, CommandHandler handler) {
+        assert !keyword.isEmpty() && keyword.indexOf(' ') == -1 : "Keyword must be one word";
+        Command previous = commands.put(keyword, new Command(arguments, handler));
+        assert previous == null : "Command registered twice: " + keyword;
+    }
+
+    /**
+     * Finds the handler for the input and runs it.
+     *
+     * @param input the split command input
+     * @return the result of the handler
+     * @throws PazuzuExceptions.UndefinedCmdException if no command has the keyword
+     *         or the input has arguments the command does not take, or lacks ones it needs
+     * @throws PazuzuExceptions.BadTaskException when the handler rejects the arguments
+     * @throws PazuzuExceptions.MarkingException when the handler cannot change a task status
+     */
+    public CommandResult dispatch(CommandInput input) throws PazuzuExceptions.UndefinedCmdException,
+            PazuzuExceptions.BadTaskException, PazuzuExceptions.MarkingException {
+        Command command = commands.get(input.getKeyword());
+        if (command == null || !command.accepts(input)) {
+            throw new PazuzuExceptions.UndefinedCmdException("Undefined command");
+        }
+        return command.handler.handle(input);
+    }
+
+    /**
+     * Gets the keywords of every registered command.
+     *
+     * @return the registered keywords
+     */
+    public Set<String> getKeywords() {
+        return commands.keySet();
+    }
+
+    /**
+     * A registered handler with the arguments its command takes.
+     */
+    private static class Command {
+        private final Arguments arguments;
+        private final CommandHandler handler;
+
+        private Command(Arguments arguments, CommandHandler handler) {
+            this.arguments = arguments;
+            this.handler = handler;
+        }
+
+        private boolean accepts(CommandInput input) {
+            return arguments == Arguments.OPTIONAL || (arguments == Arguments.REQUIRED) == input.hasArguments();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package pazuzu.command;
+
+/**
+ * What a command did, kept as data so that callers can read it directly
+ * and the text for the user is only built when a text front end asks for it.
+ * Results copy whatever they show, so they can be rendered on any thread after later commands have run.
+ */
+public abstract class CommandResult {
+    /**
+     * Builds the message to display for this result.
+     *
+     * @return the message text
+     */
+    public abstract String render();
+
+    /**
+     * Checks if the command failed.
+     *
+     * @return true for an error result
+     */
+    public boolean isError() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return render();
+    }
+}
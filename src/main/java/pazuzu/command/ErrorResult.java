@@ -0,0 +1,55 @@
+package pazuzu.command;
+
+/**
+ * A command that could not be carried out, identified by a code that callers can check
+ * instead of matching the message.
+ */
+public class ErrorResult extends CommandResult {
+    /**
+     * Why a command failed, with the message shown to the user.
+     */
+    public enum Code {
+        UNDEFINED_COMMAND("I don't understand that command. Please try again."),
+        BAD_TASK("Invalid task format. Please check your input."),
+        MARKING("Unable to change task status. Please check the task number."),
+        NO_SUCH_TASK("No such task"),
+        UNKNOWN_VIEW("No such view. Try: List deadline, List start, List recurring,"
+                + " List name, List status or List #tag"),
+        HISTOGRAM_UNIT("Histogram buckets must be day or week"),
+        HISTOGRAM_RANGE("Too many buckets. Please pick a shorter range or weekly buckets"),
+        OCCURRENCE_RANGE("Too long a range. Please pick at most 366 days"),
+        FILE_TYPE("Only .csv, .jsonl and .ndjson files can be imported or exported"),
+        FILE_ACCESS("Unable to read or write that file. Please check the path."),
+        ARCHIVE_WRITE("Unable to write the archive file. No tasks were archived.");
+
+        private final String message;
+
+        Code(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final Code code;
+
+    public ErrorResult(Code code) {
+        this.code = code;
+    }
+
+    public Code getCode() {
+        return code;
+    }
+
+    @Override
+    public boolean isError() {
+        return true;
+    }
+
+    @Override
+    public String render() {
+        return code.getMessage();
+    }
+}
@@ -0,0 +1,39 @@
+package pazuzu.command;
+
+/**
+ * A result made of counts and other values, such as stats or count, formatted into a template only when rendered.
+ */
+public class FormattedResult extends CommandResult {
+    private final String template;
+    private final Object[] values;
+
+    /**
+     * Creates a result of values for a String.format template.
+     *
+     * @param template the template the values are rendered into
+     * @param values the values, in template order
+     */
+    public FormattedResult(String template, Object... values) {
+        this.template = template;
+        this.values = values;
+    }
+
+    /**
+     * Gets one of the values, in template order.
+     *
+     * @param index the position of the value
+     * @return the value
+     */
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    public int getValueCount() {
+        return values.length;
+    }
+
+    @Override
+    public String render() {
+        return String.format(template, values);
+    }
+}
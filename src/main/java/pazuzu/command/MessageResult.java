@@ -0,0 +1,18 @@
+package pazuzu.command;
+
+/**
+ * A result that is a fixed message, such as the reply to bye or to an undo with nothing to undo.
+ */
+public class MessageResult extends CommandResult {
+    private final String message;
+
+    public MessageResult(String message) {
+        assert message != null : "Message cannot be null";
+        this.message = message;
+    }
+
+    @Override
+    public String render() {
+        return message;
+    }
+}
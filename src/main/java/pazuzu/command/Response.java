@@ -0,0 +1,39 @@
+package pazuzu.command;
+
+/**
+ * The reply to one command: what it did and whether it asked to exit.
+ * The text is only built when getText is called, so callers that read the result never pay for it.
+ */
+public class Response {
+    private final CommandResult result;
+    private final boolean isExit;
+
+    /**
+     * Creates a reply.
+     *
+     * @param result the result of the command
+     * @param isExit true if the command asked the application to exit
+     */
+    public Response(CommandResult result, boolean isExit) {
+        assert result != null : "Response result cannot be null";
+        this.result = result;
+        this.isExit = isExit;
+    }
+
+    public CommandResult getResult() {
+        return result;
+    }
+
+    /**
+     * Renders the message to display.
+     *
+     * @return the message text
+     */
+    public String getText() {
+        return result.render();
+    }
+
+    public boolean isExit() {
+        return isExit;
+    }
+}
@@ -0,0 +1,101 @@
+package pazuzu.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import pazuzu.task.Task;
+
+/**
+ * A result that is a list of tasks, such as the whole list, a sorted view or search matches.
+ * The tasks are copied when the result is made; the lines are only built when it is rendered.
+ */
+public class TaskListResult extends CommandResult {
+    private static final String INDENT = "  ";
+
+    private final String header;
+    private final List<Task> tasks;
+    private final String emptyMessage;
+    private final boolean isNumbered;
+
+    private TaskListResult(String header, List<Task> tasks, String emptyMessage, boolean isNumbered) {
+        this.header = header;
+        this.tasks = tasks;
+        this.emptyMessage = emptyMessage;
+        this.isNumbered = isNumbered;
+    }
+
+    /**
+     * Creates a result that shows the tasks numbered from 1 under a header.
+     *
+     * @param header the text before the first task, ending with a line break if not empty
+     * @param tasks the tasks to copy, in display order
+     * @param emptyMessage the message shown instead when there are no tasks
+     * @return the result
+     */
+    public static TaskListResult numbered(String header, List<Task> tasks, String emptyMessage) {
+        return new TaskListResult(header, copyAll(tasks), emptyMessage, true);
+    }
+
+    /**
+     * Creates a result that shows the tasks indented under a header, without numbers.
+     *
+     * @param header the text before the first task, ending with a line break if not empty
+     * @param tasks the tasks to copy, in display order
+     * @param emptyMessage the message shown instead when there are no tasks
+     * @return the result
+     */
+    public static TaskListResult indented(String header, List<Task> tasks, String emptyMessage) {
+        return new TaskListResult(header, copyAll(tasks), emptyMessage, false);
+    }
+
+    /**
+     * Creates a numbered result from tasks that are already copies nothing else will change.
+     *
+     * @param header the text before the first task, ending with a line break if not empty
+     * @param copies the copied tasks, in display order
+     * @param emptyMessage the message shown instead when there are no tasks
+     * @return the result
+     */
+    public static TaskListResult ofCopies(String header, List<Task> copies, String emptyMessage) {
+        return new TaskListResult(header, Collections.unmodifiableList(copies), emptyMessage, true);
+    }
+
+    private static List<Task> copyAll(List<Task> tasks) {
+        ArrayList<Task> copies = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            copies.add(task.copy());
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * Gets the tasks in display order, as they were when the command ran.
+     *
+     * @return the copied tasks
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    @Override
+    public String render() {
+        if (tasks.isEmpty()) {
+            return emptyMessage;
+        }
+        StringBuilder result = new StringBuilder(header);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (isNumbered) {
+                result.append(i + 1).append(". ");
+            } else {
+                result.append(INDENT);
+            }
+            result.append(tasks.get(i).getTask()).append("\n");
+        }
+        return result.toString().trim();
+    }
+}
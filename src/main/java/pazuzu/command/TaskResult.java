@@ -0,0 +1,124 @@
+package pazuzu.command;
+
+import java.time.LocalDate;
+
+import pazuzu.task.Task;
+import pazuzu.util.DateTimeUtil;
+
+/**
+ * A result about one task that a command changed, holding a copy of the task as it was just after the change.
+ */
+public class TaskResult extends CommandResult {
+    private static final String ADDED_SUFFIX = "\nNow you have ";
+    private static final String ADDED_SUFFIX2 = " tasks in the list.";
+    private static final String NOT_LOCKED_IN = "\nGuess ur not locked-in enough for this";
+    private static final String OCCURRENCE_SUFFIX = " of:\n  ";
+
+    /**
+     * What the command did to the task, with the text shown before it.
+     */
+    public enum Action {
+        ADDED("Got it. I've added this task:\n  "),
+        MARKED_DONE("done:\n  "),
+        MARKED_NOT_DONE("not done:\n  "),
+        DELETED("Deleted task "),
+        EDITED("Task edited successfully:\n  "),
+        UNDONE("Undone. Last change was to:\n  "),
+        REDONE("Redone. Changed again:\n  "),
+        OCCURRENCE_COMPLETED("Completed the occurrence on "),
+        OCCURRENCE_SKIPPED("Skipped the occurrence on ");
+
+        private final String prefix;
+
+        Action(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private final Action action;
+    private final Task task;
+    private final int taskCount;
+    private final LocalDate occurrenceDate;
+
+    private TaskResult(Action action, Task task, int taskCount, LocalDate occurrenceDate) {
+        this.action = action;
+        this.task = task.copy();
+        this.taskCount = taskCount;
+        this.occurrenceDate = occurrenceDate;
+    }
+
+    /**
+     * Creates the result of adding a task.
+     *
+     * @param task the added task
+     * @param taskCount the number of tasks in the list after adding it
+     * @return the result
+     */
+    public static TaskResult added(Task task, int taskCount) {
+        return new TaskResult(Action.ADDED, task, taskCount, null);
+    }
+
+    /**
+     * Creates the result of a change to one task other than adding it or changing an occurrence.
+     *
+     * @param action what was done to the task
+     * @param task the task
+     * @return the result
+     */
+    public static TaskResult of(Action action, Task task) {
+        assert action != Action.ADDED && action != Action.OCCURRENCE_COMPLETED && action != Action.OCCURRENCE_SKIPPED
+                : "Use added or ofOccurrence for this action";
+        return new TaskResult(action, task, -1, null);
+    }
+
+    /**
+     * Creates the result of completing or skipping one occurrence of a recurring task.
+     *
+     * @param action OCCURRENCE_COMPLETED or OCCURRENCE_SKIPPED
+     * @param task the recurring task
+     * @param date the date of the occurrence
+     * @return the result
+     */
+    public static TaskResult ofOccurrence(Action action, Task task, LocalDate date) {
+        assert action == Action.OCCURRENCE_COMPLETED || action == Action.OCCURRENCE_SKIPPED
+                : "Action must change an occurrence";
+        return new TaskResult(action, task, -1, date);
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Gets the number of tasks in the list after an ADDED action.
+     *
+     * @return the number of tasks, or -1 for other actions
+     */
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public LocalDate getOccurrenceDate() {
+        return occurrenceDate;
+    }
+
+    @Override
+    public String render() {
+        switch (action) {
+            case ADDED:
+                return action.prefix + task.getTask() + ADDED_SUFFIX + taskCount + ADDED_SUFFIX2;
+            case DELETED:
+                return action.prefix + task.getTask() + (task.checkIsDone() ? "" : NOT_LOCKED_IN);
+            case OCCURRENCE_COMPLETED:
+            case OCCURRENCE_SKIPPED:
+                return action.prefix + occurrenceDate.format(DateTimeUtil.OUTPUT_DATE_FORMATTER)
+                        + OCCURRENCE_SUFFIX + task.getTask();
+            default:
+                return action.prefix + task.getTask();
+        }
+    }
+}
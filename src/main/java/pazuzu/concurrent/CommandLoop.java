@@ -0,0 +1,215 @@
+package pazuzu.concurrent;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.CommandInput;
+import pazuzu.command.Response;
+
+/**
+ * Runs commands from many threads on one Pazuzu without locking it.
+ * Commands that change anything go onto a ring buffer and are applied in order by a single writer thread,
+ * which takes them in batches and saves once per batch before replying to any of them.
+ * After each batch the writer publishes a snapshot of the list, and List and find are answered
+ * from the latest snapshot on the calling thread, so reads never wait behind writes.
+ * A snapshot always includes every change whose reply has completed, and a thread's reads only use one
+ * once its own earlier commands have been applied, so each thread's commands take effect in the order it submitted them.
+ * Stopping waits for submits already adding to the buffer, so every command that gets in is applied and answered.
+ */
+public class CommandLoop {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_BATCH = 512;
+    private static final String WRITER_THREAD_NAME = "pazuzu-writer";
+    private static final String STOPPED_MESSAGE = "Command loop is stopped";
+
+    private final Pazuzu pazuzu;
+    private final RingBuffer<PendingCommand> queue;
+    private final Thread writer;
+    private final LongAdder snapshotReadCount = new LongAdder();
+    // Submits between their stopping check and the end of their offer, which stop waits for
+    private final AtomicInteger activeSubmitCount = new AtomicInteger();
+    private final ThreadLocal<CompletableFuture<Response>> lastQueued = new ThreadLocal<>();
+    private volatile Pazuzu.Snapshot snapshot;
+    private volatile boolean isStopping;
+    private volatile boolean isClosed;
+    private volatile boolean isWriterWaiting;
+    private volatile long batchCount;
+    private volatile long appliedCount;
+
+    /**
+     * Creates a loop for the given Pazuzu, which from now on must only be used through the loop.
+     * The Pazuzu saves only when the loop flushes it at the end of a batch.
+     *
+     * @param pazuzu the Pazuzu to run commands with
+     * @param capacity the most commands that can wait to be applied, a power of two
+     */
+    public CommandLoop(Pazuzu pazuzu, int capacity) {
+        this.pazuzu = pazuzu;
+        this.queue = new RingBuffer<>(capacity);
+        pazuzu.setSaveInterval(0);
+        snapshot = pazuzu.getSnapshot();
+        writer = new Thread(this::runWriter, WRITER_THREAD_NAME);
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Submits a command from any thread without waiting for it.
+     * Reads are answered at once from the latest snapshot, unless a command this thread submitted
+     * earlier is still waiting; other commands wait in the ring buffer, and the caller spins while it is full.
+     *
+     * @param command the command input
+     * @return the reply, completed once the command has been applied and saved
+     */
+    public CompletableFuture<Response> submit(String command) {
+        if (isStopping) {
+            return CompletableFuture.failedFuture(new IllegalStateException(STOPPED_MESSAGE));
+        }
+        CommandInput input = CommandInput.parse(command);
+        Pazuzu.Snapshot current = snapshot;
+        CompletableFuture<Response> previous = lastQueued.get();
+        if ((previous == null || previous.isDone()) && current.canAnswer(input)) {
+            snapshotReadCount.increment();
+            return CompletableFuture.completedFuture(new Response(current.answer(input), false));
+        }
+        PendingCommand pending = new PendingCommand(command);
+        // Counted before checking again, so stop either sees this submit or this submit sees stop
+        activeSubmitCount.incrementAndGet();
+        try {
+            while (!isStopping) {
+                if (queue.offer(pending)) {
+                    wakeWriter();
+                    lastQueued.set(pending.reply);
+                    return pending.reply;
+                }
+                wakeWriter();
+                Thread.yield();
+            }
+        } finally {
+            activeSubmitCount.decrementAndGet();
+        }
+        return CompletableFuture.failedFuture(new IllegalStateException(STOPPED_MESSAGE));
+    }
+
+    /**
+     * Applies the commands still waiting, stops the writer thread and saves the tasks.
+     * Commands submitted after this fail with an IllegalStateException.
+     */
+    public void stop() {
+        isStopping = true;
+        // A submit that passed its check before the flag was set may still be adding its command
+        while (activeSubmitCount.get() > 0) {
+            Thread.yield();
+        }
+        isClosed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Only left over if the writer was never started; no submit can add more now
+        for (PendingCommand pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.reply.completeExceptionally(new IllegalStateException(STOPPED_MESSAGE));
+        }
+        pazuzu.flush();
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getAppliedCount() {
+        return appliedCount;
+    }
+
+    public long getSnapshotReadCount() {
+        return snapshotReadCount.sum();
+    }
+
+    private void runWriter() {
+        ArrayList<PendingCommand> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            PendingCommand next = queue.poll();
+            if (next == null) {
+                if (isClosed) {
+                    return;
+                }
+                waitForCommands();
+                continue;
+            }
+            do {
+                batch.add(next);
+            } while (batch.size() < MAX_BATCH && (next = queue.poll()) != null);
+            applyBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies a batch in order, saves once and publishes a new snapshot before replying,
+     * so a client that has its reply sees its change in later reads.
+     */
+    private void applyBatch(ArrayList<PendingCommand> batch) {
+        for (PendingCommand pending : batch) {
+            try {
+                pending.response = pazuzu.respond(pending.command);
+            } catch (RuntimeException e) {
+                pending.failure = e;
+            }
+        }
+        pazuzu.flush();
+        snapshot = pazuzu.getSnapshot();
+        batchCount++;
+        appliedCount += batch.size();
+        for (PendingCommand pending : batch) {
+            if (pending.failure == null) {
+                pending.reply.complete(pending.response);
+            } else {
+                pending.reply.completeExceptionally(pending.failure);
+            }
+        }
+    }
+
+    /**
+     * Parks the writer until a producer adds a command.
+     * The flag is set before checking the buffer again, so a command added in between is never missed.
+     */
+    private void waitForCommands() {
+        isWriterWaiting = true;
+        if (queue.isEmpty() && !isClosed) {
+            LockSupport.park(this);
+        }
+        isWriterWaiting = false;
+    }
+
+    private void wakeWriter() {
+        if (isWriterWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * A command waiting in the ring buffer, with the reply its caller is waiting for.
+     */
+    private static class PendingCommand {
+        private final String command;
+        private final CompletableFuture<Response> reply = new CompletableFuture<>();
+        private Response response;
+        private RuntimeException failure;
+
+        private PendingCommand(String command) {
+            this.command = command;
+        }
+    }
+}
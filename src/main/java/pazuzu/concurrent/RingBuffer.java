@@ -0,0 +1,97 @@
+package pazuzu.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue for many producer threads and one consumer thread that never takes a lock.
+ * Each slot has a sequence number saying whose turn it is: a producer claims the next slot by
+ * moving the shared tail with compare-and-set, fills it and then publishes it by advancing its
+ * sequence; the consumer takes a slot once its sequence shows it is filled and hands it back to
+ * producers one lap later. A full queue refuses new elements instead of growing.
+ *
+ * @param <E> the type of the elements
+ */
+public class RingBuffer<E> {
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer thread reads or moves the head
+    private long head;
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity the most elements it holds, a power of two
+     */
+    public RingBuffer(int capacity) {
+        assert capacity > 0 && Integer.bitCount(capacity) == 1 : "Capacity must be a power of two";
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element at the tail, from any thread.
+     *
+     * @param element the element to add
+     * @return true if it was added, or false if the buffer is full
+     */
+    public boolean offer(E element) {
+        assert element != null : "Element cannot be null";
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.setPlain(index, element);
+                    // A full volatile write, so a consumer about to park cannot miss it
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                // Another producer claimed this slot first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the element at the head. Must only be called from the consumer thread.
+     *
+     * @return the element, or null if the buffer is empty or the next element is still being added
+     */
+    public E poll() {
+        int index = (int) head & mask;
+        if (sequences.getAcquire(index) != head + 1) {
+            return null;
+        }
+        E element = slots.getPlain(index);
+        slots.setPlain(index, null);
+        sequences.setRelease(index, head + mask + 1);
+        head++;
+        return element;
+    }
+
+    /**
+     * Checks if the buffer has no elements, as seen by the consumer thread.
+     *
+     * @return true if poll would return null
+     */
+    public boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,272 @@
+package pazuzu.history;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.task.TaskListener;
+
+/**
+ * Records every change to a TaskList as a small delta so changes can be undone and redone.
+ * An addition or removal keeps the task and its position; an update keeps copies of the one
+ * changed task from before and after the change. The deltas of one command form a step,
+ * and undoing or redoing a step replays only its deltas, never the whole list.
+ * The log drops its oldest steps once it holds too many of them or its estimated size grows too large.
+ */
+public class UndoLog implements TaskListener {
+    private static final int DELTA_BYTES = 32;
+    private static final int TASK_BYTES = 64;
+
+    private final TaskList tasks;
+    private final int maxSteps;
+    private final long maxBytes;
+    private final ArrayDeque<Step> undoSteps = new ArrayDeque<>();
+    private final ArrayDeque<Step> redoSteps = new ArrayDeque<>();
+    private Step openStep;
+    private Task pendingBefore;
+    private long byteCount;
+    private boolean isReplaying;
+
+    /**
+     * Creates an undo log for the given list and starts recording its changes.
+     * Tasks already in the list are not recorded.
+     *
+     * @param tasks the list to record
+     * @param maxSteps the most steps kept for undo
+     * @param maxBytes the most estimated bytes kept across undo and redo steps
+     */
+    public UndoLog(TaskList tasks, int maxSteps, long maxBytes) {
+        assert maxSteps > 0 : "Undo log must keep at least one step";
+        this.tasks = tasks;
+        this.maxSteps = maxSteps;
+        this.maxBytes = maxBytes;
+        isReplaying = true;
+        tasks.addListener(this);
+        isReplaying = false;
+    }
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        record(new Delta(Delta.ADD, taskNumber, task, null, null));
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        record(new Delta(Delta.REMOVE, taskNumber, task, null, null));
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        if (!isReplaying) {
+            pendingBefore = task.copy();
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        if (pendingBefore != null) {
+            record(new Delta(Delta.UPDATE, 0, task, pendingBefore, task.copy()));
+            pendingBefore = null;
+        }
+    }
+
+    /**
+     * Ends the current step, so changes recorded from now on are undone separately.
+     * Called once after each command.
+     */
+    public void closeStep() {
+        if (openStep == null) {
+            return;
+        }
+        undoSteps.addLast(openStep);
+        openStep = null;
+        while (undoSteps.size() > maxSteps || (byteCount > maxBytes && undoSteps.size() > 1)) {
+            forget(undoSteps.pollFirst());
+        }
+    }
+
+    /**
+     * Undoes the most recent step.
+     *
+     * @return the task changed last by the undone step, or null if there is nothing to undo
+     */
+    public Task undo() {
+        closeStep();
+        Step step = undoSteps.pollLast();
+        if (step == null) {
+            return null;
+        }
+        isReplaying = true;
+        try {
+            for (int i = step.deltas.size() - 1; i >= 0; i--) {
+                step.deltas.get(i).revert(tasks);
+            }
+        } finally {
+            isReplaying = false;
+        }
+        redoSteps.addLast(step);
+        return step.deltas.get(step.deltas.size() - 1).task;
+    }
+
+    /**
+     * Redoes the most recently undone step.
+     *
+     * @return the task changed last by the redone step, or null if there is nothing to redo
+     */
+    public Task redo() {
+        closeStep();
+        Step step = redoSteps.pollLast();
+        if (step == null) {
+            return null;
+        }
+        isReplaying = true;
+        try {
+            for (Delta delta : step.deltas) {
+                delta.apply(tasks);
+            }
+        } finally {
+            isReplaying = false;
+        }
+        undoSteps.addLast(step);
+        return step.deltas.get(step.deltas.size() - 1).task;
+    }
+
+    /**
+     * Forgets every step, for changes that cannot be undone such as archiving.
+     */
+    public void clear() {
+        openStep = null;
+        undoSteps.clear();
+        redoSteps.clear();
+        byteCount = 0;
+    }
+
+    /**
+     * Forgets every step and stops recording, for bulk changes too large to keep such as imports.
+     */
+    public void pause() {
+        clear();
+        isReplaying = true;
+    }
+
+    /**
+     * Starts recording again after {@link #pause()}.
+     */
+    public void resume() {
+        isReplaying = false;
+    }
+
+    /**
+     * Gets the number of steps that can be undone.
+     *
+     * @return the number of undo steps
+     */
+    public int getUndoCount() {
+        return undoSteps.size() + (openStep == null ? 0 : 1);
+    }
+
+    /**
+     * Gets the number of steps that can be redone.
+     *
+     * @return the number of redo steps
+     */
+    public int getRedoCount() {
+        return redoSteps.size();
+    }
+
+    /**
+     * Gets the estimated memory held by the log.
+     *
+     * @return the estimated size of all kept steps in bytes
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Adds a delta to the open step. A new change makes the undone steps unreachable, so they are dropped.
+     */
+    private void record(Delta delta) {
+        if (isReplaying) {
+            return;
+        }
+        while (!redoSteps.isEmpty()) {
+            forget(redoSteps.pollLast());
+        }
+        if (openStep == null) {
+            openStep = new Step();
+        }
+        openStep.deltas.add(delta);
+        openStep.bytes += delta.estimateBytes();
+        byteCount += delta.estimateBytes();
+    }
+
+    private void forget(Step step) {
+        byteCount -= step.bytes;
+    }
+
+    /**
+     * The deltas recorded for one command.
+     */
+    private static class Step {
+        private final ArrayList<Delta> deltas = new ArrayList<>(1);
+        private long bytes;
+    }
+
+    /**
+     * One change to the list with enough information to reverse and repeat it.
+     */
+    private static class Delta {
+        private static final int ADD = 0;
+        private static final int REMOVE = 1;
+        private static final int UPDATE = 2;
+
+        private final int kind;
+        private final int taskNumber;
+        private final Task task;
+        private final Task before;
+        private final Task after;
+
+        private Delta(int kind, int taskNumber, Task task, Task before, Task after) {
+            this.kind = kind;
+            this.taskNumber = taskNumber;
+            this.task = task;
+            this.before = before;
+            this.after = after;
+        }
+
+        private void revert(TaskList tasks) {
+            if (kind == ADD) {
+                tasks.deleteTask(taskNumber);
+            } else if (kind == REMOVE) {
+                tasks.insertTask(taskNumber, task);
+            } else {
+                tasks.restoreTask(task, before);
+            }
+        }
+
+        private void apply(TaskList tasks) {
+            if (kind == ADD) {
+                tasks.insertTask(taskNumber, task);
+            } else if (kind == REMOVE) {
+                tasks.deleteTask(taskNumber);
+            } else {
+                tasks.restoreTask(task, after);
+            }
+        }
+
+        /**
+         * Estimates the memory this delta keeps alive, counting each copied or removed task.
+         */
+        private long estimateBytes() {
+            long bytes = DELTA_BYTES;
+            if (kind == UPDATE) {
+                bytes += 2 * (TASK_BYTES + 2L * task.getName().length());
+            } else {
+                bytes += TASK_BYTES + 2L * task.getName().length();
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package pazuzu.index;
+
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Counts deadlines and events per calendar day using Fenwick trees over epoch-day buckets,
+ * so the number of tasks due in any date range is answered in logarithmic time.
+ * Deadlines are bucketed by their deadline and events by their start date.
+ */
+public class DateHistogram implements TaskListener {
+    private final DayCounts deadlineDays = new DayCounts();
+    private final DayCounts eventDays = new DayCounts();
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        count(task, 1);
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        count(task, -1);
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        count(task, -1);
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        count(task, 1);
+    }
+
+    /**
+     * Counts deadlines falling on days from the start date to the end date, both inclusive.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range
+     * @return the number of deadlines in the range
+     */
+    public int countDeadlines(LocalDate from, LocalDate to) {
+        return deadlineDays.rangeCount(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Counts events starting on days from the start date to the end date, both inclusive.
+     *
+     * @param from the first day of the range
+     * @param to the last day of the range
+     * @return the number of events in the range
+     */
+    public int countEvents(LocalDate from, LocalDate to) {
+        return eventDays.rangeCount(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Adds or removes a task from the bucket of its date.
+     */
+    private void count(Task task, int delta) {
+        if (task instanceof Deadline) {
+            deadlineDays.add(((Deadline) task).getDeadline().toLocalDate().toEpochDay(), delta);
+        } else if (task instanceof Event) {
+            eventDays.add(((Event) task).getStartDate().toLocalDate().toEpochDay(), delta);
+        }
+    }
+
+    /**
+     * A Fenwick tree over a window of consecutive epoch days.
+     * The window grows by doubling to cover new days; days too far from the window
+     * to be worth a bucket are kept in an ordered map instead.
+     */
+    private static class DayCounts {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final int MAX_CAPACITY = 1 << 22; // About 11,000 years of days
+
+        private long origin;
+        private int[] buckets = new int[0];
+        private int[] tree = new int[1];
+        private final TreeMap<Long, Integer> outliers = new TreeMap<>();
+
+        void add(long day, int delta) {
+            if (!ensureCovers(day)) {
+                outliers.merge(day, delta, (count, change) -> count + change == 0 ? null : count + change);
+                return;
+            }
+            int index = (int) (day - origin);
+            buckets[index] += delta;
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        int rangeCount(long fromDay, long toDay) {
+            if (fromDay > toDay) {
+                return 0;
+            }
+            int total = prefixCount(toDay + 1) - prefixCount(fromDay);
+            for (int count : outliers.subMap(fromDay, true, toDay, true).values()) {
+                total += count;
+            }
+            return total;
+        }
+
+        /**
+         * Sums the buckets of all window days strictly before the given day.
+         */
+        private int prefixCount(long day) {
+            long end = Math.min(Math.max(day - origin, 0), buckets.length);
+            int total = 0;
+            for (int i = (int) end; i > 0; i -= i & -i) {
+                total += tree[i];
+            }
+            return total;
+        }
+
+        /**
+         * Grows the window so that it covers the given day, if that stays within the maximum capacity.
+         *
+         * @return true if the day is inside the window
+         */
+        private boolean ensureCovers(long day) {
+            if (buckets.length == 0) {
+                origin = day - INITIAL_CAPACITY / 2;
+                resize(origin, INITIAL_CAPACITY);
+                return true;
+            }
+            long end = origin + buckets.length;
+            if (day >= origin && day < end) {
+                return true;
+            }
+            long low = Math.min(origin, day);
+            long high = Math.max(end, day + 1);
+            long capacity = buckets.length;
+            while (capacity < high - low) {
+                capacity *= 2;
+            }
+            if (capacity > MAX_CAPACITY) {
+                return false;
+            }
+            // Keep the far edge fixed so the window grows towards the new day
+            long newOrigin = day < origin ? end - capacity : origin;
+            resize(newOrigin, (int) capacity);
+            return true;
+        }
+
+        /**
+         * Moves the bucket counts, and any outliers the new window covers, into a window
+         * with the given origin and capacity and rebuilds the tree in linear time.
+         */
+        private void resize(long newOrigin, int capacity) {
+            int[] newBuckets = new int[capacity];
+            System.arraycopy(buckets, 0, newBuckets, (int) (origin - newOrigin), buckets.length);
+            // Days previously outside the window now get their own buckets
+            var covered = outliers.subMap(newOrigin, true, newOrigin + capacity, false);
+            for (var outlier : covered.entrySet()) {
+                newBuckets[(int) (outlier.getKey() - newOrigin)] += outlier.getValue();
+            }
+            covered.clear();
+            int[] newTree = new int[capacity + 1];
+            for (int i = 1; i <= capacity; i++) {
+                newTree[i] += newBuckets[i - 1];
+                int parent = i + (i & -i);
+                if (parent <= capacity) {
+                    newTree[parent] += newTree[i];
+                }
+            }
+            origin = newOrigin;
+            buckets = newBuckets;
+            tree = newTree;
+        }
+    }
+}
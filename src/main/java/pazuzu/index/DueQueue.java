@@ -0,0 +1,186 @@
+package pazuzu.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Keeps the open deadlines and events of a TaskList in an indexed binary min-heap
+ * ordered by deadline or start time. Each task knows its position in the heap, so a
+ * changed date moves the task up or down in O(log n) and a finished or deleted task
+ * is taken out in O(log n) without searching for it.
+ */
+public class DueQueue implements TaskListener {
+    private final ArrayList<Entry> heap = new ArrayList<>();
+    private final IdentityHashMap<Task, Entry> entries = new IdentityHashMap<>();
+    private long nextSequence;
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        LocalDateTime due = getDueTime(task);
+        if (due != null) {
+            Entry entry = new Entry(task, due, nextSequence++);
+            entries.put(task, entry);
+            entry.position = heap.size();
+            heap.add(entry);
+            siftUp(entry.position);
+        }
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        Entry entry = entries.remove(task);
+        if (entry != null) {
+            removeAt(entry.position);
+        }
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // The entry is found again by task, so nothing needs capturing here
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        Entry entry = entries.get(task);
+        LocalDateTime due = getDueTime(task);
+        if (entry == null) {
+            taskAdded(0, task);
+        } else if (due == null) {
+            taskRemoved(0, task);
+        } else {
+            entry.due = due;
+            // Moves up when the date became earlier, down when it became later
+            siftDown(siftUp(entry.position));
+        }
+    }
+
+    /**
+     * Gets the number of open deadlines and events.
+     *
+     * @return the size of the queue
+     */
+    public int getSize() {
+        return heap.size();
+    }
+
+    /**
+     * Lists the open deadlines and events that fall due first, earliest first.
+     * Only the part of the heap above the k-th entry is visited, so this costs O(k log k).
+     *
+     * @param count the most tasks to return
+     * @return up to count tasks in order of due time
+     */
+    public List<Task> getFirst(int count) {
+        ArrayList<Task> first = new ArrayList<>();
+        if (heap.isEmpty() || count <= 0) {
+            return first;
+        }
+        PriorityQueue<Entry> frontier = new PriorityQueue<>(DueQueue::compare);
+        frontier.add(heap.get(0));
+        while (first.size() < count && !frontier.isEmpty()) {
+            Entry entry = frontier.poll();
+            first.add(entry.task);
+            for (int child = 2 * entry.position + 1; child <= 2 * entry.position + 2 && child < heap.size(); child++) {
+                frontier.add(heap.get(child));
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Returns when an open task falls due, or null if it is done or has no date.
+     */
+    private static LocalDateTime getDueTime(Task task) {
+        if (task.checkIsDone()) {
+            return null;
+        } else if (task instanceof Deadline) {
+            return ((Deadline) task).getDeadline();
+        } else if (task instanceof Event) {
+            return ((Event) task).getStartDate();
+        }
+        return null;
+    }
+
+    private void removeAt(int position) {
+        Entry last = heap.remove(heap.size() - 1);
+        if (position < heap.size()) {
+            place(last, position);
+            siftDown(siftUp(position));
+        }
+    }
+
+    /**
+     * Moves the entry at the given position towards the root while it is earlier than its parent.
+     *
+     * @return the final position of the entry
+     */
+    private int siftUp(int position) {
+        Entry entry = heap.get(position);
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (compare(heap.get(parent), entry) <= 0) {
+                break;
+            }
+            place(heap.get(parent), position);
+            position = parent;
+        }
+        place(entry, position);
+        return position;
+    }
+
+    /**
+     * Moves the entry at the given position towards the leaves while it is later than a child.
+     */
+    private void siftDown(int position) {
+        Entry entry = heap.get(position);
+        while (2 * position + 1 < heap.size()) {
+            int child = 2 * position + 1;
+            if (child + 1 < heap.size() && compare(heap.get(child + 1), heap.get(child)) < 0) {
+                child++;
+            }
+            if (compare(entry, heap.get(child)) <= 0) {
+                break;
+            }
+            place(heap.get(child), position);
+            position = child;
+        }
+        place(entry, position);
+    }
+
+    private void place(Entry entry, int position) {
+        heap.set(position, entry);
+        entry.position = position;
+    }
+
+    /**
+     * Orders entries by due time, then by the order they were added in.
+     */
+    private static int compare(Entry first, Entry second) {
+        int order = first.due.compareTo(second.due);
+        return order != 0 ? order : Long.compare(first.sequence, second.sequence);
+    }
+
+    /**
+     * A task in the heap together with its due time and current position.
+     */
+    private static class Entry {
+        private final Task task;
+        private final long sequence;
+        private LocalDateTime due;
+        private int position;
+
+        private Entry(Task task, LocalDateTime due, long sequence) {
+            this.task = task;
+            this.due = due;
+            this.sequence = sequence;
+        }
+    }
+}
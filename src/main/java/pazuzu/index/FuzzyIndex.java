@@ -0,0 +1,283 @@
+package pazuzu.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.task.TaskListener;
+
+/**
+ * Indexes the tokens of task names in a BK-tree so that misspelt keywords can be matched
+ * within a small edit distance without scanning every task.
+ */
+public class FuzzyIndex implements TaskListener {
+    // Edit distance allowed per query token, scaled by token length
+    private static final int SHORT_TOKEN_LENGTH = 4;
+    private static final int SHORT_TOKEN_DISTANCE = 1;
+    private static final int LONG_TOKEN_DISTANCE = 2;
+
+    // Rebuild the tree once this many tokens no longer belong to any task
+    private static final int MIN_DEAD_TOKENS_FOR_REBUILD = 64;
+    private static final String TOKEN_SEPARATOR = "[^\\p{L}\\p{N}]+";
+
+    private Node root;
+    private int deadTokens;
+    private final HashMap<String, LinkedHashSet<Task>> postings = new HashMap<>();
+    private final IdentityHashMap<Task, List<String>> tokensByTask = new IdentityHashMap<>();
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        indexTask(task);
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        unindexTask(task);
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // Old tokens are remembered per task, so nothing needs capturing here
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        unindexTask(task);
+        indexTask(task);
+    }
+
+    /**
+     * Finds all tasks whose names contain, for every token of the query, a token
+     * within the allowed edit distance. Closer matches are returned first.
+     *
+     * @param query the possibly misspelt keywords to search for
+     * @return a new TaskList containing all matching tasks
+     */
+    public TaskList findTasksNear(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || root == null) {
+            return new TaskList();
+        }
+
+        IdentityHashMap<Task, Integer> scores = null;
+        for (String queryToken : queryTokens) {
+            IdentityHashMap<Task, Integer> tokenScores = new IdentityHashMap<>();
+            ArrayList<Match> matches = new ArrayList<>();
+            root.search(queryToken, maxDistanceFor(queryToken), matches);
+            for (Match match : matches) {
+                LinkedHashSet<Task> owners = postings.get(match.token);
+                if (owners == null) {
+                    continue; // Token no longer used by any task
+                }
+                for (Task task : owners) {
+                    tokenScores.merge(task, match.distance, Math::min);
+                }
+            }
+            scores = (scores == null) ? tokenScores : intersect(scores, tokenScores);
+            if (scores.isEmpty()) {
+                return new TaskList();
+            }
+        }
+
+        final IdentityHashMap<Task, Integer> finalScores = scores;
+        ArrayList<Task> matchingTasks = new ArrayList<>(finalScores.keySet());
+        matchingTasks.sort((a, b) -> Integer.compare(finalScores.get(a), finalScores.get(b)));
+        return new TaskList(matchingTasks);
+    }
+
+    /**
+     * Splits a name into lowercase alphanumeric tokens.
+     *
+     * @param text the text to tokenize
+     * @return the non-empty tokens in order of appearance
+     */
+    static List<String> tokenize(String text) {
+        ArrayList<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase().split(TOKEN_SEPARATOR)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the maximum edit distance tolerated for the given query token.
+     */
+    private static int maxDistanceFor(String token) {
+        return token.length() <= SHORT_TOKEN_LENGTH ? SHORT_TOKEN_DISTANCE : LONG_TOKEN_DISTANCE;
+    }
+
+    /**
+     * Keeps only tasks present in both score maps, summing their distances.
+     */
+    private static IdentityHashMap<Task, Integer> intersect(IdentityHashMap<Task, Integer> left,
+            IdentityHashMap<Task, Integer> right) {
+        IdentityHashMap<Task, Integer> result = new IdentityHashMap<>();
+        for (Task task : left.keySet()) {
+            Integer rightScore = right.get(task);
+            if (rightScore != null) {
+                result.put(task, left.get(task) + rightScore);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the tokens of a task's current name to the index.
+     */
+    private void indexTask(Task task) {
+        List<String> tokens = tokenize(task.getName());
+        tokensByTask.put(task, tokens);
+        for (String token : tokens) {
+            LinkedHashSet<Task> owners = postings.get(token);
+            if (owners == null) {
+                owners = new LinkedHashSet<>();
+                postings.put(token, owners);
+                if (insertToken(token)) {
+                    // Token was already in the tree from an earlier task
+                    deadTokens--;
+                }
+            }
+            owners.add(task);
+        }
+    }
+
+    /**
+     * Removes the tokens a task was last indexed under.
+     */
+    private void unindexTask(Task task) {
+        List<String> tokens = tokensByTask.remove(task);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            LinkedHashSet<Task> owners = postings.get(token);
+            if (owners == null) {
+                continue;
+            }
+            owners.remove(task);
+            if (owners.isEmpty()) {
+                postings.remove(token);
+                deadTokens++;
+            }
+        }
+        if (deadTokens >= MIN_DEAD_TOKENS_FOR_REBUILD && deadTokens > postings.size()) {
+            rebuildTree();
+        }
+    }
+
+    /**
+     * Inserts a token into the BK-tree.
+     *
+     * @return true if the token was already present in the tree
+     */
+    private boolean insertToken(String token) {
+        if (root == null) {
+            root = new Node(token);
+            return false;
+        }
+        return root.insert(token);
+    }
+
+    /**
+     * Rebuilds the BK-tree from live tokens only, dropping tokens of removed tasks.
+     */
+    private void rebuildTree() {
+        root = null;
+        deadTokens = 0;
+        for (String token : postings.keySet()) {
+            insertToken(token);
+        }
+    }
+
+    /**
+     * Computes the Levenshtein distance between two strings.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @return the number of single-character insertions, deletions or substitutions between them
+     */
+    static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * A BK-tree node whose children are keyed by their edit distance to this node's token.
+     */
+    private static class Node {
+        final String token;
+        final HashMap<Integer, Node> children = new HashMap<>();
+
+        Node(String token) {
+            this.token = token;
+        }
+
+        boolean insert(String newToken) {
+            Node node = this;
+            while (true) {
+                int distance = editDistance(newToken, node.token);
+                if (distance == 0) {
+                    return true;
+                }
+                Node child = node.children.get(distance);
+                if (child == null) {
+                    node.children.put(distance, new Node(newToken));
+                    return false;
+                }
+                node = child;
+            }
+        }
+
+        void search(String query, int maxDistance, List<Match> matches) {
+            ArrayList<Node> pending = new ArrayList<>();
+            pending.add(this);
+            while (!pending.isEmpty()) {
+                Node node = pending.remove(pending.size() - 1);
+                int distance = editDistance(query, node.token);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(node.token, distance));
+                }
+                // Triangle inequality: only children within [d - k, d + k] can match
+                for (int d = Math.max(1, distance - maxDistance); d <= distance + maxDistance; d++) {
+                    Node child = node.children.get(d);
+                    if (child != null) {
+                        pending.add(child);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A token found by a tree search together with its distance to the query.
+     */
+    private static class Match {
+        final String token;
+        final int distance;
+
+        Match(String token, int distance) {
+            this.token = token;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package pazuzu.index;
+
+import java.util.IdentityHashMap;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * A counting Bloom filter over the trigrams of all task names, used to answer
+ * keyword searches that cannot match any task without scanning the list.
+ * If any trigram of a keyword is missing from the filter, no name contains the keyword.
+ * Counters make removals possible; the filter is resized as names are added and
+ * rebuilt on the next query after many removals, since saturated counters never go down.
+ * Each task's name is remembered as the task's own, usually interned, string, and lowered again
+ * when its trigrams are removed, so the filter keeps no copy of any name.
+ */
+public class NgramFilter implements TaskListener {
+    private static final int GRAM_LENGTH = 3;
+    private static final int HASH_COUNT = 3;
+    private static final int MIN_CAPACITY = 1 << 12;
+    // Keep at most one trigram per this many counters, for about 3% false positives
+    private static final int COUNTERS_PER_GRAM = 8;
+    private static final int MAX_COUNT = 0xFF;
+    private static final int MIN_REMOVALS_FOR_REBUILD = 64;
+
+    // The name each task was counted under, which may differ from its current name while it is edited
+    private final IdentityHashMap<Task, String> namesByTask = new IdentityHashMap<>();
+    private byte[] counters = new byte[MIN_CAPACITY];
+    private long gramCount;
+    private int removalsSinceBuild;
+    private long skippedCount;
+    private long falsePositiveCount;
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        addName(task, task.getName());
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        removeName(task);
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // Old names are remembered per task, so nothing needs capturing here
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        String name = task.getName();
+        if (!name.equals(namesByTask.get(task))) {
+            removeName(task);
+            addName(task, name);
+        }
+    }
+
+    /**
+     * Checks if some task name might contain the keyword, ignoring case.
+     * A false result is certain; a true result needs confirming by a scan.
+     * Keywords shorter than a trigram always might match.
+     *
+     * @param keyword the keyword to look for
+     * @return false if no task name contains the keyword
+     */
+    public boolean mightContain(String keyword) {
+        if (removalsSinceBuild >= MIN_REMOVALS_FOR_REBUILD && removalsSinceBuild > namesByTask.size()) {
+            rebuild(capacityFor(gramCount));
+        }
+        String lowerKeyword = keyword.toLowerCase();
+        for (int i = 0; i + GRAM_LENGTH <= lowerKeyword.length(); i++) {
+            if (!containsGram(lowerKeyword, i)) {
+                skippedCount++;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records that a keyword the filter let through matched no task.
+     */
+    public void recordFalsePositive() {
+        falsePositiveCount++;
+    }
+
+    /**
+     * Gets the number of searches answered as misses by the filter alone.
+     *
+     * @return the number of skipped scans
+     */
+    public long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Gets the number of searches the filter let through that matched nothing.
+     *
+     * @return the number of false positives
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount;
+    }
+
+    private void addName(Task task, String name) {
+        namesByTask.put(task, name);
+        String lowerName = name.toLowerCase();
+        gramCount += countGrams(lowerName);
+        if (gramCount * COUNTERS_PER_GRAM > counters.length) {
+            rebuild(capacityFor(gramCount));
+        } else {
+            adjustGrams(lowerName, 1);
+        }
+    }
+
+    private void removeName(Task task) {
+        String name = namesByTask.remove(task);
+        if (name == null) {
+            return;
+        }
+        // Lowering the same string again gives the same trigrams that were added
+        String lowerName = name.toLowerCase();
+        gramCount -= countGrams(lowerName);
+        removalsSinceBuild++;
+        adjustGrams(lowerName, -1);
+    }
+
+    /**
+     * Refills fresh counters of the given size from the names of all tasks.
+     */
+    private void rebuild(int capacity) {
+        counters = new byte[capacity];
+        removalsSinceBuild = 0;
+        for (String name : namesByTask.values()) {
+            adjustGrams(name.toLowerCase(), 1);
+        }
+    }
+
+    private void adjustGrams(String name, int delta) {
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            int hash = hashGram(name, i);
+            int step = mix(hash) | 1;
+            for (int k = 0; k < HASH_COUNT; k++) {
+                int slot = (hash + k * step) & (counters.length - 1);
+                int count = counters[slot] & MAX_COUNT;
+                // A saturated counter stays saturated, as its true count is no longer known
+                if (count != MAX_COUNT && (delta > 0 || count > 0)) {
+                    counters[slot] = (byte) (count + delta);
+                }
+            }
+        }
+    }
+
+    private boolean containsGram(String text, int start) {
+        int hash = hashGram(text, start);
+        int step = mix(hash) | 1;
+        for (int k = 0; k < HASH_COUNT; k++) {
+            if (counters[(hash + k * step) & (counters.length - 1)] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hashes the trigram at the given position without creating a substring.
+     */
+    private static int hashGram(String text, int start) {
+        int hash = 0;
+        for (int i = start; i < start + GRAM_LENGTH; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    private static long countGrams(String name) {
+        return Math.max(0, name.length() - GRAM_LENGTH + 1);
+    }
+
+    /**
+     * Returns the smallest power of two of at least the minimum capacity that fits the given number of trigrams.
+     */
+    private static int capacityFor(long grams) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < grams * COUNTERS_PER_GRAM && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,231 @@
+package pazuzu.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * An ordered multiset that also knows the position of every element.
+ * It is a treap whose nodes count the elements below them, so adding, removing,
+ * finding the element at a position and counting the elements before a value all take logarithmic time.
+ * Elements that compare equal share a node and are counted together.
+ *
+ * @param <E> the type of the elements
+ */
+public class RankedTree<E> {
+    private final Comparator<? super E> order;
+    private final SplittableRandom random = new SplittableRandom();
+    private Node<E> root;
+    private boolean isChanged;
+
+    /**
+     * Creates an empty tree ordered by the given comparator.
+     *
+     * @param order the order of the elements
+     */
+    public RankedTree(Comparator<? super E> order) {
+        assert order != null : "Order cannot be null";
+        this.order = order;
+    }
+
+    /**
+     * Adds one copy of the element.
+     *
+     * @param element the element to add
+     */
+    public void add(E element) {
+        root = insert(root, element);
+    }
+
+    /**
+     * Removes one copy of the element, if there is one.
+     *
+     * @param element the element to remove
+     * @return true if a copy was removed
+     */
+    public boolean remove(E element) {
+        isChanged = false;
+        root = delete(root, element);
+        return isChanged;
+    }
+
+    /**
+     * Gets the number of elements, counting every copy.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Counts the elements that come strictly before the given value.
+     *
+     * @param value the value to compare with, which need not be in the tree
+     * @return the number of smaller elements, which is also the 0-based position of the value
+     */
+    public int countBefore(E value) {
+        int count = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (order.compare(value, node.element) <= 0) {
+                node = node.left;
+            } else {
+                count += sizeOf(node.left) + node.count;
+                node = node.right;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the element at a 0-based position in the order.
+     *
+     * @param index the position of the element
+     * @return the element
+     * @throws IndexOutOfBoundsException if the position is outside the tree
+     */
+    public E get(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index out of range: " + index);
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = sizeOf(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index < leftSize + node.count) {
+                return node.element;
+            } else {
+                index -= leftSize + node.count;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets every element in order, with each copy listed.
+     *
+     * @return a new list of the elements
+     */
+    public ArrayList<E> toList() {
+        ArrayList<E> elements = new ArrayList<>(size());
+        ArrayDeque<Node<E>> path = new ArrayDeque<>();
+        Node<E> node = root;
+        while (node != null || !path.isEmpty()) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            for (int i = 0; i < node.count; i++) {
+                elements.add(node.element);
+            }
+            node = node.right;
+        }
+        return elements;
+    }
+
+    private Node<E> insert(Node<E> node, E element) {
+        if (node == null) {
+            return new Node<>(element, random.nextInt());
+        }
+        int comparison = order.compare(element, node.element);
+        if (comparison == 0) {
+            node.count++;
+        } else if (comparison < 0) {
+            node.left = insert(node.left, element);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, element);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = order.compare(element, node.element);
+        if (comparison < 0) {
+            node.left = delete(node.left, element);
+        } else if (comparison > 0) {
+            node.right = delete(node.right, element);
+        } else {
+            isChanged = true;
+            if (node.count == 1) {
+                return merge(node.left, node.right);
+            }
+            node.count--;
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Joins two trees where every element of the first comes before every element of the second.
+     */
+    private Node<E> merge(Node<E> first, Node<E> second) {
+        if (first == null) {
+            return second;
+        } else if (second == null) {
+            return first;
+        } else if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            update(first);
+            return first;
+        } else {
+            second.left = merge(first, second.left);
+            update(second);
+            return second;
+        }
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        return top;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        return top;
+    }
+
+    private static <E> void update(Node<E> node) {
+        node.size = sizeOf(node.left) + node.count + sizeOf(node.right);
+    }
+
+    private static int sizeOf(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * One distinct element, how many copies of it there are, and how many elements its subtree holds.
+     */
+    private static class Node<E> {
+        private final E element;
+        private final int priority;
+        private int count = 1;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        Node(E element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package pazuzu.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.function.Predicate;
+
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * A named, always-sorted view over the tasks of a TaskList.
+ * Tasks are kept in a ranked tree that is updated on every change to the list,
+ * so listing the view never needs a full sort and finding a task by its view number takes logarithmic time.
+ */
+public class SortedTaskView implements TaskListener {
+    private final String name;
+    private final Predicate<Task> filter;
+    private final RankedTree<Task> sortedTasks;
+    private final IdentityHashMap<Task, Long> sequenceNumbers = new IdentityHashMap<>();
+    private long nextSequenceNumber;
+
+    /**
+     * Creates a view holding the tasks accepted by the filter, in the given order.
+     * Tasks that compare equal keep the order in which they joined the view.
+     *
+     * @param name the name users refer to the view by
+     * @param filter decides which tasks belong to the view
+     * @param order the sort order of the view
+     */
+    public SortedTaskView(String name, Predicate<Task> filter, Comparator<Task> order) {
+        this.name = name;
+        this.filter = filter;
+        this.sortedTasks = new RankedTree<>(order.thenComparing(task -> sequenceNumbers.get(task)));
+    }
+
+    /**
+     * Creates a view of deadline tasks, earliest deadline first.
+     *
+     * @return the deadline view
+     */
+    public static SortedTaskView byDeadline() {
+        return new SortedTaskView("deadline", task -> task instanceof Deadline,
+                Comparator.comparing(task -> ((Deadline) task).getDeadline()));
+    }
+
+    /**
+     * Creates a view of event tasks, earliest start date first.
+     *
+     * @return the start date view
+     */
+    public static SortedTaskView byStartDate() {
+        return new SortedTaskView("start", task -> task instanceof Event,
+                Comparator.comparing(task -> ((Event) task).getStartDate()));
+    }
+
+    /**
+     * Creates a view of recurring tasks, earliest series start first.
+     *
+     * @return the recurring task view
+     */
+    public static SortedTaskView byRecurrence() {
+        return new SortedTaskView("recurring", task -> task instanceof RecurringTask,
+                Comparator.comparing(task -> ((RecurringTask) task).getStart()));
+    }
+
+    /**
+     * Creates a view of all tasks in alphabetical order of name, ignoring case.
+     *
+     * @return the name view
+     */
+    public static SortedTaskView byName() {
+        return new SortedTaskView("name", task -> true,
+                Comparator.comparing(Task::getName, String.CASE_INSENSITIVE_ORDER));
+    }
+
+    /**
+     * Creates a view of all tasks with unfinished tasks before finished ones.
+     *
+     * @return the status view
+     */
+    public static SortedTaskView byStatus() {
+        return new SortedTaskView("status", task -> true, Comparator.comparing(Task::checkIsDone));
+    }
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        if (filter.test(task)) {
+            sequenceNumbers.put(task, nextSequenceNumber++);
+            sortedTasks.add(task);
+        }
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        if (sequenceNumbers.containsKey(task)) {
+            sortedTasks.remove(task);
+            sequenceNumbers.remove(task);
+        }
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // Must leave the tree while the task still compares by its old values
+        if (sequenceNumbers.containsKey(task)) {
+            sortedTasks.remove(task);
+        }
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        if (sequenceNumbers.containsKey(task)) {
+            sortedTasks.add(task);
+        }
+    }
+
+    /**
+     * Gets the name of this view.
+     *
+     * @return the view name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of tasks in this view.
+     *
+     * @return the number of tasks
+     */
+    public int getSize() {
+        return sortedTasks.size();
+    }
+
+    /**
+     * Gets the tasks of this view in sorted order.
+     *
+     * @return a new list of the tasks in view order
+     */
+    public ArrayList<Task> getTasks() {
+        return sortedTasks.toList();
+    }
+
+    /**
+     * Gets a task by its 1-indexed position in this view.
+     *
+     * @param viewNumber the 1-indexed position of the task in the view
+     * @return the Task object
+     * @throws IndexOutOfBoundsException if the position is outside the view
+     */
+    public Task getTask(int viewNumber) throws IndexOutOfBoundsException {
+        if (viewNumber < 1 || viewNumber > sortedTasks.size()) {
+            throw new IndexOutOfBoundsException("Task number out of range");
+        }
+        return sortedTasks.get(viewNumber - 1);
+    }
+}
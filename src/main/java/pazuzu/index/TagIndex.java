@@ -0,0 +1,211 @@
+package pazuzu.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Indexes the tags of a TaskList with one compressed bitmap per tag.
+ * Each tagged task gets a small id, reused after the task is removed, and a tag's bitmap
+ * has the bits of the ids of its tasks. Only the 64-bit words that have a bit set are stored,
+ * so intersecting tags costs time proportional to the stored words, not to the number of tasks.
+ */
+public class TagIndex implements TaskListener {
+    private final HashMap<String, SparseBitmap> bitmaps = new HashMap<>();
+    private final IdentityHashMap<Task, Integer> ids = new IdentityHashMap<>();
+    private final IdentityHashMap<Task, List<String>> tagsByTask = new IdentityHashMap<>();
+    private final ArrayList<Task> tasksById = new ArrayList<>();
+    private final ArrayDeque<Integer> freeIds = new ArrayDeque<>();
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        indexTask(task);
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        unindexTask(task);
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // Old tags are remembered per task, so nothing needs capturing here
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        if (!task.getTags().equals(tagsByTask.getOrDefault(task, List.of()))) {
+            unindexTask(task);
+            indexTask(task);
+        }
+    }
+
+    /**
+     * Finds the tasks that have every one of the given tags.
+     *
+     * @param tags the tags to match, in lower case and without the # prefix
+     * @return the matching tasks, ordered by id
+     */
+    public List<Task> findTasksTagged(List<String> tags) {
+        ArrayList<Task> found = new ArrayList<>();
+        if (tags.isEmpty()) {
+            return found;
+        }
+        SparseBitmap result = null;
+        for (String tag : tags) {
+            SparseBitmap bitmap = bitmaps.get(tag);
+            if (bitmap == null) {
+                return found;
+            }
+            result = result == null ? bitmap : result.and(bitmap);
+        }
+        result.forEachBit(id -> found.add(tasksById.get(id)));
+        return found;
+    }
+
+    /**
+     * Gets the number of tasks with the given tag.
+     *
+     * @param tag the tag, in lower case and without the # prefix
+     * @return the number of tasks with that tag
+     */
+    public int countTasksTagged(String tag) {
+        SparseBitmap bitmap = bitmaps.get(tag);
+        return bitmap == null ? 0 : bitmap.cardinality();
+    }
+
+    private void indexTask(Task task) {
+        List<String> tags = task.getTags();
+        if (tags.isEmpty()) {
+            return;
+        }
+        int id = freeIds.isEmpty() ? tasksById.size() : freeIds.pop();
+        if (id == tasksById.size()) {
+            tasksById.add(task);
+        } else {
+            tasksById.set(id, task);
+        }
+        ids.put(task, id);
+        tagsByTask.put(task, tags);
+        for (String tag : tags) {
+            bitmaps.computeIfAbsent(tag, key -> new SparseBitmap()).set(id);
+        }
+    }
+
+    private void unindexTask(Task task) {
+        Integer id = ids.remove(task);
+        if (id == null) {
+            return;
+        }
+        for (String tag : tagsByTask.remove(task)) {
+            SparseBitmap bitmap = bitmaps.get(tag);
+            bitmap.clear(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(tag);
+            }
+        }
+        tasksById.set(id, null);
+        freeIds.push(id);
+    }
+
+    /**
+     * A bitmap that stores only its non-zero 64-bit words, as word indexes sorted in one array
+     * and the matching words in another.
+     */
+    static class SparseBitmap {
+        private static final int WORD_BITS = 6;
+
+        private int[] keys = new int[1];
+        private long[] words = new long[1];
+        private int size;
+
+        void set(int bit) {
+            int key = bit >>> WORD_BITS;
+            int position = Arrays.binarySearch(keys, 0, size, key);
+            if (position < 0) {
+                position = -position - 1;
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    words = Arrays.copyOf(words, size * 2);
+                }
+                System.arraycopy(keys, position, keys, position + 1, size - position);
+                System.arraycopy(words, position, words, position + 1, size - position);
+                keys[position] = key;
+                words[position] = 0;
+                size++;
+            }
+            words[position] |= 1L << bit;
+        }
+
+        void clear(int bit) {
+            int position = Arrays.binarySearch(keys, 0, size, bit >>> WORD_BITS);
+            if (position < 0) {
+                return;
+            }
+            words[position] &= ~(1L << bit);
+            if (words[position] == 0) {
+                System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+                System.arraycopy(words, position + 1, words, position, size - position - 1);
+                size--;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int cardinality() {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                count += Long.bitCount(words[i]);
+            }
+            return count;
+        }
+
+        /**
+         * Intersects two bitmaps by walking their sorted word indexes together.
+         */
+        SparseBitmap and(SparseBitmap other) {
+            SparseBitmap result = new SparseBitmap();
+            int capacity = Math.max(1, Math.min(size, other.size));
+            result.keys = new int[capacity];
+            result.words = new long[capacity];
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (keys[i] < other.keys[j]) {
+                    i++;
+                } else if (keys[i] > other.keys[j]) {
+                    j++;
+                } else {
+                    long word = words[i] & other.words[j];
+                    if (word != 0) {
+                        result.keys[result.size] = keys[i];
+                        result.words[result.size] = word;
+                        result.size++;
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        void forEachBit(IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept((keys[i] << WORD_BITS) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
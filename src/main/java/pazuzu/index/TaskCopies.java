@@ -0,0 +1,58 @@
+package pazuzu.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Keeps a detached copy of every task in a TaskList, in list order.
+ * A task is only copied again when it changes, so the copies of unchanged tasks
+ * can be shared by every read-only view of the list taken in between.
+ */
+public class TaskCopies implements TaskListener {
+    private final TaskPositions positions;
+    private final ArrayList<Task> copies = new ArrayList<>();
+
+    /**
+     * Creates copies that find changed tasks through the given positions.
+     * The positions must be registered with the list before these copies.
+     *
+     * @param positions the positions of the tasks in the same list
+     */
+    public TaskCopies(TaskPositions positions) {
+        assert positions != null : "Positions cannot be null";
+        this.positions = positions;
+    }
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        copies.add(taskNumber - 1, task.copy());
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        copies.remove(taskNumber - 1);
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // The old copy may still be held by a view, so it is replaced rather than changed
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        copies.set(positions.getTaskNumber(task) - 1, task.copy());
+    }
+
+    /**
+     * Gets the copies as they are now. Only references are copied, so this costs no new tasks,
+     * and the list returned never changes.
+     *
+     * @return an unmodifiable list of the copies in list order
+     */
+    public List<Task> toList() {
+        return List.copyOf(copies);
+    }
+}
@@ -0,0 +1,95 @@
+package pazuzu.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Knows the number of every task in a TaskList, so a task picked from a view
+ * can be addressed by its list number in logarithmic time instead of a scan.
+ * Each task gets an order key with room between neighbours, and a ranked tree
+ * sorted by key turns a task into its position. Keys are only renumbered when
+ * tasks inserted at the same place use up the room between two neighbours.
+ */
+public class TaskPositions implements TaskListener {
+    private static final long KEY_GAP = 1L << 20;
+
+    private final IdentityHashMap<Task, Long> keys = new IdentityHashMap<>();
+    private final RankedTree<Task> order = new RankedTree<>(Comparator.comparingLong(task -> keys.get(task)));
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        int index = taskNumber - 1;
+        long key = findKeyAt(index);
+        if (key == Long.MIN_VALUE) {
+            renumber();
+            key = findKeyAt(index);
+        }
+        keys.put(task, key);
+        order.add(task);
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        if (keys.containsKey(task)) {
+            order.remove(task);
+            keys.remove(task);
+        }
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        // Changing a task never moves it in the list
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        // Changing a task never moves it in the list
+    }
+
+    /**
+     * Gets the 1-indexed number of a task in the list.
+     *
+     * @param task the task to look up
+     * @return the number of the task
+     * @throws IndexOutOfBoundsException if the task is not in the list
+     */
+    public int getTaskNumber(Task task) throws IndexOutOfBoundsException {
+        if (!keys.containsKey(task)) {
+            throw new IndexOutOfBoundsException("Task not in list");
+        }
+        return order.countBefore(task) + 1;
+    }
+
+    /**
+     * Picks a key between the tasks now at index - 1 and index.
+     *
+     * @return the key, or Long.MIN_VALUE if there is no room left between them
+     */
+    private long findKeyAt(int index) {
+        boolean hasBefore = index > 0;
+        boolean hasAfter = index < order.size();
+        if (!hasBefore) {
+            return hasAfter ? keys.get(order.get(index)) - KEY_GAP : 0;
+        }
+        long before = keys.get(order.get(index - 1));
+        if (!hasAfter) {
+            return before + KEY_GAP;
+        }
+        long after = keys.get(order.get(index));
+        return after - before > 1 ? before + (after - before) / 2 : Long.MIN_VALUE;
+    }
+
+    /**
+     * Spreads the keys out evenly again. Their order is unchanged, so the tree stays sorted.
+     */
+    private void renumber() {
+        ArrayList<Task> tasks = order.toList();
+        for (int i = 0; i < tasks.size(); i++) {
+            keys.put(tasks.get(i), i * KEY_GAP);
+        }
+    }
+}
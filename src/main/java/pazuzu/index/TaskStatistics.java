@@ -0,0 +1,167 @@
+package pazuzu.index;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Keeps running totals about a TaskList, updated on every change so statistics
+ * can be reported without scanning the list.
+ * Open deadlines and event start times are kept in ranked trees, so counting those before a time
+ * or within a window takes logarithmic time however many of them there are.
+ */
+public class TaskStatistics implements TaskListener {
+    private int todoCount;
+    private int deadlineCount;
+    private int eventCount;
+    private int recurringCount;
+    private int doneCount;
+    private final RankedTree<LocalDateTime> openDeadlines = new RankedTree<>(Comparator.naturalOrder());
+    private final RankedTree<LocalDateTime> openEventStarts = new RankedTree<>(Comparator.naturalOrder());
+
+    @Override
+    public void taskAdded(int taskNumber, Task task) {
+        count(task, 1);
+    }
+
+    @Override
+    public void taskRemoved(int taskNumber, Task task) {
+        count(task, -1);
+    }
+
+    @Override
+    public void taskUpdating(Task task) {
+        count(task, -1);
+    }
+
+    @Override
+    public void taskUpdated(Task task) {
+        count(task, 1);
+    }
+
+    /**
+     * Gets the total number of tasks.
+     *
+     * @return the number of tasks
+     */
+    public int getTotalCount() {
+        return todoCount + deadlineCount + eventCount + recurringCount;
+    }
+
+    /**
+     * Gets the number of todo tasks.
+     *
+     * @return the number of todos
+     */
+    public int getTodoCount() {
+        return todoCount;
+    }
+
+    /**
+     * Gets the number of deadline tasks.
+     *
+     * @return the number of deadlines
+     */
+    public int getDeadlineCount() {
+        return deadlineCount;
+    }
+
+    /**
+     * Gets the number of event tasks.
+     *
+     * @return the number of events
+     */
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Gets the number of recurring tasks.
+     *
+     * @return the number of recurring tasks
+     */
+    public int getRecurringCount() {
+        return recurringCount;
+    }
+
+    /**
+     * Gets the number of tasks marked as done.
+     *
+     * @return the number of done tasks
+     */
+    public int getDoneCount() {
+        return doneCount;
+    }
+
+    /**
+     * Gets the number of tasks not yet done.
+     *
+     * @return the number of open tasks
+     */
+    public int getOpenCount() {
+        return getTotalCount() - doneCount;
+    }
+
+    /**
+     * Counts open deadlines that are already past.
+     *
+     * @param now the current time
+     * @return the number of overdue deadlines
+     */
+    public int countOverdueDeadlines(LocalDateTime now) {
+        return openDeadlines.countBefore(now);
+    }
+
+    /**
+     * Counts open events starting from now up to the given end time (exclusive).
+     *
+     * @param now the current time
+     * @param until the end of the window
+     * @return the number of events starting in the window
+     */
+    public int countEventsStartingBetween(LocalDateTime now, LocalDateTime until) {
+        if (!now.isBefore(until)) {
+            return 0;
+        }
+        return openEventStarts.countBefore(until) - openEventStarts.countBefore(now);
+    }
+
+    /**
+     * Adds or removes the contribution of a task to every counter.
+     *
+     * @param task the task to count
+     * @param delta 1 to add the task, -1 to remove it
+     */
+    private void count(Task task, int delta) {
+        if (task instanceof Deadline) {
+            deadlineCount += delta;
+        } else if (task instanceof Event) {
+            eventCount += delta;
+        } else if (task instanceof RecurringTask) {
+            recurringCount += delta;
+        } else {
+            todoCount += delta;
+        }
+
+        if (task.checkIsDone()) {
+            doneCount += delta;
+        } else if (task instanceof Deadline) {
+            adjust(openDeadlines, ((Deadline) task).getDeadline(), delta);
+        } else if (task instanceof Event) {
+            adjust(openEventStarts, ((Event) task).getStartDate(), delta);
+        }
+    }
+
+    private static void adjust(RankedTree<LocalDateTime> times, LocalDateTime time, int delta) {
+        if (delta > 0) {
+            times.add(time);
+        } else {
+            times.remove(time);
+        }
+    }
+}
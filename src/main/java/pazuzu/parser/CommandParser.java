@@ -1,39 +1,66 @@
 package pazuzu.parser;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
+import pazuzu.command.CommandInput;
 import pazuzu.exception.PazuzuExceptions;
 import pazuzu.task.Deadline;
 import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
 import pazuzu.task.Task;
+import pazuzu.util.NameInterner;
 
 /**
  * Handles parsing of user commands.
+ * Each command is read from the CommandInput it was dispatched with, starting where its arguments start,
+ * so the parser does not need to know how long each keyword is.
  */
 public class CommandParser {
-    // Command length constants
-    public static final int MARK_COMMAND_LENGTH = 5;
-    public static final int UNMARK_COMMAND_LENGTH = 7;
-    public static final int DELETE_COMMAND_LENGTH = 7;
-    private static final int FIND_COMMAND_LENGTH = 5;
-    private static final int TODO_COMMAND_LENGTH = 5;
-    private static final int DEADLINE_COMMAND_LENGTH = 9;
-    private static final int EVENT_COMMAND_LENGTH = 6;
-    private static final int EDIT_COMMAND_LENGTH = 5;
-    
-    // Minimum string lengths for validation
-    private static final int MIN_TODO_INPUT_LENGTH = 4;
-    private static final int MIN_DEADLINE_INPUT_LENGTH = 8;
-    private static final int MIN_EVENT_INPUT_LENGTH = 5;
-    private static final int MIN_FIND_INPUT_LENGTH = 4;
+    private static final String UNCHANGED_FIELD = "_";
     
     // Date parser instance
     private final DateParser dateParser;
+    private final NameInterner names;
     
     /**
      * Creates a new CommandParser with a DateParser instance.
      */
     public CommandParser() {
-        this.dateParser = new DateParser();
+        this(new NameInterner());
+    }
+    
+    /**
+     * Creates a new CommandParser that shares task names through the given interner.
+     * 
+     * @param names the interner for task names
+     */
+    public CommandParser(NameInterner names) {
+        this(names, new DateParser());
+    }
+    
+    /**
+     * Creates a new CommandParser that shares task names through the given interner
+     * and reads dates with the given DateParser.
+     * 
+     * @param names the interner for task names
+     * @param dateParser the parser for dates, with its cache
+     */
+    public CommandParser(NameInterner names, DateParser dateParser) {
+        assert names != null : "Name interner cannot be null";
+        assert dateParser != null : "Date parser cannot be null";
+        this.dateParser = dateParser;
+        this.names = names;
+    }
+    
+    /**
+     * Gets the DateParser used for every date in a command.
+     * 
+     * @return the date parser
+     */
+    public DateParser getDateParser() {
+        return dateParser;
     }
     
     /**
@@ -57,155 +84,568 @@ public class CommandParser {
      * @throws PazuzuExceptions.BadTaskException when task format is invalid
      */
     public Task parseTaskCommand(String input) throws PazuzuExceptions.BadTaskException {
-        if (input.startsWith("todo")) {
-            return parseTodoCommand(input);
-        } else if (input.startsWith("deadline")) {
-            return parseDeadlineCommand(input);
-        } else if (input.startsWith("event")) {
-            return parseEventCommand(input);
-        } else {
-            throw new PazuzuExceptions.BadTaskException("Unknown task type");
+        return parseTaskCommand(CommandInput.parse(input));
+    }
+    
+    /**
+     * Parses a task creation command that has already been split into its keyword and arguments.
+     * 
+     * @param input the split command input
+     * @return the created Task object
+     * @throws PazuzuExceptions.BadTaskException when task format is invalid
+     */
+    public Task parseTaskCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        ArrayList<String> tags = new ArrayList<>();
+        String text = input.getText();
+        int start = input.getArgumentsStart();
+        CharSequence untagged = text;
+        if (collectTags(text, start, text.length(), tags)) {
+            // The keyword and its space are kept, so the arguments start at the same place
+            StringBuilder builder = new StringBuilder(text.length()).append(text, 0, start);
+            appendUntagged(builder, text, start, text.length());
+            untagged = builder;
+        }
+        Task task = parseUntaggedTaskCommand(input.getKeyword(), untagged, start);
+        task.setTags(tags);
+        return task;
+    }
+    
+    /**
+     * Parses a task command with its tags already removed, choosing the task type by keyword.
+     */
+    private Task parseUntaggedTaskCommand(String keyword, CharSequence input, int start)
+            throws PazuzuExceptions.BadTaskException {
+        switch (keyword) {
+            case "todo":
+                return parseTodoCommand(input, start);
+            case "deadline":
+                return parseDeadlineCommand(input, start);
+            case "event":
+                return parseEventCommand(input, start);
+            case "recur":
+                return parseRecurCommand(input, start);
+            default:
+                throw new PazuzuExceptions.BadTaskException("Unknown task type");
         }
     }
     
     /**
      * Parses a todo command and creates a Task object.
      * 
-     * @param input the todo command string
+     * @param input the todo command text
+     * @param start the position where the arguments start
      * @return the created Task object
      * @throws PazuzuExceptions.BadTaskException when format is invalid
      */
-    private Task parseTodoCommand(String input) throws PazuzuExceptions.BadTaskException {
-        if (input.length() <= MIN_TODO_INPUT_LENGTH || !input.substring(MIN_TODO_INPUT_LENGTH, TODO_COMMAND_LENGTH).equals(" ")) {
-            throw new PazuzuExceptions.BadTaskException("Invalid todo format");
-        }
-        String taskName = input.substring(TODO_COMMAND_LENGTH).trim();
-        if (taskName.isEmpty()) {
+    private Task parseTodoCommand(CharSequence input, int start) throws PazuzuExceptions.BadTaskException {
+        int nameStart = FieldTokenizer.trimStart(input, start, input.length());
+        int nameEnd = FieldTokenizer.trimEnd(input, nameStart, input.length());
+        if (nameStart == nameEnd) {
             throw new PazuzuExceptions.BadTaskException("Empty task name");
         }
-        return new Task(taskName);
+        return new Task(names.intern(FieldTokenizer.toString(input, nameStart, nameEnd)));
     }
     
     /**
      * Parses a deadline command and creates a Deadline object.
      * 
-     * @param input the deadline command string
+     * @param input the deadline command text
+     * @param start the position where the arguments start
      * @return the created Deadline object
      * @throws PazuzuExceptions.BadTaskException when format is invalid
      */
-    private Deadline parseDeadlineCommand(String input) throws PazuzuExceptions.BadTaskException {
-        if (input.length() <= MIN_DEADLINE_INPUT_LENGTH || !input.substring(MIN_DEADLINE_INPUT_LENGTH, DEADLINE_COMMAND_LENGTH).equals(" ")) {
-            throw new PazuzuExceptions.BadTaskException("Invalid deadline format");
-        }
-        String remaining = input.substring(DEADLINE_COMMAND_LENGTH).trim();
-        int pipeIndex = remaining.lastIndexOf('|');
-        if (pipeIndex == -1 || pipeIndex >= remaining.length() - 1) {
+    private Deadline parseDeadlineCommand(CharSequence input, int start) throws PazuzuExceptions.BadTaskException {
+        int end = FieldTokenizer.trimEnd(input, start, input.length());
+        int pipeIndex = FieldTokenizer.lastIndexOf(input, '|', start, end);
+        if (pipeIndex == -1 || pipeIndex >= end - 1) {
             throw new PazuzuExceptions.BadTaskException("Invalid deadline format");
         }
-        String taskName = remaining.substring(0, pipeIndex).trim();
-        String deadline = remaining.substring(pipeIndex + 1).trim();
-        if (taskName.isEmpty() || deadline.isEmpty()) {
+        int nameStart = FieldTokenizer.trimStart(input, start, pipeIndex);
+        int nameEnd = FieldTokenizer.trimEnd(input, nameStart, pipeIndex);
+        int deadlineStart = FieldTokenizer.trimStart(input, pipeIndex + 1, end);
+        if (nameStart == nameEnd || deadlineStart == end) {
             throw new PazuzuExceptions.BadTaskException("Empty task name or deadline");
         }
-        LocalDateTime parsedDeadline = parseDateTime(deadline);
-        return new Deadline(taskName, parsedDeadline);
+        LocalDateTime parsedDeadline = parseDateTime(FieldTokenizer.toString(input, deadlineStart, end));
+        return new Deadline(names.intern(FieldTokenizer.toString(input, nameStart, nameEnd)), parsedDeadline);
     }
     
     /**
      * Parses an event command and creates an Event object.
      * 
-     * @param input the event command string
+     * @param input the event command text
+     * @param start the position where the arguments start
      * @return the created Event object
      * @throws PazuzuExceptions.BadTaskException when format is invalid
      */
-    private Event parseEventCommand(String input) throws PazuzuExceptions.BadTaskException {
-        if (input.length() <= MIN_EVENT_INPUT_LENGTH || !input.substring(MIN_EVENT_INPUT_LENGTH, EVENT_COMMAND_LENGTH).equals(" ")) {
-            throw new PazuzuExceptions.BadTaskException("Invalid event format");
-        }
-        String remaining = input.substring(EVENT_COMMAND_LENGTH).trim();
-        String[] parts = remaining.split("\\|");
-        if (parts.length != 3) {
+    private Event parseEventCommand(CharSequence input, int start) throws PazuzuExceptions.BadTaskException {
+        int[] spans = new int[6];
+        if (FieldTokenizer.split(input, start, input.length(), '|', spans) != 3) {
             throw new PazuzuExceptions.BadTaskException("Invalid event format");
         }
-        String taskName = parts[0].trim();
-        String startDate = parts[1].trim();
-        String endDate = parts[2].trim();
-        if (taskName.isEmpty() || startDate.isEmpty() || endDate.isEmpty()) {
+        if (spans[0] == spans[1] || spans[2] == spans[3] || spans[4] == spans[5]) {
             throw new PazuzuExceptions.BadTaskException("Empty task name, start date, or end date");
         }
-        LocalDateTime parsedStartDate = parseDateTime(startDate);
-        LocalDateTime parsedEndDate = parseDateTime(endDate);
+        LocalDateTime parsedStartDate = parseDateTime(FieldTokenizer.toString(input, spans[2], spans[3]));
+        LocalDateTime parsedEndDate = parseDateTime(FieldTokenizer.toString(input, spans[4], spans[5]));
         assert !parsedEndDate.isBefore(parsedStartDate) : "Event end date must not be before start date";
-        return new Event(taskName, parsedStartDate, parsedEndDate);
+        return new Event(names.intern(FieldTokenizer.toString(input, spans[0], spans[1])), parsedStartDate, parsedEndDate);
+    }
+    
+    /**
+     * Parses a recur command and creates a RecurringTask object.
+     * Format: recur <name> | <start date> | [interval] <daily|weekly|monthly>
+     * 
+     * @param input the recur command text
+     * @param start the position where the arguments start
+     * @return the created RecurringTask object
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    private RecurringTask parseRecurCommand(CharSequence input, int start) throws PazuzuExceptions.BadTaskException {
+        int[] spans = new int[6];
+        if (FieldTokenizer.split(input, start, input.length(), '|', spans) != 3) {
+            throw new PazuzuExceptions.BadTaskException("Invalid recur format");
+        }
+        if (spans[0] == spans[1] || spans[2] == spans[3] || spans[4] == spans[5]) {
+            throw new PazuzuExceptions.BadTaskException("Empty task name, start date, or repeat rule");
+        }
+        
+        int[] ruleWords = new int[4];
+        int ruleWordCount = FieldTokenizer.splitWords(input, spans[4], spans[5], ruleWords);
+        int interval = 1;
+        if (ruleWordCount == 2) {
+            try {
+                interval = FieldTokenizer.parseInt(input, ruleWords[0], ruleWords[1]);
+            } catch (NumberFormatException e) {
+                throw new PazuzuExceptions.BadTaskException("Invalid repeat interval");
+            }
+        } else if (ruleWordCount != 1) {
+            throw new PazuzuExceptions.BadTaskException("Invalid repeat rule");
+        }
+        int lastWord = 2 * (ruleWordCount - 1);
+        RecurringTask.Frequency frequency = RecurringTask.Frequency.fromWord(input, ruleWords[lastWord], ruleWords[lastWord + 1]);
+        if (frequency == null || interval < 1) {
+            throw new PazuzuExceptions.BadTaskException("Invalid repeat rule");
+        }
+        return new RecurringTask(names.intern(FieldTokenizer.toString(input, spans[0], spans[1])),
+                parseDateTime(FieldTokenizer.toString(input, spans[2], spans[3])), frequency, interval);
+    }
+    
+    /**
+     * Parses a command that addresses one occurrence of a recurring task (complete, skip).
+     * Format: <command> <task number> [| <date>]
+     * 
+     * @param input the split command input
+     * @return an array containing [taskNumber, date], where date is "_" when not given
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    public String[] parseOccurrenceCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
+            throw new PazuzuExceptions.BadTaskException("Invalid occurrence format");
+        }
+        String text = input.getText();
+        int start = input.getArgumentsStart();
+        int pipeIndex = text.indexOf('|', start);
+        if (pipeIndex == -1) {
+            return new String[]{FieldTokenizer.toTrimmedString(text, start, text.length()), "_"};
+        }
+        int dateStart = FieldTokenizer.trimStart(text, pipeIndex + 1, text.length());
+        if (dateStart == text.length()) {
+            throw new PazuzuExceptions.BadTaskException("Empty occurrence date");
+        }
+        return new String[]{FieldTokenizer.toTrimmedString(text, start, pipeIndex),
+                FieldTokenizer.toTrimmedString(text, dateStart, text.length())};
+    }
+    
+    /**
+     * Parses an occurrences command and extracts its date range.
+     * Format: occurrences <from date> | <to date>
+     * 
+     * @param input the split occurrences command input
+     * @return an array containing [fromDate, toDate]
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    public LocalDate[] parseOccurrencesCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
+            throw new PazuzuExceptions.BadTaskException("Invalid occurrences format");
+        }
+        String text = input.getText();
+        return parseDateRange(text, input.getArgumentsStart(), text.length());
+    }
+    
+    /**
+     * Parses a next command and extracts how many tasks to show.
+     * Format: next [count]
+     * 
+     * @param input the split next command input
+     * @return the number of tasks to show, 1 if not given
+     * @throws PazuzuExceptions.BadTaskException when the count is not a positive number
+     */
+    public int parseNextCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
+            return 1;
+        }
+        try {
+            int count = parseIntArgument(input);
+            if (count < 1) {
+                throw new PazuzuExceptions.BadTaskException("Count must be positive");
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new PazuzuExceptions.BadTaskException("Invalid next format");
+        }
+    }
+    
+    /**
+     * Parses an archive command and extracts how many days a task must have been done for.
+     * Format: archive [days]
+     * 
+     * @param input the split archive command input
+     * @param defaultDays the number of days to use if none is given
+     * @return the number of days
+     * @throws PazuzuExceptions.BadTaskException when the days are not a number of at least 0
+     */
+    public int parseArchiveCommand(CommandInput input, int defaultDays) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
+            return defaultDays;
+        }
+        try {
+            int days = parseIntArgument(input);
+            if (days < 0) {
+                throw new PazuzuExceptions.BadTaskException("Days must not be negative");
+            }
+            return days;
+        } catch (NumberFormatException e) {
+            throw new PazuzuExceptions.BadTaskException("Invalid archive format");
+        }
+    }
+    
+    /**
+     * Parses an archived command and extracts the optional search keyword.
+     * Format: archived [keyword]
+     * 
+     * @param input the split archived command input
+     * @return the keyword, or an empty string to show every archived task
+     */
+    public String parseArchivedCommand(CommandInput input) {
+        return toTrimmedArguments(input);
+    }
+    
+    /**
+     * Parses a use command and extracts the name of the task list to switch to.
+     * Format: use listname
+     * 
+     * @param input the split use command input
+     * @return the list name in lower case
+     * @throws PazuzuExceptions.BadTaskException if no list name is given
+     */
+    public String parseUseCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String name = toTrimmedArguments(input);
+        if (name.isEmpty()) {
+            throw new PazuzuExceptions.BadTaskException("List name cannot be empty");
+        }
+        return name.toLowerCase();
+    }
+    
+    /**
+     * Parses a command that names a file, such as import or export.
+     * Format: <command> <path>
+     * 
+     * @param input the split command input
+     * @return the path as given
+     * @throws PazuzuExceptions.BadTaskException if no path is given
+     */
+    public String parseFileCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String path = toTrimmedArguments(input);
+        if (path.isEmpty()) {
+            throw new PazuzuExceptions.BadTaskException("File path cannot be empty");
+        }
+        return path;
+    }
+    
+    /**
+     * Collects each distinct #tag among the space-separated words of a region, without copying the other words.
+     * 
+     * @param text the text holding the region
+     * @param start the start of the region
+     * @param end the end of the region
+     * @param tags receives the tags found, in lower case and without the # prefix
+     * @return true if the region has a tag word, even one already collected
+     */
+    private boolean collectTags(CharSequence text, int start, int end, List<String> tags) {
+        boolean hasTag = false;
+        int wordStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && text.charAt(i) != ' ') {
+                continue;
+            }
+            String tag = Task.toTag(text, wordStart, i);
+            if (tag != null) {
+                hasTag = true;
+                if (!tags.contains(tag)) {
+                    tags.add(names.intern(tag));
+                }
+            }
+            wordStart = i + 1;
+        }
+        return hasTag;
+    }
+    
+    /**
+     * Appends the space-separated words of a region that are not tags, joined by single spaces
+     * as they were separated, so the untagged text is built in one copy.
+     */
+    private static void appendUntagged(StringBuilder builder, CharSequence text, int start, int end) {
+        boolean isFirstWord = true;
+        int wordStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && text.charAt(i) != ' ') {
+                continue;
+            }
+            if (!Task.isTag(text, wordStart, i)) {
+                if (!isFirstWord) {
+                    builder.append(' ');
+                }
+                builder.append(text, wordStart, i);
+                isFirstWord = false;
+            }
+            wordStart = i + 1;
+        }
     }
     
     /**
      * Parses a command that contains a task number (mark, unmark, delete).
      * 
-     * @param input the command string
-     * @param commandLength the length of the command prefix (e.g., "mark " = 5)
+     * @param input the split command input
      * @return the task number (1-indexed)
      * @throws NumberFormatException if the task number is not a valid integer
      */
-    public int parseTaskNumber(String input, int commandLength) throws NumberFormatException {
-        return Integer.parseInt(input.substring(commandLength).trim());
+    public int parseTaskNumber(CommandInput input) throws NumberFormatException {
+        return parseIntArgument(input);
+    }
+    
+    /**
+     * Parses a list command and extracts the name of the requested view.
+     * 
+     * @param input the split list command input
+     * @return the view name, or an empty string for the plain list
+     */
+    public String parseListCommand(CommandInput input) {
+        return toTrimmedArguments(input);
+    }
+    
+    /**
+     * Parses the tags given to the list command, such as "#ops #urgent".
+     * 
+     * @param tagText the text after the list command
+     * @return the tags in lower case and without the # prefix
+     * @throws PazuzuExceptions.BadTaskException when a word is not a tag
+     */
+    public List<String> parseTagFilter(String tagText) throws PazuzuExceptions.BadTaskException {
+        ArrayList<String> tags = new ArrayList<>();
+        for (String word : tagText.trim().split("\\s+")) {
+            String tag = Task.toTag(word);
+            if (tag == null) {
+                throw new PazuzuExceptions.BadTaskException("Invalid tag: " + word);
+            }
+            tags.add(tag);
+        }
+        return tags;
     }
     
     /**
      * Parses a find command and extracts the search keyword.
      * 
-     * @param input the find command string
+     * @param input the split find command input
      * @return the search keyword
      * @throws PazuzuExceptions.BadTaskException when format is invalid
      */
-    public String parseFindCommand(String input) throws PazuzuExceptions.BadTaskException {
-        if (input.length() <= FIND_COMMAND_LENGTH || !input.substring(MIN_FIND_INPUT_LENGTH, FIND_COMMAND_LENGTH).equals(" ")) {
+    public String parseFindCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
             throw new PazuzuExceptions.BadTaskException("Invalid find format");
         }
-        String keyword = input.substring(FIND_COMMAND_LENGTH).trim();
+        String keyword = toTrimmedArguments(input);
+        if (keyword.isEmpty()) {
+            throw new PazuzuExceptions.BadTaskException("Empty search keyword");
+        }
+        return keyword;
+    }
+    
+    /**
+     * Parses a fuzzy find command (find~) and extracts the search keywords.
+     * 
+     * @param input the split fuzzy find command input
+     * @return the search keywords
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    public String parseFuzzyFindCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
+            throw new PazuzuExceptions.BadTaskException("Invalid fuzzy find format");
+        }
+        String keyword = toTrimmedArguments(input);
         if (keyword.isEmpty()) {
             throw new PazuzuExceptions.BadTaskException("Empty search keyword");
         }
         return keyword;
     }
     
+    /**
+     * Parses a count command and extracts its date range.
+     * Format: count <from date> | <to date>
+     * 
+     * @param input the split count command input
+     * @return an array containing [fromDate, toDate]
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    public LocalDate[] parseCountCommand(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(input)) {
+            throw new PazuzuExceptions.BadTaskException("Invalid count format");
+        }
+        String text = input.getText();
+        return parseDateRange(text, input.getArgumentsStart(), text.length());
+    }
+    
+    /**
+     * Parses a histogram command and extracts the bucket unit and date range.
+     * Format: histogram <day|week> <from date> | <to date>
+     * 
+     * @param input the split histogram command input
+     * @return the bucket unit as typed by the user
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    public String parseHistogramUnit(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String text = input.getText();
+        int start = FieldTokenizer.trimStart(text, input.getArgumentsStart(), text.length());
+        return FieldTokenizer.toString(text, start, findHistogramUnitEnd(text, start));
+    }
+    
+    /**
+     * Parses the date range of a histogram command.
+     * 
+     * @param input the split histogram command input
+     * @return an array containing [fromDate, toDate]
+     * @throws PazuzuExceptions.BadTaskException when format is invalid
+     */
+    public LocalDate[] parseHistogramRange(CommandInput input) throws PazuzuExceptions.BadTaskException {
+        String text = input.getText();
+        int start = FieldTokenizer.trimStart(text, input.getArgumentsStart(), text.length());
+        return parseDateRange(text, findHistogramUnitEnd(text, start) + 1, text.length());
+    }
+    
+    /**
+     * Finds the space that ends the bucket unit of a histogram command.
+     */
+    private static int findHistogramUnitEnd(String text, int start) throws PazuzuExceptions.BadTaskException {
+        int spaceIndex = text.indexOf(' ', start);
+        if (spaceIndex == -1 || spaceIndex >= FieldTokenizer.trimEnd(text, start, text.length())) {
+            throw new PazuzuExceptions.BadTaskException("Invalid histogram format");
+        }
+        return spaceIndex;
+    }
+    
+    /**
+     * Parses two dates separated by a pipe in a region of the text, the first not after the second.
+     */
+    private LocalDate[] parseDateRange(String text, int start, int end) throws PazuzuExceptions.BadTaskException {
+        int pipeIndex = text.indexOf('|', start);
+        if (pipeIndex == -1 || pipeIndex >= end) {
+            throw new PazuzuExceptions.BadTaskException("Date range must be <from> | <to>");
+        }
+        LocalDate from = parseDateTime(FieldTokenizer.toTrimmedString(text, start, pipeIndex)).toLocalDate();
+        LocalDate to = parseDateTime(FieldTokenizer.toTrimmedString(text, pipeIndex + 1, end)).toLocalDate();
+        if (to.isBefore(from)) {
+            throw new PazuzuExceptions.BadTaskException("End of range must not be before its start");
+        }
+        return new LocalDate[]{from, to};
+    }
+    
     /**
      * Parses an edit command and extracts the task number and edit parameters.
-     * Format: edit <task number> |<new name>|<new startdate or deadline>|<new end date>
+     * Format: edit <task number> |<new name> [#tags]|<new startdate or deadline>|<new end date>
      * Use "_" for fields that should not be changed.
      * 
-     * @param input the edit command string
-     * @return an array containing [taskNumber, newName, newDate1, newDate2]
+     * @param command the split edit command input
+     * @return an array containing [taskNumber, newName, newDate1, newDate2, newTags], where newTags is
+     *         the space-separated tags given in the name field, or "_" if none were given
      * @throws PazuzuExceptions.BadTaskException when format is invalid
      */
-    public String[] parseEditCommand(String input) throws PazuzuExceptions.BadTaskException {
-        if (input.length() <= EDIT_COMMAND_LENGTH || !input.substring(EDIT_COMMAND_LENGTH - 1, EDIT_COMMAND_LENGTH).equals(" ")) {
+    public String[] parseEditCommand(CommandInput command) throws PazuzuExceptions.BadTaskException {
+        if (isMissingArguments(command)) {
             throw new PazuzuExceptions.BadTaskException("Invalid edit format");
         }
         
-        String remaining = input.substring(EDIT_COMMAND_LENGTH).trim();
-        String[] parts = remaining.split("\\|");
-        
-        if (parts.length != 4) {
+        String input = command.getText();
+        int[] spans = new int[8];
+        if (FieldTokenizer.split(input, command.getArgumentsStart(), input.length(), '|', spans) != 4) {
             throw new PazuzuExceptions.BadTaskException("Invalid edit format. Use: edit <number> |<name>|<date1>|<date2>");
         }
         
         // Extract task number
-        String taskNumberStr = parts[0].trim();
-        if (taskNumberStr.isEmpty()) {
+        if (spans[0] == spans[1]) {
             throw new PazuzuExceptions.BadTaskException("Task number cannot be empty");
         }
+        String taskNumberStr = FieldTokenizer.toString(input, spans[0], spans[1]);
         
-        // Extract edit parameters
-        String newName = parts[1].trim();
-        String newDate1 = parts[2].trim();
-        String newDate2 = parts[3].trim();
+        // Extract edit parameters, with any tags in the name field replacing the task's tags
+        ArrayList<String> tags = new ArrayList<>();
+        String newName;
+        if (!FieldTokenizer.regionEquals(input, spans[2], spans[3], UNCHANGED_FIELD)
+                && collectTags(input, spans[2], spans[3], tags)) {
+            StringBuilder builder = new StringBuilder(spans[3] - spans[2]);
+            appendUntagged(builder, input, spans[2], spans[3]);
+            newName = FieldTokenizer.toTrimmedString(builder, 0, builder.length());
+        } else {
+            newName = parseEditField(input, spans[2], spans[3]);
+        }
+        if (newName.isEmpty()) {
+            newName = UNCHANGED_FIELD;
+        }
+        String newDate1 = parseEditField(input, spans[4], spans[5]);
+        String newDate2 = parseEditField(input, spans[6], spans[7]);
         
         // Validate that at least one field is being changed (not all "_")
-        if (newName.equals("_") && newDate1.equals("_") && newDate2.equals("_")) {
+        if (newName.equals(UNCHANGED_FIELD) && newDate1.equals(UNCHANGED_FIELD) && newDate2.equals(UNCHANGED_FIELD)
+                && tags.isEmpty()) {
             throw new PazuzuExceptions.BadTaskException("At least one field must be changed");
         }
         
-        return new String[]{taskNumberStr, newName, newDate1, newDate2};
+        String newTags = tags.isEmpty() ? UNCHANGED_FIELD : String.join(" ", tags);
+        return new String[]{taskNumberStr, names.intern(newName), newDate1, newDate2, newTags};
+    }
+    
+    /**
+     * Checks if nothing follows the keyword and its space.
+     */
+    private static boolean isMissingArguments(CommandInput input) {
+        return input.getArgumentsStart() == input.getText().length();
+    }
+    
+    /**
+     * Reads the arguments as one number, without copying them out of the input.
+     */
+    private static int parseIntArgument(CommandInput input) throws NumberFormatException {
+        String text = input.getText();
+        return FieldTokenizer.parseInt(text, input.getArgumentsStart(), text.length());
+    }
+    
+    /**
+     * Gets the arguments without surrounding whitespace, or an empty string if there are none.
+     */
+    private static String toTrimmedArguments(CommandInput input) {
+        String text = input.getText();
+        return FieldTokenizer.toTrimmedString(text, input.getArgumentsStart(), text.length());
+    }
+    
+    /**
+     * Reads one field of an edit command, reusing constants for empty and unchanged fields
+     * instead of copying them.
+     */
+    private static String parseEditField(String input, int start, int end) {
+        if (start == end) {
+            return "";
+        } else if (FieldTokenizer.regionEquals(input, start, end, UNCHANGED_FIELD)) {
+            return UNCHANGED_FIELD;
+        }
+        return FieldTokenizer.toString(input, start, end);
     }
-}
\ No newline at end of file
+}
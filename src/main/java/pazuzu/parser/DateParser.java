@@ -3,24 +3,39 @@ package pazuzu.parser;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.DateTimeException;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import pazuzu.exception.PazuzuExceptions;
 
 /**
  * Handles parsing of date and time strings into LocalDateTime objects.
  * Supports various input formats including yyyy-mm-dd with optional time in 24hr format.
+ * Recently parsed strings are kept in a small least recently used cache, since imports and scripts
+ * repeat the same dates many times. The cache may be used from several threads.
  */
 public class DateParser {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+    
     // Time parsing constants
     private static final int THREE_DIGIT_TIME_LENGTH = 3;
     private static final int FOUR_DIGIT_TIME_LENGTH = 4;
     private static final int HOUR_INDEX_THREE_DIGIT = 1;
-    private static final int MINUTE_INDEX_THREE_DIGIT = 1;
     private static final int HOUR_INDEX_FOUR_DIGIT = 2;
-    private static final String TIME_PATTERN = "\\d{3,4}";
+    private static final int MAX_HOUR = 23;
+    private static final int MAX_MINUTE = 59;
+    
+    // Date shapes read without the formatters
+    private static final int FAST_DATE_LENGTH = 10;
+    private static final int YEAR_FIRST_SEPARATOR_INDEX = 4;
+    private static final int YEAR_FIRST_SECOND_SEPARATOR_INDEX = 7;
+    private static final int YEAR_LAST_SEPARATOR_INDEX = 2;
+    private static final int YEAR_LAST_SECOND_SEPARATOR_INDEX = 5;
+    private static final int MONTHS_PER_YEAR = 12;
+    private static final int MAX_DAY_OF_MONTH = 31;
     
     // Supported date formats
     private static final DateTimeFormatter[] DATE_FORMATTERS = {
@@ -32,6 +47,35 @@ public class DateParser {
         DateTimeFormatter.ofPattern("MM/dd/yyyy")
     };
     
+    private final int cacheSize;
+    private final LinkedHashMap<String, LocalDateTime> cache;
+    private long hitCount;
+    private long missCount;
+    
+    /**
+     * Creates a DateParser with a cache of the default size.
+     */
+    public DateParser() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+    
+    /**
+     * Creates a DateParser that remembers up to the given number of parsed strings.
+     * 
+     * @param cacheSize the most strings to remember, or 0 to turn the cache off
+     */
+    public DateParser(int cacheSize) {
+        assert cacheSize >= 0 : "Cache size cannot be negative";
+        this.cacheSize = cacheSize;
+        // Access order keeps the least recently used entry first, where it is evicted from
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalDateTime> eldest) {
+                return size() > DateParser.this.cacheSize;
+            }
+        };
+    }
+    
     /**
      * Parses a date string into a LocalDateTime object.
      * Supports various input formats including yyyy-mm-dd with optional time in 24hr format.
@@ -42,6 +86,74 @@ public class DateParser {
      * @throws PazuzuExceptions.BadTaskException if the date format is invalid
      */
     public LocalDateTime parseDateTime(String dateTimeString) throws PazuzuExceptions.BadTaskException {
+        if (dateTimeString != null && cacheSize > 0) {
+            synchronized (cache) {
+                LocalDateTime cached = cache.get(dateTimeString);
+                if (cached != null) {
+                    hitCount++;
+                    return cached;
+                }
+                missCount++;
+            }
+        }
+        LocalDateTime parsed = parseUncached(dateTimeString);
+        if (cacheSize > 0) {
+            synchronized (cache) {
+                cache.put(dateTimeString, parsed);
+            }
+        }
+        return parsed;
+    }
+    
+    /**
+     * Gets the number of parses answered from the cache.
+     * 
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        synchronized (cache) {
+            return hitCount;
+        }
+    }
+    
+    /**
+     * Gets the number of parses that had to read the string.
+     * 
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        synchronized (cache) {
+            return missCount;
+        }
+    }
+    
+    /**
+     * Gets the share of parses answered from the cache.
+     * 
+     * @return the hit rate from 0 to 1, or 0 before any parse
+     */
+    public double getHitRate() {
+        synchronized (cache) {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+    }
+    
+    /**
+     * Gets the number of strings in the cache.
+     * 
+     * @return the cache size
+     */
+    public int getCachedCount() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+    
+    /**
+     * Parses a date string without looking in the cache.
+     */
+    private LocalDateTime parseUncached(String dateTimeString) throws PazuzuExceptions.BadTaskException {
         validateInput(dateTimeString);
         
         String trimmedInput = dateTimeString.trim();
@@ -64,19 +176,30 @@ public class DateParser {
     }
     
     /**
-     * Splits the input string into date and time components.
+     * Splits the input string at its last run of whitespace into date and time components.
      * Returns array where [0] is date part and [1] is time part (if present).
+     * A date part that still holds whitespace matches no format and is rejected later.
      */
     private String[] splitDateAndTime(String dateTimeString) {
-        String[] parts = dateTimeString.split("\\s+");
-        if (parts.length > 2) {
-            // If more than 2 parts, join everything except the last part as date
-            String[] result = new String[2];
-            result[0] = String.join(" ", java.util.Arrays.copyOf(parts, parts.length - 1));
-            result[1] = parts[parts.length - 1];
-            return result;
+        int timeStart = dateTimeString.length();
+        while (timeStart > 0 && !isSpace(dateTimeString.charAt(timeStart - 1))) {
+            timeStart--;
+        }
+        if (timeStart == 0) {
+            return new String[]{dateTimeString};
         }
-        return parts;
+        int dateEnd = timeStart;
+        while (isSpace(dateTimeString.charAt(dateEnd - 1))) {
+            dateEnd--;
+        }
+        return new String[]{dateTimeString.substring(0, dateEnd), dateTimeString.substring(timeStart)};
+    }
+    
+    /**
+     * Checks for the whitespace characters of the regex class \\s.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
     
     /**
@@ -93,51 +216,37 @@ public class DateParser {
     }
     
     /**
-     * Parses a time string in formats like "1437" (14:37) or "0900" (09:00).
+     * Parses a time string in formats like "1437" (14:37) or "900" (09:00).
+     * The digits are read arithmetically, without a regex or exceptions for valid times.
      */
     private LocalTime parseTimeString(String timeString) throws PazuzuExceptions.BadTaskException {
-        if (!timeString.matches(TIME_PATTERN)) {
+        int length = timeString.length();
+        if ((length != THREE_DIGIT_TIME_LENGTH && length != FOUR_DIGIT_TIME_LENGTH) || !isDigits(timeString, 0, length)) {
             throw new PazuzuExceptions.BadTaskException(
                 "Invalid time format: " + timeString + ". Use 24hr format like 1437 for 14:37");
         }
         
-        try {
-            if (timeString.length() == THREE_DIGIT_TIME_LENGTH) {
-                return parseThreeDigitTime(timeString);
-            } else if (timeString.length() == FOUR_DIGIT_TIME_LENGTH) {
-                return parseFourDigitTime(timeString);
-            } else {
-                throw new PazuzuExceptions.BadTaskException(
-                    "Invalid time format: " + timeString + ". Use 24hr format like 1437 for 14:37");
-            }
-        } catch (DateTimeException | NumberFormatException e) {
+        int hourDigits = length == THREE_DIGIT_TIME_LENGTH ? HOUR_INDEX_THREE_DIGIT : HOUR_INDEX_FOUR_DIGIT;
+        int hour = readNumber(timeString, 0, hourDigits);
+        int minute = readNumber(timeString, hourDigits, length);
+        if (hour > MAX_HOUR || minute > MAX_MINUTE) {
             throw new PazuzuExceptions.BadTaskException(
                 "Invalid time format: " + timeString + ". Use 24hr format like 1437 for 14:37");
         }
-    }
-    
-    /**
-     * Parses three-digit time format like "900" -> 09:00.
-     */
-    private LocalTime parseThreeDigitTime(String timeString) {
-        int hour = Integer.parseInt(timeString.substring(0, HOUR_INDEX_THREE_DIGIT));
-        int minute = Integer.parseInt(timeString.substring(MINUTE_INDEX_THREE_DIGIT, THREE_DIGIT_TIME_LENGTH));
-        return LocalTime.of(hour, minute);
-    }
-    
-    /**
-     * Parses four-digit time format like "1437" -> 14:37.
-     */
-    private LocalTime parseFourDigitTime(String timeString) {
-        int hour = Integer.parseInt(timeString.substring(0, HOUR_INDEX_FOUR_DIGIT));
-        int minute = Integer.parseInt(timeString.substring(HOUR_INDEX_FOUR_DIGIT, FOUR_DIGIT_TIME_LENGTH));
         return LocalTime.of(hour, minute);
     }
     
     /**
-     * Parses the date component using various supported formats.
+     * Parses the date component, picking the format from the positions of its separators.
+     * Dates with a four-digit year and two-digit day and month are read directly,
+     * with the same day clamping as the formatters' smart resolution, so "2023-02-30" is Feb 28.
+     * Anything else is left to the formatters, which decide exactly as before.
      */
     private LocalDate parseDatePart(String datePart) throws PazuzuExceptions.BadTaskException {
+        LocalDate date = parseDateFast(datePart);
+        if (date != null) {
+            return date;
+        }
         for (DateTimeFormatter formatter : DATE_FORMATTERS) {
             try {
                 return LocalDate.parse(datePart, formatter);
@@ -149,4 +258,60 @@ public class DateParser {
         throw new PazuzuExceptions.BadTaskException(
             "Invalid date format: " + datePart + ". Please use formats like yyyy-mm-dd or dd/mm/yyyy");
     }
+    
+    /**
+     * Reads a date of the form yyyy-MM-dd, dd-MM-yyyy or MM-dd-yyyy, with '-' or '/' between fields.
+     * Returns null if the date has another shape or is not a valid date, so the formatters can decide.
+     */
+    private static LocalDate parseDateFast(String datePart) {
+        if (datePart.length() != FAST_DATE_LENGTH) {
+            return null;
+        }
+        char separator = datePart.charAt(YEAR_FIRST_SEPARATOR_INDEX);
+        if ((separator == '-' || separator == '/') && datePart.charAt(YEAR_FIRST_SECOND_SEPARATOR_INDEX) == separator
+                && isDigits(datePart, 0, 4) && isDigits(datePart, 5, 7) && isDigits(datePart, 8, 10)) {
+            // yyyy-MM-dd
+            return toDate(readNumber(datePart, 0, 4), readNumber(datePart, 5, 7), readNumber(datePart, 8, 10));
+        }
+        separator = datePart.charAt(YEAR_LAST_SEPARATOR_INDEX);
+        if ((separator == '-' || separator == '/') && datePart.charAt(YEAR_LAST_SECOND_SEPARATOR_INDEX) == separator
+                && isDigits(datePart, 0, 2) && isDigits(datePart, 3, 5) && isDigits(datePart, 6, 10)) {
+            int first = readNumber(datePart, 0, 2);
+            int second = readNumber(datePart, 3, 5);
+            int year = readNumber(datePart, 6, 10);
+            // dd-MM-yyyy is tried before MM-dd-yyyy, as in the formatter list
+            LocalDate date = toDate(year, second, first);
+            return date != null ? date : toDate(year, first, second);
+        }
+        return null;
+    }
+    
+    /**
+     * Builds a date the way the formatters resolve it, or returns null if they would reject it.
+     */
+    private static LocalDate toDate(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > MONTHS_PER_YEAR || day < 1 || day > MAX_DAY_OF_MONTH) {
+            return null;
+        }
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return yearMonth.atDay(Math.min(day, yearMonth.lengthOfMonth()));
+    }
+    
+    private static boolean isDigits(String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static int readNumber(String text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
 }
@@ -0,0 +1,194 @@
+package pazuzu.parser;
+
+/**
+ * Splits command text into fields in one pass without creating strings.
+ * A field is a span of the text, stored as its start and end offsets in an int array:
+ * field i starts at spans[2 * i] and ends before spans[2 * i + 1]. Spans are already trimmed,
+ * so a parser only creates a string for the fields it keeps.
+ */
+public final class FieldTokenizer {
+    private FieldTokenizer() {
+    }
+
+    /**
+     * Skips leading whitespace and control characters, as String.trim does.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @return the offset of the first character of the region that is not trimmed
+     */
+    public static int trimStart(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /**
+     * Skips trailing whitespace and control characters, as String.trim does.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @return the offset just after the last character of the region that is not trimmed
+     */
+    public static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Splits the trimmed region at each separator and stores the trimmed span of each field.
+     * Fields are counted as String.split counts them: empty fields at the end are dropped,
+     * and a region without separators is one field.
+     * Only as many fields as the array holds are stored, but all are counted.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @param separator the character between fields
+     * @param spans receives the start and end of each field
+     * @return the number of fields in the region
+     */
+    public static int split(CharSequence text, int start, int end, char separator, int[] spans) {
+        start = trimStart(text, start, end);
+        end = trimEnd(text, start, end);
+        int capacity = spans.length / 2;
+        int count = 0;
+        int countToLastNonEmpty = 0;
+        int fieldStart = start;
+        boolean hasSeparator = false;
+        for (int i = start; i <= end; i++) {
+            if (i < end && text.charAt(i) != separator) {
+                continue;
+            }
+            hasSeparator |= i < end;
+            if (count < capacity) {
+                int trimmedStart = trimStart(text, fieldStart, i);
+                spans[2 * count] = trimmedStart;
+                spans[2 * count + 1] = trimEnd(text, trimmedStart, i);
+            }
+            count++;
+            if (i > fieldStart) {
+                countToLastNonEmpty = count;
+            }
+            fieldStart = i + 1;
+        }
+        return hasSeparator ? countToLastNonEmpty : 1;
+    }
+
+    /**
+     * Splits the region at runs of whitespace and stores the span of each word.
+     * Only as many words as the array holds are stored, but all are counted.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @param spans receives the start and end of each word
+     * @return the number of words in the region
+     */
+    public static int splitWords(CharSequence text, int start, int end, int[] spans) {
+        int capacity = spans.length / 2;
+        int count = 0;
+        int i = start;
+        while (i < end) {
+            while (i < end && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            int wordStart = i;
+            while (i < end && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (count < capacity) {
+                spans[2 * count] = wordStart;
+                spans[2 * count + 1] = i;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the last occurrence of a character in a region.
+     *
+     * @param text the text
+     * @param c the character to find
+     * @param start the start of the region
+     * @param end the end of the region
+     * @return the offset of the character, or -1 if the region does not contain it
+     */
+    public static int lastIndexOf(CharSequence text, char c, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if a region holds exactly the expected text.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @param expected the text to compare with
+     * @return true if the region equals the expected text
+     */
+    public static boolean regionEquals(CharSequence text, int start, int end, String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a string of a region, the only allocation the tokenizer makes.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @return the region as a string
+     */
+    public static String toString(CharSequence text, int start, int end) {
+        return text.subSequence(start, end).toString();
+    }
+
+    /**
+     * Creates a string of a region with its leading and trailing whitespace removed.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @return the trimmed region as a string
+     */
+    public static String toTrimmedString(CharSequence text, int start, int end) {
+        start = trimStart(text, start, end);
+        return toString(text, start, trimEnd(text, start, end));
+    }
+
+    /**
+     * Parses a decimal integer from the trimmed region.
+     *
+     * @param text the text
+     * @param start the start of the region
+     * @param end the end of the region
+     * @return the parsed integer
+     * @throws NumberFormatException if the trimmed region is not an integer
+     */
+    public static int parseInt(CharSequence text, int start, int end) throws NumberFormatException {
+        start = trimStart(text, start, end);
+        return Integer.parseInt(text, start, trimEnd(text, start, end), 10);
+    }
+}
@@ -0,0 +1,218 @@
+package pazuzu.reminder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+import pazuzu.task.TaskListener;
+
+/**
+ * Sends a reminder shortly before each open deadline is due, each open event starts
+ * and each open occurrence of a recurring task comes round.
+ * Due times are held in a timing wheel that follows every change to the task list,
+ * and a background ticker advances the wheel and delivers reminders to a notifier.
+ * A recurring task holds one timer at a time, for its next open occurrence.
+ * When a list is dropped from memory its pending reminders stay scheduled until the list is loaded again.
+ */
+public class ReminderScheduler implements TaskListener {
+    private static final long TICK_MILLIS = 1000;
+    private static final String DEADLINE_REMINDER_PREFIX = "Heads up, this is due soon:\n  ";
+    private static final String EVENT_REMINDER_PREFIX = "Heads up, this is starting soon:\n  ";
+
+    private final Duration leadTime;
+    private final TimingWheel<Task> wheel;
+    private final IdentityHashMap<Task, TimingWheel.Timer<Task>> timers = new IdentityHashMap<>();
+    // Tasks of lists dropped from memory that still had a reminder pending, by list name
+    private final HashMap<String, ArrayList<Task>> unloadedTasks = new HashMap<>();
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Creates a scheduler that reminds the given time ahead of each due time.
+     *
+     * @param leadTime how long before a deadline or event start to send the reminder
+     */
+    public ReminderScheduler(Duration leadTime) {
+        this.leadTime = leadTime;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void taskAdded(int taskNumber, Task task) {
+        schedule(task, LocalDateTime.now());
+    }
+
+    @Override
+    public synchronized void taskRemoved(int taskNumber, Task task) {
+        cancel(task);
+    }
+
+    @Override
+    public synchronized void taskUpdating(Task task) {
+        cancel(task);
+    }
+
+    @Override
+    public synchronized void taskUpdated(Task task) {
+        schedule(task, LocalDateTime.now());
+    }
+
+    /**
+     * Keeps the pending reminders of a list that is dropped from memory, so its deadlines are still announced.
+     * Only the tasks with a reminder pending are kept, not the whole list.
+     *
+     * @param listName the name of the list
+     * @param tasks the tasks of the list
+     */
+    public synchronized void keepUnloaded(String listName, List<Task> tasks) {
+        ArrayList<Task> pending = new ArrayList<>();
+        for (Task task : tasks) {
+            if (timers.containsKey(task)) {
+                pending.add(task);
+            }
+        }
+        if (pending.isEmpty()) {
+            unloadedTasks.remove(listName);
+        } else {
+            unloadedTasks.put(listName, pending);
+        }
+    }
+
+    /**
+     * Cancels the reminders kept for a list dropped from memory, before the loaded list schedules its own.
+     *
+     * @param listName the name of the list
+     */
+    public synchronized void releaseUnloaded(String listName) {
+        ArrayList<Task> pending = unloadedTasks.remove(listName);
+        if (pending != null) {
+            for (Task task : pending) {
+                cancel(task);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of reminders waiting to be sent.
+     *
+     * @return the number of pending reminders
+     */
+    public synchronized int getPendingCount() {
+        return wheel.getSize();
+    }
+
+    /**
+     * Starts a background ticker that delivers due reminders to the notifier.
+     * The notifier is called on the ticker thread.
+     *
+     * @param notifier receives the text of each reminder
+     */
+    public synchronized void start(Consumer<String> notifier) {
+        stop();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pazuzu-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> deliverDue(System.currentTimeMillis(), notifier),
+                TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background ticker, if running.
+     */
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time and passes every reminder that fell due to the notifier.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @param notifier receives the text of each reminder
+     */
+    public void deliverDue(long nowMillis, Consumer<String> notifier) {
+        String[] messages;
+        synchronized (this) {
+            List<Task> dueTasks = wheel.advanceTo(nowMillis);
+            messages = new String[dueTasks.size()];
+            for (int i = 0; i < messages.length; i++) {
+                Task task = dueTasks.get(i);
+                timers.remove(task);
+                String prefix = task instanceof Event ? EVENT_REMINDER_PREFIX : DEADLINE_REMINDER_PREFIX;
+                messages[i] = prefix + task.getTask();
+                if (task instanceof RecurringTask) {
+                    // The reminder fired at least the lead time before the occurrence, so this moves past it
+                    schedule(task, toLocalDateTime(nowMillis + leadTime.toMillis()));
+                }
+            }
+        }
+        // Notify outside the lock so a slow notifier cannot hold up task list changes
+        for (String message : messages) {
+            notifier.accept(message);
+        }
+    }
+
+    /**
+     * Schedules a reminder for an open task with a due time after the given time.
+     */
+    private void schedule(Task task, LocalDateTime after) {
+        LocalDateTime dueTime = getDueTime(task, after);
+        if (dueTime == null || task.checkIsDone()) {
+            return;
+        }
+        long dueMillis = toEpochMillis(dueTime);
+        if (dueMillis <= toEpochMillis(after)) {
+            return;
+        }
+        timers.put(task, wheel.schedule(dueMillis - leadTime.toMillis(), task));
+    }
+
+    /**
+     * Cancels the pending reminder of a task, if any.
+     */
+    private void cancel(Task task) {
+        TimingWheel.Timer<Task> timer = timers.remove(task);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    /**
+     * Returns the time a task falls due, or null if it has none.
+     * For a recurring task this is its first open occurrence after the given time.
+     */
+    private static LocalDateTime getDueTime(Task task, LocalDateTime after) {
+        if (task instanceof Deadline) {
+            return ((Deadline) task).getDeadline();
+        } else if (task instanceof Event) {
+            return ((Event) task).getStartDate();
+        } else if (task instanceof RecurringTask) {
+            return ((RecurringTask) task).getNextOpenOccurrence(after);
+        }
+        return null;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
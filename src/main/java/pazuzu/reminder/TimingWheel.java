@@ -0,0 +1,199 @@
+package pazuzu.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel holding timers with a fixed tick resolution.
+ * Scheduling and cancelling a timer cost O(1); advancing the clock costs O(1) per tick
+ * plus the work of moving timers down from coarser levels as their time approaches.
+ *
+ * @param <T> the type of payload carried by each timer
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS_PER_LEVEL - 1;
+    private static final int LEVELS = 6;
+
+    private final long tickMillis;
+    private final Timer<T>[][] levels;
+    private final Timer<T> overflow;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a timing wheel whose clock starts at the given time.
+     *
+     * @param tickMillis the resolution of the wheel in milliseconds
+     * @param startMillis the current time in epoch milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        assert tickMillis > 0 : "Tick must be positive";
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.levels = (Timer<T>[][]) new Timer<?>[LEVELS][SLOTS_PER_LEVEL];
+        for (Timer<T>[] level : levels) {
+            for (int i = 0; i < SLOTS_PER_LEVEL; i++) {
+                level[i] = Timer.sentinel();
+            }
+        }
+        this.overflow = Timer.sentinel();
+    }
+
+    /**
+     * Schedules a payload to expire at the given time.
+     * Times at or before the wheel's current time expire on the next tick.
+     *
+     * @param expiryMillis the expiry time in epoch milliseconds
+     * @param payload the payload to hand back on expiry
+     * @return a handle that can be used to cancel the timer
+     */
+    public Timer<T> schedule(long expiryMillis, T payload) {
+        // Round up so a timer never fires before its time
+        long expiryTick = Math.max(Math.floorDiv(expiryMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timer<T> timer = new Timer<>(expiryTick, payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer if it has not yet expired.
+     *
+     * @param timer the handle returned by schedule
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer.isPending()) {
+            timer.unlink();
+            size--;
+        }
+    }
+
+    /**
+     * Gets the number of pending timers.
+     *
+     * @return the number of timers not yet expired or cancelled
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Advances the wheel's clock to the given time and returns the payloads of all timers that expired,
+     * in order of expiry.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @return the expired payloads
+     */
+    public List<T> advanceTo(long nowMillis) {
+        ArrayList<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Timer<T> slot = levels[0][(int) (currentTick & SLOT_MASK)];
+            while (slot.next != slot) {
+                Timer<T> timer = slot.next;
+                timer.unlink();
+                size--;
+                expired.add(timer.payload);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Moves timers from coarser levels whose block of time has just begun into finer levels.
+     * Higher levels are redistributed first so their timers can fall through more than one level.
+     */
+    private void cascade() {
+        int level = 0;
+        while (level < LEVELS && ((currentTick >>> (SLOT_BITS * (level + 1))) << (SLOT_BITS * (level + 1))) == currentTick) {
+            level++;
+        }
+        if (level == LEVELS) {
+            redistribute(overflow);
+            level = LEVELS - 1;
+        }
+        for (int l = level; l >= 1; l--) {
+            redistribute(levels[l][(int) ((currentTick >>> (SLOT_BITS * l)) & SLOT_MASK)]);
+        }
+    }
+
+    /**
+     * Re-places every timer of a slot relative to the current tick.
+     */
+    private void redistribute(Timer<T> slot) {
+        Timer<T> timer = slot.next;
+        slot.next = slot;
+        slot.previous = slot;
+        while (timer != slot) {
+            Timer<T> next = timer.next;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    /**
+     * Puts a timer in the slot of the finest level whose block contains both the current tick and its expiry.
+     */
+    private void place(Timer<T> timer) {
+        long differingBits = Math.max(timer.expiryTick, currentTick) ^ currentTick;
+        int level = differingBits == 0 ? 0 : (63 - Long.numberOfLeadingZeros(differingBits)) / SLOT_BITS;
+        if (level >= LEVELS) {
+            timer.linkBefore(overflow);
+            return;
+        }
+        long slotTick = Math.max(timer.expiryTick, currentTick);
+        timer.linkBefore(levels[level][(int) ((slotTick >>> (SLOT_BITS * level)) & SLOT_MASK)]);
+    }
+
+    /**
+     * A scheduled entry in the wheel, linked into the circular list of its slot.
+     *
+     * @param <T> the type of payload carried by the timer
+     */
+    public static class Timer<T> {
+        private final long expiryTick;
+        private final T payload;
+        private Timer<T> previous;
+        private Timer<T> next;
+
+        private Timer(long expiryTick, T payload) {
+            this.expiryTick = expiryTick;
+            this.payload = payload;
+        }
+
+        private static <T> Timer<T> sentinel() {
+            Timer<T> sentinel = new Timer<>(0, null);
+            sentinel.previous = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        /**
+         * Checks if this timer is still waiting to expire.
+         *
+         * @return true if the timer has neither expired nor been cancelled
+         */
+        public boolean isPending() {
+            return next != null;
+        }
+
+        private void linkBefore(Timer<T> sentinel) {
+            previous = sentinel.previous;
+            next = sentinel;
+            sentinel.previous.next = this;
+            sentinel.previous = this;
+        }
+
+        private void unlink() {
+            previous.next = next;
+            next.previous = previous;
+            previous = null;
+            next = null;
+        }
+    }
+}
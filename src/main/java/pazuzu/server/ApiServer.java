@@ -0,0 +1,200 @@
+package pazuzu.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.CommandResult;
+import pazuzu.command.ErrorResult;
+import pazuzu.concurrent.CommandLoop;
+import pazuzu.util.Json;
+
+/**
+ * A small HTTP/JSON API that lets scripts and other local programs run commands on the same task list.
+ * POST /command with the command as the body, sent with the content type text/x-pazuzu-command;
+ * the reply is {"response": "..."}, with an "error" code such as "bad_task" added when the command failed.
+ * Only local programs may use it: requests from a browser page (with an Origin header) and requests
+ * naming a host other than the loopback address are refused. A web page also cannot send the
+ * command content type without a CORS preflight, which the server never approves.
+ * Each request runs on its own virtual thread where the runtime has them, or a pooled thread otherwise.
+ * Commands go through a CommandLoop, which applies changes one at a time on its writer thread
+ * and answers List and find from a snapshot on the request's own thread.
+ */
+public class ApiServer {
+    public static final String COMMAND_PATH = "/command";
+    public static final String COMMAND_CONTENT_TYPE = "text/x-pazuzu-command";
+    private static final int BACKLOG = 4096;
+    private static final int MAX_COMMAND_BYTES = 64 * 1024;
+    private static final int STATUS_OK = 200;
+    private static final int STATUS_BAD_REQUEST = 400;
+    private static final int STATUS_FORBIDDEN = 403;
+    private static final int STATUS_NOT_FOUND = 404;
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int STATUS_TOO_LARGE = 413;
+    private static final int STATUS_UNSUPPORTED_TYPE = 415;
+    private static final int STATUS_UNAVAILABLE = 503;
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final Pattern LOOPBACK_HOST = Pattern.compile(
+            "(localhost|127(\\.\\d{1,3}){3}|\\[::1\\])(:\\d{1,5})?", Pattern.CASE_INSENSITIVE);
+
+    private final CommandLoop commands;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server for the given Pazuzu, bound but not yet started.
+     *
+     * @param pazuzu the Pazuzu to run commands with
+     * @param address the address to listen on; use a loopback address to keep the API local
+     * @throws IOException if the address cannot be bound
+     */
+    public ApiServer(Pazuzu pazuzu, InetSocketAddress address) throws IOException {
+        this.commands = new CommandLoop(pazuzu, CommandLoop.DEFAULT_CAPACITY);
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = createThreadPerRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        commands.start();
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, waits briefly for those in progress and saves the tasks.
+     *
+     * @param delaySeconds the most seconds to wait for requests in progress
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        commands.stop();
+    }
+
+    /**
+     * Gets the port the server listens on, useful when it was started on port 0.
+     *
+     * @return the bound port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestURI().getPath().equals(COMMAND_PATH)) {
+                sendJson(exchange, STATUS_NOT_FOUND, "error", "Not found");
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendJson(exchange, STATUS_METHOD_NOT_ALLOWED, "error", "Use POST");
+                return;
+            }
+            if (!isFromLocalProgram(exchange)) {
+                sendJson(exchange, STATUS_FORBIDDEN, "error", "Only local programs may use this API");
+                return;
+            }
+            if (!isCommandContentType(exchange.getRequestHeaders().getFirst("Content-Type"))) {
+                sendJson(exchange, STATUS_UNSUPPORTED_TYPE, "error", "Use Content-Type " + COMMAND_CONTENT_TYPE);
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                sendJson(exchange, STATUS_TOO_LARGE, "error", "Command too long");
+                return;
+            }
+            String command = new String(body, StandardCharsets.UTF_8).trim();
+            if (command.isEmpty()) {
+                sendJson(exchange, STATUS_BAD_REQUEST, "error", "Empty command");
+                return;
+            }
+            CommandResult result;
+            try {
+                result = commands.submit(command).join().getResult();
+            } catch (CompletionException e) {
+                sendJson(exchange, STATUS_UNAVAILABLE, "error", "Server is stopping");
+                return;
+            }
+            String json = "{\"response\": " + Json.quote(result.render());
+            if (result.isError()) {
+                json += ", \"error\": " + Json.quote(((ErrorResult) result).getCode().name().toLowerCase());
+            }
+            send(exchange, STATUS_OK, json + "}");
+        }
+    }
+
+    /**
+     * Checks that a request does not come from a web page and names the loopback address as its host.
+     * Browsers add an Origin header to cross-site POSTs, and a site that rebinds its DNS name
+     * to the loopback address still sends its own name as the Host.
+     */
+    private static boolean isFromLocalProgram(HttpExchange exchange) {
+        if (exchange.getRequestHeaders().containsKey("Origin")) {
+            return false;
+        }
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        return host != null && LOOPBACK_HOST.matcher(host.trim()).matches();
+    }
+
+    /**
+     * Checks that the media type of a request, ignoring any parameters such as the charset, is the command type.
+     */
+    private static boolean isCommandContentType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int parametersStart = contentType.indexOf(';');
+        String mediaType = parametersStart == -1 ? contentType : contentType.substring(0, parametersStart);
+        return mediaType.trim().equalsIgnoreCase(COMMAND_CONTENT_TYPE);
+    }
+
+    /**
+     * Reads the request body, or returns null if it is longer than a command may be.
+     */
+    private static byte[] readBody(InputStream body) throws IOException {
+        byte[] bytes = body.readNBytes(MAX_COMMAND_BYTES + 1);
+        return bytes.length > MAX_COMMAND_BYTES ? null : bytes;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String key, String value) throws IOException {
+        send(exchange, status, "{" + Json.quote(key) + ": " + Json.quote(value) + "}");
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Creates an executor that starts a virtual thread per task on Java 21 and later.
+     * Earlier runtimes have no virtual threads, so a cached pool of platform threads is used instead.
+     */
+    static ExecutorService createThreadPerRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
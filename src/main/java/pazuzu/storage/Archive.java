@@ -0,0 +1,119 @@
+package pazuzu.storage;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Moves tasks that have been done for a while out of the task list into a separate archive file.
+ * The archive is only appended to when tasks are archived and only read when it is searched,
+ * so archived tasks cost nothing at startup or when the task list is saved.
+ * Archiving is safe to repeat: tasks are added to the archive before the task list is saved without them,
+ * and if that save fails they are found at the end of the archive next time rather than added again.
+ */
+public class Archive {
+    private final Storage coldStorage;
+    private int archivedCount = -1;
+
+    /**
+     * Creates an archive kept in the given storage.
+     *
+     * @param coldStorage the storage of the archive file
+     */
+    public Archive(Storage coldStorage) {
+        assert coldStorage != null : "Archive storage cannot be null";
+        this.coldStorage = coldStorage;
+    }
+
+    /**
+     * Moves every task completed before the cutoff from the task list to the archive.
+     * Tasks already at the end of the archive, left in the list by a save that failed after they were archived,
+     * are only removed from the list.
+     *
+     * @param tasks the task list to archive from
+     * @param cutoff tasks completed before this time are archived
+     * @return the archived tasks in list order
+     * @throws IOException if the archive file cannot be written, in which case no task is removed
+     */
+    public ArrayList<Task> archiveCompletedBefore(TaskList tasks, LocalDateTime cutoff) throws IOException {
+        ArrayList<Task> archived = new ArrayList<>();
+        for (int i = 0; i < tasks.getSize(); i++) {
+            Task task = tasks.getTask(i);
+            if (task.checkIsDone() && task.getCompletedAt().isBefore(cutoff)) {
+                archived.add(task);
+            }
+        }
+        if (archived.isEmpty()) {
+            return archived;
+        }
+
+        // Append before removing, so a failed write throws before any task leaves the list
+        List<Task> unarchived = withoutArchivedTail(archived);
+        coldStorage.appendTasks(unarchived, getArchivedCount() + 1);
+        archivedCount += unarchived.size();
+        // Delete from the back so earlier task numbers stay valid and fewer tasks are shifted
+        for (int i = tasks.getSize(); i >= 1; i--) {
+            Task task = tasks.getTask(i - 1);
+            if (task.checkIsDone() && task.getCompletedAt().isBefore(cutoff)) {
+                tasks.deleteTask(i);
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Leaves out the tasks that the last lines of the archive already hold.
+     * Everything archived since the task list was last saved is still in the list and so among the tasks,
+     * which means only as many lines as there are tasks need to be read.
+     */
+    private List<Task> withoutArchivedTail(List<Task> tasks) throws IOException {
+        HashMap<String, Integer> tailCounts = new HashMap<>();
+        for (String line : coldStorage.readLastTasks(tasks.size())) {
+            tailCounts.merge(line, 1, Integer::sum);
+        }
+        if (tailCounts.isEmpty()) {
+            return tasks;
+        }
+        ArrayList<Task> unarchived = new ArrayList<>();
+        for (Task task : tasks) {
+            String line = Storage.formatTask(task);
+            Integer count = tailCounts.get(line);
+            if (count == null) {
+                unarchived.add(task);
+            } else if (count == 1) {
+                tailCounts.remove(line);
+            } else {
+                tailCounts.put(line, count - 1);
+            }
+        }
+        return unarchived;
+    }
+
+    /**
+     * Reads every archived task from the archive file.
+     *
+     * @return a new TaskList of the archived tasks, oldest archived first
+     */
+    public TaskList loadArchived() {
+        TaskList archived = coldStorage.loadTasks();
+        archivedCount = archived.getSize();
+        return archived;
+    }
+
+    /**
+     * Gets the number of archived tasks, counting the lines of the archive file the first time.
+     *
+     * @return the number of archived tasks
+     */
+    public int getArchivedCount() {
+        if (archivedCount == -1) {
+            archivedCount = coldStorage.countTasks();
+        }
+        return archivedCount;
+    }
+}
@@ -4,42 +4,196 @@ import java.io.FileWriter;
 import java.io.FileReader;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import pazuzu.task.Deadline;
 import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
 import pazuzu.task.Task;
 import pazuzu.task.TaskList;
 import pazuzu.util.DateTimeUtil;
+import pazuzu.util.NameInterner;
 
 /**
  * Handles the loading and saving of tasks to the storage file.
+ * Each line holds a task as it is displayed, followed by a tab and the completion time for done tasks.
  */
 public class Storage {
-    private static final String FILE_PATH = "./data/pazuzu.txt";
+    private static final String DEFAULT_FILE_PATH = "./data/pazuzu.txt";
+    private static final char METADATA_SEPARATOR = '\t';
+    private static final String COMPLETED_LABEL = "completed: ";
+    private static final int TAIL_BLOCK_BYTES = 8192;
+    private final String filePath;
+    private final NameInterner names;
+    
+    /**
+     * Creates a Storage that shares task names only among the tasks it loads.
+     */
+    public Storage() {
+        this(new NameInterner());
+    }
+    
+    /**
+     * Creates a Storage that shares the names of loaded tasks through the given interner.
+     * 
+     * @param names the interner for task names
+     */
+    public Storage(NameInterner names) {
+        this(DEFAULT_FILE_PATH, names);
+    }
+    
+    /**
+     * Creates a Storage for the given file that shares the names of loaded tasks through the given interner.
+     * 
+     * @param filePath the path of the storage file
+     * @param names the interner for task names
+     */
+    public Storage(String filePath, NameInterner names) {
+        assert filePath != null : "File path cannot be null";
+        assert names != null : "Name interner cannot be null";
+        this.filePath = filePath;
+        this.names = names;
+    }
     
     /**
      * Saves the current task list to the storage file.
      * Creates the data directory if it doesn't exist.
      * 
      * @param taskList the TaskList containing all tasks to save
+     * @throws IOException if the file cannot be written, so callers know the tasks are still unsaved
      */
-    public void saveTasks(TaskList taskList) {
-        // Create data directory if it doesn't exist
-        File dataDir = new File("./data");
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
-        }
+    public void saveTasks(TaskList taskList) throws IOException {
+        createDataDirectory();
         
-        try (FileWriter writer = new FileWriter(new File(FILE_PATH))) {
+        try (FileWriter writer = new FileWriter(new File(filePath))) {
             // Write each task using getTask() method
             for (int i = 0; i < taskList.getSize(); i++) {
-                writer.write((i + 1) + ". " + taskList.getTask(i).getTask() + "\n");
+                writer.write(formatTaskLine(i + 1, taskList.getTask(i)));
+            }
+        }
+    }
+    
+    /**
+     * Adds tasks to the end of the storage file without rewriting the tasks already in it.
+     * 
+     * @param tasks the tasks to add
+     * @param firstNumber the number to give the first added task
+     * @throws IOException if the file cannot be written, so callers can keep the tasks elsewhere
+     */
+    public void appendTasks(List<Task> tasks, int firstNumber) throws IOException {
+        createDataDirectory();
+        
+        try (FileWriter writer = new FileWriter(new File(filePath), true)) {
+            for (int i = 0; i < tasks.size(); i++) {
+                writer.write(formatTaskLine(firstNumber + i, tasks.get(i)));
+            }
+        }
+    }
+    
+    /**
+     * Reads the last task lines of the storage file, reading the file backwards from its end
+     * so the cost depends on the lines asked for and not on the size of the file.
+     * 
+     * @param count the number of lines to read
+     * @return the tasks of those lines as formatTask writes them, without their numbers, oldest first
+     * @throws IOException if the file exists but cannot be read
+     */
+    List<String> readLastTasks(int count) throws IOException {
+        File file = new File(filePath);
+        ArrayList<String> tasks = new ArrayList<>();
+        if (count == 0 || !file.exists()) {
+            return tasks;
+        }
+        try (RandomAccessFile reader = new RandomAccessFile(file, "r")) {
+            long start = reader.length();
+            // The newline ending the last line does not start another line
+            int newlineCount = -1;
+            byte[] block = new byte[TAIL_BLOCK_BYTES];
+            while (start > 0 && newlineCount < count) {
+                int length = (int) Math.min(block.length, start);
+                reader.seek(start - length);
+                reader.readFully(block, 0, length);
+                int i = length - 1;
+                for (; i >= 0; i--) {
+                    if (block[i] == '\n' && ++newlineCount == count) {
+                        break;
+                    }
+                }
+                start -= length - (i + 1);
+            }
+            byte[] tail = new byte[(int) (reader.length() - start)];
+            reader.seek(start);
+            reader.readFully(tail);
+            for (String line : new String(tail, Charset.defaultCharset()).split("\n")) {
+                line = line.trim();
+                int dotIndex = line.indexOf(". ");
+                if (dotIndex != -1) {
+                    tasks.add(line.substring(dotIndex + 2));
+                }
+            }
+        }
+        return tasks;
+    }
+    
+    /**
+     * Counts the tasks in the storage file without parsing them.
+     * 
+     * @return the number of task lines in the file
+     */
+    public int countTasks() {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    count++;
+                }
             }
         } catch (IOException e) {
-            System.out.println("Error saving tasks to file: " + e.getMessage());
+            System.out.println("Error loading tasks from file: " + e.getMessage());
+        }
+        return count;
+    }
+    
+    /**
+     * Creates the directory of the storage file if it doesn't exist.
+     */
+    private void createDataDirectory() {
+        File dataDir = new File(filePath).getAbsoluteFile().getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+    }
+    
+    /**
+     * Formats a task as a numbered line of the storage file.
+     */
+    private static String formatTaskLine(int taskNumber, Task task) {
+        return taskNumber + ". " + formatTask(task) + "\n";
+    }
+    
+    /**
+     * Formats a task as it is written after its number, with its completion time for done tasks.
+     * 
+     * @param task the task to format
+     * @return the task as it appears in the storage file
+     */
+    static String formatTask(Task task) {
+        StringBuilder line = new StringBuilder(task.getTask());
+        if (task.getCompletedAt() != null) {
+            line.append(METADATA_SEPARATOR).append(COMPLETED_LABEL).append(task.getCompletedAt());
         }
+        return line.toString();
     }
     
     /**
@@ -51,7 +205,7 @@ public class Storage {
     public TaskList loadTasks() {
         TaskList taskList = new TaskList();
         
-        File file = new File(FILE_PATH);
+        File file = new File(filePath);
         if (!file.exists()) {
             return taskList; // Return empty list if file doesn't exist
         }
@@ -71,8 +225,12 @@ public class Storage {
                     continue; // Skip malformed lines
                 }
                 
-                String taskData = line.substring(dotIndex + 2); // Skip "1. " part
-                Task task = parseTaskFromString(taskData);
+                int metadataIndex = line.indexOf(METADATA_SEPARATOR);
+                String taskData = metadataIndex == -1
+                        ? line.substring(dotIndex + 2) // Skip "1. " part
+                        : line.substring(dotIndex + 2, metadataIndex);
+                String completion = metadataIndex == -1 ? "" : line.substring(metadataIndex + 1);
+                Task task = parseTaskFromString(taskData, completion);
                 if (task != null) {
                     taskList.addTask(task);
                 }
@@ -86,26 +244,67 @@ public class Storage {
     
     /**
      * Parses a task string and creates the appropriate Task, Deadline, or Event object.
+     * Done tasks saved before completion times were kept count as completed now.
      * 
      * @param taskData the task string in format "[T][X] name" or "[D][ ] name (by: deadline)"
+     * @param completion the text after the tab, such as "completed: 2024-10-15T14:30", or empty
      * @return the parsed Task object, or null if parsing fails
      */
-    private Task parseTaskFromString(String taskData) {
+    private Task parseTaskFromString(String taskData, String completion) {
         if (!isValidTaskData(taskData)) {
             return null;
         }
         
         TaskMetadata metadata = extractTaskMetadata(taskData);
         String content = extractTaskContent(taskData);
+        ArrayList<String> tags = new ArrayList<>();
+        content = removeTagSuffix(content, tags);
         
         Task task = createTaskByType(metadata.taskType, content);
         if (task != null && metadata.isDone) {
-            task.markDone();
+            task.markDone(parseCompletedAt(completion));
+        }
+        if (task != null) {
+            task.setTags(tags);
         }
         
         return task;
     }
     
+    /**
+     * Removes the #tag words that end a task's content, collecting the tags in their original order.
+     * 
+     * @param content the task content
+     * @param tags receives the tags found
+     * @return the content without its tags
+     */
+    private String removeTagSuffix(String content, List<String> tags) {
+        int end = content.length();
+        int spaceIndex = content.lastIndexOf(' ', end - 1);
+        String tag;
+        while (spaceIndex != -1 && (tag = Task.toTag(content, spaceIndex + 1, end)) != null) {
+            tags.add(names.intern(tag));
+            end = spaceIndex;
+            spaceIndex = content.lastIndexOf(' ', end - 1);
+        }
+        Collections.reverse(tags);
+        return content.substring(0, end);
+    }
+    
+    /**
+     * Reads the completion time from the metadata of a line, falling back to now if there is none.
+     */
+    private static LocalDateTime parseCompletedAt(String metadata) {
+        if (metadata.startsWith(COMPLETED_LABEL)) {
+            try {
+                return LocalDateTime.parse(metadata.substring(COMPLETED_LABEL.length()).trim());
+            } catch (DateTimeParseException e) {
+                // Fall through to now
+            }
+        }
+        return LocalDateTime.now();
+    }
+    
     /**
      * Validates that the task data string has the correct format and minimum length.
      * 
@@ -150,7 +349,7 @@ public class Storage {
     /**
      * Creates a task object based on the task type and content.
      * 
-     * @param taskType the type of task ('T', 'D', or 'E')
+     * @param taskType the type of task ('T', 'D', 'E', or 'R')
      * @param content the task content string
      * @return the created Task object, or null if parsing fails
      */
@@ -162,6 +361,8 @@ public class Storage {
                 return createDeadlineTask(content);
             case 'E':
                 return createEventTask(content);
+            case 'R':
+                return createRecurringTask(content);
             default:
                 return null;
         }
@@ -174,7 +375,7 @@ public class Storage {
      * @return the created Task object
      */
     private Task createTodoTask(String content) {
-        return new Task(content);
+        return new Task(names.intern(content));
     }
     
     /**
@@ -192,7 +393,7 @@ public class Storage {
         assert byIndex > 0 : "Task name must exist before deadline";
         assert content.length() > byIndex + 7 : "Deadline string must have content";
         
-        String taskName = content.substring(0, byIndex);
+        String taskName = names.intern(content.substring(0, byIndex));
         String deadlineStr = content.substring(byIndex + 6, content.length() - 1);
         
         try {
@@ -217,7 +418,7 @@ public class Storage {
             return null;
         }
         
-        String taskName = content.substring(0, fromIndex);
+        String taskName = names.intern(content.substring(0, fromIndex));
         String startDateStr = content.substring(fromIndex + 8, toIndex);
         String endDateStr = content.substring(toIndex + 5, content.length() - 1);
         
@@ -230,6 +431,41 @@ public class Storage {
         }
     }
     
+    /**
+     * Creates a RecurringTask from the given content.
+     * 
+     * @param content the task content in format "task name (every: interval unit from: start[; records])"
+     * @return the created RecurringTask object, or null if parsing fails
+     */
+    private Task createRecurringTask(String content) {
+        int everyIndex = content.lastIndexOf(" (every: ");
+        int fromIndex = content.lastIndexOf(" from: ");
+        if (everyIndex == -1 || fromIndex < everyIndex || !content.endsWith(")")) {
+            return null;
+        }
+        
+        String taskName = names.intern(content.substring(0, everyIndex));
+        String[] rule = content.substring(everyIndex + 9, fromIndex).trim().split(" ");
+        String schedule = content.substring(fromIndex + 7, content.length() - 1);
+        int recordsIndex = schedule.indexOf(';');
+        String startDateStr = recordsIndex == -1 ? schedule : schedule.substring(0, recordsIndex);
+        
+        try {
+            RecurringTask.Frequency frequency = rule.length == 2 ? RecurringTask.Frequency.fromWord(rule[1]) : null;
+            if (frequency == null) {
+                return null;
+            }
+            LocalDateTime start = LocalDateTime.parse(startDateStr.trim(), DateTimeUtil.OUTPUT_FORMATTER);
+            RecurringTask task = new RecurringTask(taskName, start, frequency, Integer.parseInt(rule[0]));
+            if (recordsIndex != -1) {
+                task.restoreRecords(schedule.substring(recordsIndex));
+            }
+            return task;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+    
     /**
      * Helper class to hold task metadata extracted from the task data string.
      */
@@ -43,6 +43,22 @@ public class Deadline extends Task {
         this.deadline = deadline;
     }
     
+    @Override
+    public Deadline copy() {
+        Deadline copy = new Deadline(this.getName(), this.deadline);
+        if (this.checkIsDone()) {
+            copy.markDone(this.getCompletedAt());
+        }
+        copy.setTags(this.getTags());
+        return copy;
+    }
+    
+    @Override
+    public void restoreState(Task snapshot) {
+        super.restoreState(snapshot);
+        this.deadline = ((Deadline) snapshot).deadline;
+    }
+    
     /**
      * Prints the deadline task in the format [D][X] name (by: deadline) 
      * where X appears only if the task is done.
@@ -62,6 +78,6 @@ public class Deadline extends Task {
     public String getTask() {
         String status = this.checkIsDone() ? TASK_STATUS_DONE : TASK_STATUS_NOT_DONE;
         String formattedDate = this.deadline.format(DateTimeUtil.OUTPUT_FORMATTER);
-        return TASK_TYPE_DEADLINE + status + " " + this.getName() + " (by: " + formattedDate + ")";
+        return TASK_TYPE_DEADLINE + status + " " + this.getName() + " (by: " + formattedDate + ")" + formatTags();
     }
 }
@@ -69,6 +69,24 @@ public class Event extends Task {
         this.endDate = endDate;
     }
     
+    @Override
+    public Event copy() {
+        Event copy = new Event(this.getName(), this.startDate, this.endDate);
+        if (this.checkIsDone()) {
+            copy.markDone(this.getCompletedAt());
+        }
+        copy.setTags(this.getTags());
+        return copy;
+    }
+    
+    @Override
+    public void restoreState(Task snapshot) {
+        super.restoreState(snapshot);
+        // Both dates are set together so the start never passes the end in between
+        this.startDate = ((Event) snapshot).startDate;
+        this.endDate = ((Event) snapshot).endDate;
+    }
+    
     /**
      * Prints the event task in the format [E][X] name (from: startDate to: endDate) 
      * where X appears only if the task is done.
@@ -89,6 +107,6 @@ public class Event extends Task {
         String status = this.checkIsDone() ? TASK_STATUS_DONE : TASK_STATUS_NOT_DONE;
         String formattedStartDate = this.startDate.format(DateTimeUtil.OUTPUT_FORMATTER);
         String formattedEndDate = this.endDate.format(DateTimeUtil.OUTPUT_FORMATTER);
-        return TASK_TYPE_EVENT + status + " " + this.getName() + " (from: " + formattedStartDate + " to: " + formattedEndDate + ")";
+        return TASK_TYPE_EVENT + status + " " + this.getName() + " (from: " + formattedStartDate + " to: " + formattedEndDate + ")" + formatTags();
     }
 }
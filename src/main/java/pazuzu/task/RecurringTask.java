@@ -0,0 +1,463 @@
+package pazuzu.task;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import pazuzu.util.DateTimeUtil;
+
+/**
+ * Represents a task that repeats at a fixed interval from a start date.
+ * Occurrences are computed on demand rather than stored; only completed and skipped
+ * occurrences are recorded, as runs of consecutive occurrences with the same outcome.
+ * A series that is kept up to date therefore needs one run however long it runs,
+ * and its records only grow when the outcome changes from one occurrence to the next.
+ * Marking the task itself done ends the whole series.
+ */
+public class RecurringTask extends Task {
+    private static final String TASK_TYPE_RECURRING = "[R]";
+    private static final String RECORD_SEPARATOR = "; ";
+    // Written before runs were kept; still read so older files load
+    private static final String DONE_TO_LABEL = "done to: ";
+    private static final String DONE_LABEL = "done: ";
+    private static final String SKIP_LABEL = "skip: ";
+    private static final String DATE_SEPARATOR = ",";
+    private static final String RANGE_SEPARATOR = "..";
+
+    /**
+     * The unit in which a series repeats.
+     */
+    public enum Frequency {
+        DAY(ChronoUnit.DAYS, "daily", "day", "days"),
+        WEEK(ChronoUnit.WEEKS, "weekly", "week", "weeks"),
+        MONTH(ChronoUnit.MONTHS, "monthly", "month", "months");
+
+        private static final Frequency[] FREQUENCIES = values();
+
+        private final ChronoUnit unit;
+        private final String[] words;
+
+        Frequency(ChronoUnit unit, String... words) {
+            this.unit = unit;
+            this.words = words;
+        }
+
+        /**
+         * Parses a frequency from words such as "daily", "week" or "months".
+         *
+         * @param word the word to parse
+         * @return the matching frequency, or null if none matches
+         */
+        public static Frequency fromWord(String word) {
+            return fromWord(word, 0, word.length());
+        }
+
+        /**
+         * Parses a frequency from a word in a region of the text, ignoring case, without copying the word.
+         *
+         * @param text the text holding the word
+         * @param start the start of the word
+         * @param end the end of the word
+         * @return the matching frequency, or null if none matches
+         */
+        public static Frequency fromWord(CharSequence text, int start, int end) {
+            for (Frequency frequency : FREQUENCIES) {
+                for (String word : frequency.words) {
+                    if (matchesIgnoringCase(text, start, end, word)) {
+                        return frequency;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private static boolean matchesIgnoringCase(CharSequence text, int start, int end, String word) {
+            if (end - start != word.length()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (Character.toLowerCase(text.charAt(start + i)) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the unit name, pluralised for intervals other than one.
+         */
+        String label(int interval) {
+            String name = name().toLowerCase();
+            return interval == 1 ? name : name + "s";
+        }
+    }
+
+    private LocalDateTime start;
+    private final Frequency frequency;
+    private final int interval;
+    // Each run maps the date of its first occurrence to the date of its last
+    private final TreeMap<LocalDate, LocalDate> doneRuns = new TreeMap<>();
+    private final TreeMap<LocalDate, LocalDate> skippedRuns = new TreeMap<>();
+
+    /**
+     * Creates a new recurring task. The series is initially not done.
+     *
+     * @param name the name of the recurring task
+     * @param start the date and time of the first occurrence
+     * @param frequency the unit in which the series repeats
+     * @param interval the number of units between occurrences
+     */
+    public RecurringTask(String name, LocalDateTime start, Frequency frequency, int interval) {
+        super(name);
+        assert start != null : "Start date cannot be null";
+        assert frequency != null : "Frequency cannot be null";
+        assert interval > 0 : "Interval must be positive";
+        this.start = start;
+        this.frequency = frequency;
+        this.interval = interval;
+    }
+
+    /**
+     * Gets the date and time of the first occurrence.
+     *
+     * @return the start of the series
+     */
+    public LocalDateTime getStart() {
+        return this.start;
+    }
+
+    /**
+     * Moves the series to a new start. Completions and skips are kept as dates.
+     *
+     * @param start the new date and time of the first occurrence
+     */
+    public void setStart(LocalDateTime start) {
+        assert start != null : "Start date cannot be null";
+        this.start = start;
+    }
+
+    /**
+     * Gets the unit in which the series repeats.
+     *
+     * @return the frequency
+     */
+    public Frequency getFrequency() {
+        return this.frequency;
+    }
+
+    /**
+     * Gets the number of units between occurrences.
+     *
+     * @return the interval
+     */
+    public int getInterval() {
+        return this.interval;
+    }
+
+    /**
+     * Lists the occurrences falling between two times, both inclusive, leaving out skipped ones.
+     *
+     * @param from the start of the range
+     * @param to the end of the range
+     * @return the occurrence times in order
+     */
+    public List<LocalDateTime> getOccurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        ArrayList<LocalDateTime> occurrences = new ArrayList<>();
+        long index = Math.max(0, indexAtOrBefore(from));
+        for (LocalDateTime occurrence = getOccurrence(index); !occurrence.isAfter(to); occurrence = getOccurrence(++index)) {
+            if (!occurrence.isBefore(from) && findRun(skippedRuns, occurrence.toLocalDate()) == null) {
+                occurrences.add(occurrence);
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Finds the first occurrence after the given time that is neither skipped nor completed.
+     *
+     * @param after the time to search from (exclusive)
+     * @return the next open occurrence, or null if the series is done
+     */
+    public LocalDateTime getNextOpenOccurrence(LocalDateTime after) {
+        if (checkIsDone()) {
+            return null;
+        }
+        long index = Math.max(0, indexAtOrBefore(after));
+        LocalDateTime occurrence = getOccurrence(index);
+        while (true) {
+            Map.Entry<LocalDate, LocalDate> run;
+            if (!occurrence.isAfter(after)) {
+                index++;
+            } else if ((run = findRun(doneRuns, occurrence.toLocalDate())) != null
+                    || (run = findRun(skippedRuns, occurrence.toLocalDate())) != null) {
+                // Jump past the whole run rather than stepping through its occurrences
+                index = indexOf(run.getValue()) + 1;
+            } else {
+                return occurrence;
+            }
+            occurrence = getOccurrence(index);
+        }
+    }
+
+    /**
+     * Finds the occurrence a user most likely means by "this one":
+     * the latest occurrence at or before the given time, or the first occurrence if the series has not begun.
+     *
+     * @param now the current time
+     * @return the date of the current occurrence
+     */
+    public LocalDate getCurrentOccurrenceDate(LocalDateTime now) {
+        long index = indexAtOrBefore(now);
+        Map.Entry<LocalDate, LocalDate> run;
+        while (index > 0 && (run = findRun(skippedRuns, getOccurrence(index).toLocalDate())) != null) {
+            index = indexOf(run.getKey()) - 1;
+        }
+        return getOccurrence(Math.max(0, index)).toLocalDate();
+    }
+
+    /**
+     * Checks if the series has an occurrence on the given date.
+     *
+     * @param date the date to check
+     * @return true if an occurrence falls on that date
+     */
+    public boolean isOccurrenceDate(LocalDate date) {
+        long index = indexAtOrBefore(date.atTime(23, 59, 59));
+        return index >= 0 && getOccurrence(index).toLocalDate().equals(date);
+    }
+
+    /**
+     * Checks if the occurrence on the given date has been completed.
+     *
+     * @param date the date of the occurrence
+     * @return true if that occurrence is completed
+     */
+    public boolean isOccurrenceDone(LocalDate date) {
+        return findRun(doneRuns, date) != null;
+    }
+
+    /**
+     * Records the occurrence on the given date as completed.
+     *
+     * @param date the date of the occurrence
+     */
+    public void completeOccurrence(LocalDate date) {
+        assert isOccurrenceDate(date) : "Date must be an occurrence of this series";
+        if (isOccurrenceDone(date)) {
+            return;
+        }
+        record(date, doneRuns, skippedRuns);
+    }
+
+    /**
+     * Records the occurrence on the given date as skipped, so it is no longer listed.
+     *
+     * @param date the date of the occurrence
+     */
+    public void skipOccurrence(LocalDate date) {
+        assert isOccurrenceDate(date) : "Date must be an occurrence of this series";
+        if (isOccurrenceDone(date)) {
+            return;
+        }
+        record(date, skippedRuns, doneRuns);
+    }
+
+    @Override
+    public RecurringTask copy() {
+        RecurringTask copy = new RecurringTask(this.getName(), this.start, this.frequency, this.interval);
+        if (this.checkIsDone()) {
+            copy.markDone(this.getCompletedAt());
+        }
+        copy.setTags(this.getTags());
+        copy.doneRuns.putAll(this.doneRuns);
+        copy.skippedRuns.putAll(this.skippedRuns);
+        return copy;
+    }
+
+    @Override
+    public void restoreState(Task snapshot) {
+        super.restoreState(snapshot);
+        RecurringTask series = (RecurringTask) snapshot;
+        assert series.frequency == frequency && series.interval == interval : "Snapshot must be of the same series";
+        this.start = series.start;
+        this.doneRuns.clear();
+        this.doneRuns.putAll(series.doneRuns);
+        this.skippedRuns.clear();
+        this.skippedRuns.putAll(series.skippedRuns);
+    }
+
+    /**
+     * Prints the recurring task in the format [R][X] name (every: interval unit from: start)
+     * where X appears only if the series is done.
+     */
+    @Override
+    public void printTask() {
+        System.out.println(getTask());
+    }
+
+    /**
+     * Returns the recurring task formatted as a string in the format
+     * [R][X] name (every: interval unit from: start; done: runs; skip: runs)
+     * where X appears only if the series is done and the completion parts appear only when non-empty.
+     *
+     * @return the formatted recurring task string
+     */
+    @Override
+    public String getTask() {
+        String status = this.checkIsDone() ? TASK_STATUS_DONE : TASK_STATUS_NOT_DONE;
+        StringBuilder result = new StringBuilder(TASK_TYPE_RECURRING + status + " " + this.getName());
+        result.append(" (every: ").append(interval).append(' ').append(frequency.label(interval))
+                .append(" from: ").append(start.format(DateTimeUtil.OUTPUT_FORMATTER));
+        appendRecords(result);
+        return result.append(")").append(formatTags()).toString();
+    }
+
+    /**
+     * Gets the completion and skip records of the series in the form restoreRecords reads.
+     *
+     * @return the records, such as "; done: 2024-01-01..2024-01-07; skip: 2024-01-14", or empty if there are none
+     */
+    public String getRecords() {
+        StringBuilder records = new StringBuilder();
+        appendRecords(records);
+        return records.toString();
+    }
+
+    private void appendRecords(StringBuilder result) {
+        appendRuns(result, DONE_LABEL, doneRuns);
+        appendRuns(result, SKIP_LABEL, skippedRuns);
+    }
+
+    /**
+     * Restores the completion and skip records of a series from the details part of its formatted string.
+     * Records written with a "done to" date are read too; skips listed with them are taken out of it.
+     *
+     * @param details the text after the start date, such as "; done: 2024-01-01..2024-01-07; skip: 2024-01-14"
+     * @throws java.time.format.DateTimeParseException if a recorded date is malformed
+     */
+    public void restoreRecords(String details) {
+        for (String part : details.split(RECORD_SEPARATOR.trim())) {
+            part = part.trim();
+            if (part.startsWith(DONE_TO_LABEL)) {
+                LocalDate doneTo = LocalDate.parse(part.substring(DONE_TO_LABEL.length()).trim());
+                doneRuns.put(getOccurrence(0).toLocalDate(), doneTo);
+            } else if (part.startsWith(DONE_LABEL)) {
+                readRuns(part.substring(DONE_LABEL.length()), doneRuns, skippedRuns);
+            } else if (part.startsWith(SKIP_LABEL)) {
+                readRuns(part.substring(SKIP_LABEL.length()), skippedRuns, doneRuns);
+            }
+        }
+    }
+
+    /**
+     * Gets the occurrence with the given 0-based index. Months are added to the start
+     * rather than to the previous occurrence, so a series on the 31st does not drift.
+     */
+    private LocalDateTime getOccurrence(long index) {
+        return start.plus(index * interval, frequency.unit);
+    }
+
+    /**
+     * Returns the index of the latest occurrence at or before the given time, or -1 if there is none.
+     */
+    private long indexAtOrBefore(LocalDateTime time) {
+        if (time.isBefore(start)) {
+            return -1;
+        }
+        long index = frequency.unit.between(start, time) / interval;
+        // Month arithmetic can overshoot by one near month ends
+        while (index > 0 && getOccurrence(index).isAfter(time)) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the latest occurrence on or before the given date, or -1 if there is none.
+     */
+    private long indexOf(LocalDate date) {
+        return indexAtOrBefore(date.atTime(23, 59, 59));
+    }
+
+    /**
+     * Finds the run holding the given date.
+     *
+     * @return the run, or null if no run covers the date
+     */
+    private static Map.Entry<LocalDate, LocalDate> findRun(TreeMap<LocalDate, LocalDate> runs, LocalDate date) {
+        Map.Entry<LocalDate, LocalDate> run = runs.floorEntry(date);
+        return run == null || run.getValue().isBefore(date) ? null : run;
+    }
+
+    /**
+     * Records the occurrence on the given date in one set of runs, taking it out of the other.
+     * It is joined to a run that ends on the occurrence before it or starts on the one after,
+     * so consecutive occurrences with the same outcome always share a single run.
+     */
+    private void record(LocalDate date, TreeMap<LocalDate, LocalDate> runs, TreeMap<LocalDate, LocalDate> otherRuns) {
+        removeFromRuns(date, otherRuns);
+        long index = indexOf(date);
+        LocalDate first = date;
+        if (index > 0) {
+            Map.Entry<LocalDate, LocalDate> before = findRun(runs, getOccurrence(index - 1).toLocalDate());
+            if (before != null) {
+                first = before.getKey();
+            }
+        }
+        LocalDate after = runs.remove(getOccurrence(index + 1).toLocalDate());
+        runs.put(first, after == null ? date : after);
+    }
+
+    /**
+     * Takes the occurrence on the given date out of the run holding it, splitting the run around it.
+     */
+    private void removeFromRuns(LocalDate date, TreeMap<LocalDate, LocalDate> runs) {
+        Map.Entry<LocalDate, LocalDate> run = findRun(runs, date);
+        if (run == null) {
+            return;
+        }
+        runs.remove(run.getKey());
+        long index = indexOf(date);
+        if (run.getKey().isBefore(date)) {
+            runs.put(run.getKey(), getOccurrence(index - 1).toLocalDate());
+        }
+        if (run.getValue().isAfter(date)) {
+            runs.put(getOccurrence(index + 1).toLocalDate(), run.getValue());
+        }
+    }
+
+    private static void appendRuns(StringBuilder result, String label, TreeMap<LocalDate, LocalDate> runs) {
+        if (runs.isEmpty()) {
+            return;
+        }
+        result.append(RECORD_SEPARATOR).append(label);
+        String separator = "";
+        for (Map.Entry<LocalDate, LocalDate> run : runs.entrySet()) {
+            result.append(separator).append(run.getKey());
+            if (!run.getValue().equals(run.getKey())) {
+                result.append(RANGE_SEPARATOR).append(run.getValue());
+            }
+            separator = DATE_SEPARATOR;
+        }
+    }
+
+    /**
+     * Reads runs written by appendRuns. Single dates are recorded one by one,
+     * so older records that listed every date apart still fold into runs.
+     */
+    private void readRuns(String text, TreeMap<LocalDate, LocalDate> runs, TreeMap<LocalDate, LocalDate> otherRuns) {
+        for (String run : text.split(DATE_SEPARATOR)) {
+            run = run.trim();
+            int rangeIndex = run.indexOf(RANGE_SEPARATOR);
+            if (rangeIndex != -1) {
+                runs.put(LocalDate.parse(run.substring(0, rangeIndex)),
+                        LocalDate.parse(run.substring(rangeIndex + RANGE_SEPARATOR.length())));
+            } else if (!run.isEmpty()) {
+                record(LocalDate.parse(run), runs, otherRuns);
+            }
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package pazuzu.task;
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Represents a task with a name and completion status.
  * Tasks are not done by default when created.
+ * A done task remembers when it was completed, so old finished tasks can be archived.
+ * Tasks can carry tags, written as #tag after the task.
  */
 public class Task {
     // Task formatting constants
     protected static final String TASK_TYPE_TODO = "[T]";
     protected static final String TASK_STATUS_DONE = "[X]";
     protected static final String TASK_STATUS_NOT_DONE = "[ ]";
+    public static final String TAG_PREFIX = "#";
     private boolean isDone;
     private String name;
+    private LocalDateTime completedAt;
+    private List<String> tags = List.of();
     
     /**
      * Creates a new task with the given name.
@@ -25,10 +33,21 @@ public class Task {
     }
     
     /**
-     * Marks this task as done.
+     * Marks this task as done, completed now.
      */
     public void markDone() {
+        markDone(LocalDateTime.now());
+    }
+    
+    /**
+     * Marks this task as done, completed at the given time.
+     * 
+     * @param completedAt when the task was completed
+     */
+    public void markDone(LocalDateTime completedAt) {
+        assert completedAt != null : "Completion time cannot be null";
         this.isDone = true;
+        this.completedAt = completedAt;
     }
     
     /**
@@ -36,6 +55,16 @@ public class Task {
      */
     public void markNotDone() {
         this.isDone = false;
+        this.completedAt = null;
+    }
+    
+    /**
+     * Gets when this task was completed.
+     * 
+     * @return the completion time, or null if the task is not done
+     */
+    public LocalDateTime getCompletedAt() {
+        return this.completedAt;
     }
     
     /**
@@ -56,6 +85,22 @@ public class Task {
         return this.name;
     }
     
+    /**
+     * Checks if the name of this task contains the keyword, ignoring case.
+     * Characters are compared in place, so no lowercase copy of the name is made.
+     * 
+     * @param keyword the keyword to look for
+     * @return true if the name contains the keyword
+     */
+    public boolean hasNameContaining(String keyword) {
+        for (int i = 0; i + keyword.length() <= this.name.length(); i++) {
+            if (this.name.regionMatches(true, i, keyword, 0, keyword.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Sets the name of this task.
      * 
@@ -67,6 +112,123 @@ public class Task {
         this.name = name;
     }
     
+    /**
+     * Gets the tags of this task, without the # prefix.
+     * 
+     * @return an unmodifiable list of tags in the order they were given
+     */
+    public List<String> getTags() {
+        return this.tags;
+    }
+    
+    /**
+     * Replaces the tags of this task.
+     * 
+     * @param tags the new tags, each normalized by toTag
+     */
+    public void setTags(List<String> tags) {
+        assert tags != null : "Tags cannot be null";
+        this.tags = List.copyOf(tags);
+    }
+    
+    /**
+     * Turns a word such as "#Ops" into the tag "ops".
+     * A tag starts with a letter, so references such as "#123" stay part of the task name.
+     * 
+     * @param word the word to check
+     * @return the tag in lower case, or null if the word is not a tag
+     */
+    public static String toTag(String word) {
+        return toTag(word, 0, word.length());
+    }
+    
+    /**
+     * Reads a tag from a word in a region of the text, creating a string only if the word is a tag.
+     * 
+     * @param text the text holding the word
+     * @param start the start of the word
+     * @param end the end of the word
+     * @return the tag in lower case, or null if the word is not a tag
+     */
+    public static String toTag(CharSequence text, int start, int end) {
+        if (!isTag(text, start, end)) {
+            return null;
+        }
+        return text.subSequence(start + TAG_PREFIX.length(), end).toString().toLowerCase();
+    }
+    
+    /**
+     * Checks if a word in a region of the text is a tag, without copying the word.
+     * 
+     * @param text the text holding the word
+     * @param start the start of the word
+     * @param end the end of the word
+     * @return true if the word is a tag
+     */
+    public static boolean isTag(CharSequence text, int start, int end) {
+        int nameStart = start + TAG_PREFIX.length();
+        if (end <= nameStart) {
+            return false;
+        }
+        for (int i = 0; i < TAG_PREFIX.length(); i++) {
+            if (text.charAt(start + i) != TAG_PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        if (!Character.isLetter(text.charAt(nameStart))) {
+            return false;
+        }
+        for (int i = nameStart + 1; i < end; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Formats the tags of this task as they follow the task, such as " #ops #urgent".
+     * 
+     * @return the formatted tags, or an empty string if there are none
+     */
+    protected String formatTags() {
+        if (this.tags.isEmpty()) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder();
+        for (String tag : this.tags) {
+            result.append(' ').append(TAG_PREFIX).append(tag);
+        }
+        return result.toString();
+    }
+    
+    /**
+     * Creates a detached copy of the current state of this task, so the state can be restored later.
+     * 
+     * @return a copy of this task
+     */
+    public Task copy() {
+        Task copy = new Task(this.name);
+        copy.isDone = this.isDone;
+        copy.completedAt = this.completedAt;
+        copy.tags = this.tags;
+        return copy;
+    }
+    
+    /**
+     * Sets the state of this task to that of a copy made earlier with copy().
+     * 
+     * @param snapshot a copy of a task of the same type
+     */
+    public void restoreState(Task snapshot) {
+        assert snapshot.getClass() == getClass() : "Snapshot must be of the same task type";
+        this.name = snapshot.name;
+        this.isDone = snapshot.isDone;
+        this.completedAt = snapshot.completedAt;
+        this.tags = snapshot.tags;
+    }
+    
     /**
      * Prints the task in the format [T][X] name where X appears only if the task is done.
      */
@@ -81,6 +243,6 @@ public class Task {
      */
     public String getTask() {
         String status = this.isDone ? TASK_STATUS_DONE : TASK_STATUS_NOT_DONE;
-        return TASK_TYPE_TODO + status + " " + this.name;
+        return TASK_TYPE_TODO + status + " " + this.name + formatTags();
     }
 }
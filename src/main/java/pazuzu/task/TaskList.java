@@ -1,5 +1,7 @@
 package pazuzu.task;
 import java.util.ArrayList;
+import java.util.List;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import pazuzu.exception.PazuzuExceptions;
@@ -9,6 +11,7 @@ import pazuzu.exception.PazuzuExceptions;
  */
 public class TaskList {
     private ArrayList<Task> tasks;
+    private final ArrayList<TaskListener> listeners = new ArrayList<>();
     
     /**
      * Creates a new empty TaskList.
@@ -27,6 +30,37 @@ public class TaskList {
         this.tasks = tasks;
     }
     
+    /**
+     * Registers a listener to be notified of every change to this list.
+     * Tasks already in the list are replayed to the listener as additions,
+     * so an index can build its initial state from the same callbacks.
+     * 
+     * @param listener the listener to register
+     */
+    public void addListener(TaskListener listener) {
+        assert listener != null : "Listener cannot be null";
+        listeners.add(listener);
+        for (int i = 0; i < tasks.size(); i++) {
+            listener.taskAdded(i + 1, tasks.get(i));
+        }
+    }
+    
+    /**
+     * Stops notifying the given listener of changes to this list.
+     * Tasks still in the list are replayed to the listener as removals, from the last task back,
+     * so the listener can drop everything it holds for this list.
+     * 
+     * @param listener the listener to remove
+     */
+    public void removeListener(TaskListener listener) {
+        if (!listeners.remove(listener)) {
+            return;
+        }
+        for (int i = tasks.size(); i >= 1; i--) {
+            listener.taskRemoved(i, tasks.get(i - 1));
+        }
+    }
+    
     /**
      * Adds a task to the list.
      * 
@@ -35,6 +69,27 @@ public class TaskList {
     public void addTask(Task task) {
         assert task != null : "Cannot add null task to list";
         tasks.add(task);
+        for (TaskListener listener : listeners) {
+            listener.taskAdded(tasks.size(), task);
+        }
+    }
+    
+    /**
+     * Inserts a task into the list at the given 1-indexed position, moving later tasks down.
+     * 
+     * @param taskNumber the 1-indexed position the task will have
+     * @param task the Task object to insert
+     * @throws IndexOutOfBoundsException if the position is beyond the end of the list
+     */
+    public void insertTask(int taskNumber, Task task) throws IndexOutOfBoundsException {
+        assert task != null : "Cannot add null task to list";
+        if (taskNumber < 1 || taskNumber > tasks.size() + 1) {
+            throw new IndexOutOfBoundsException("Task number out of range");
+        }
+        tasks.add(taskNumber - 1, task);
+        for (TaskListener listener : listeners) {
+            listener.taskAdded(taskNumber, task);
+        }
     }
     
     /**
@@ -46,7 +101,11 @@ public class TaskList {
      */
     public Task deleteTask(int taskNumber) throws IndexOutOfBoundsException {
         validateTaskNumber(taskNumber);
-        return tasks.remove(taskNumber - 1);
+        Task task = tasks.remove(taskNumber - 1);
+        for (TaskListener listener : listeners) {
+            listener.taskRemoved(taskNumber, task);
+        }
+        return task;
     }
     
     /**
@@ -63,7 +122,9 @@ public class TaskList {
         if (task.checkIsDone()) {
             throw new PazuzuExceptions.MarkingException("Task already done");
         }
+        fireTaskUpdating(task);
         task.markDone();
+        fireTaskUpdated(task);
         return task;
     }
     
@@ -81,7 +142,24 @@ public class TaskList {
         if (!task.checkIsDone()) {
             throw new PazuzuExceptions.MarkingException("Task already not done");
         }
+        fireTaskUpdating(task);
         task.markNotDone();
+        fireTaskUpdated(task);
+        return task;
+    }
+    
+    /**
+     * Sets a task in this list back to a state copied earlier with Task.copy().
+     * 
+     * @param task the task in this list to change
+     * @param snapshot the state to restore
+     * @return the restored Task object
+     */
+    public Task restoreTask(Task task, Task snapshot) {
+        assert task != null && snapshot != null : "Task and snapshot cannot be null";
+        fireTaskUpdating(task);
+        task.restoreState(snapshot);
+        fireTaskUpdated(task);
         return task;
     }
     
@@ -143,10 +221,9 @@ public class TaskList {
      */
     public TaskList findTasksContaining(String keyword) {
         ArrayList<Task> matchingTasks = new ArrayList<>();
-        String lowerKeyword = keyword.toLowerCase();
         
         for (Task task : tasks) {
-            if (task.getName().toLowerCase().contains(lowerKeyword)) {
+            if (task.hasNameContaining(keyword)) {
                 matchingTasks.add(task);
             }
         }
@@ -173,7 +250,9 @@ public class TaskList {
         
         // Edit name if provided
         if (!newName.equals("_")) {
+            fireTaskUpdating(task);
             task.setName(newName);
+            fireTaskUpdated(task);
         }
         
         // Edit task-specific fields based on task type
@@ -211,7 +290,7 @@ public class TaskList {
      * 
      * @param taskNumber the 1-indexed position of the task to edit
      * @param newName the new name (use "_" to keep current name)
-     * @param newDate1 the new first date (deadline for Deadline, start date for Event, null for Todo)
+     * @param newDate1 the new first date (deadline for Deadline, start date for Event or RecurringTask, null for Todo)
      * @param newDate2 the new second date (end date for Event, null for others)
      * @return the edited Task object
      * @throws IndexOutOfBoundsException if the task number is invalid
@@ -219,43 +298,160 @@ public class TaskList {
      */
     public Task editTask(int taskNumber, String newName, LocalDateTime newDate1, LocalDateTime newDate2) 
             throws IndexOutOfBoundsException, PazuzuExceptions.BadTaskException {
+        return editTask(taskNumber, newName, null, newDate1, newDate2);
+    }
+    
+    /**
+     * Edits a task with parsed date objects, optionally replacing its tags.
+     * 
+     * @param taskNumber the 1-indexed position of the task to edit
+     * @param newName the new name (use "_" to keep current name)
+     * @param newTags the new tags (null to keep current tags)
+     * @param newDate1 the new first date (deadline for Deadline, start date for Event or RecurringTask, null for Todo)
+     * @param newDate2 the new second date (end date for Event, null for others)
+     * @return the edited Task object
+     * @throws IndexOutOfBoundsException if the task number is invalid
+     * @throws PazuzuExceptions.BadTaskException if the edit parameters are invalid for the task type
+     */
+    public Task editTask(int taskNumber, String newName, List<String> newTags, LocalDateTime newDate1,
+            LocalDateTime newDate2) throws IndexOutOfBoundsException, PazuzuExceptions.BadTaskException {
         validateTaskNumber(taskNumber);
         
         Task task = tasks.get(taskNumber - 1);
         
+        // Reject date fields the task type does not have before changing anything
+        if (task instanceof Deadline || task instanceof RecurringTask) {
+            if (newDate1 != null && newDate2 != null) {
+                throw new PazuzuExceptions.BadTaskException("Deadline and recurring tasks only have one date field");
+            }
+        } else if (task instanceof Event) {
+            Event eventTask = (Event) task;
+            LocalDateTime newStart = newDate1 != null ? newDate1 : eventTask.getStartDate();
+            LocalDateTime newEnd = newDate2 != null ? newDate2 : eventTask.getEndDate();
+            if (newEnd.isBefore(newStart)) {
+                throw new PazuzuExceptions.BadTaskException("End date must not be before start date");
+            }
+        } else {
+            if (newDate1 != null || newDate2 != null) {
+                throw new PazuzuExceptions.BadTaskException("Todo tasks do not have date fields");
+            }
+        }
+        
+        fireTaskUpdating(task);
+        
         // Edit name if provided
         if (!newName.equals("_")) {
             task.setName(newName);
         }
+        if (newTags != null) {
+            task.setTags(newTags);
+        }
         
         // Edit task-specific fields based on task type
         if (task instanceof Deadline) {
             Deadline deadlineTask = (Deadline) task;
             if (newDate1 != null) {
-                // For deadline, newDate1 is the deadline, newDate2 should be null
-                if (newDate2 != null) {
-                    throw new PazuzuExceptions.BadTaskException("Deadline tasks only have one date field");
-                }
                 deadlineTask.setDeadline(newDate1);
             }
-        } else if (task instanceof Event) {
-            Event eventTask = (Event) task;
+        } else if (task instanceof RecurringTask) {
             if (newDate1 != null) {
-                eventTask.setStartDate(newDate1);
+                ((RecurringTask) task).setStart(newDate1);
             }
-            if (newDate2 != null) {
+        } else if (task instanceof Event) {
+            Event eventTask = (Event) task;
+            // Move the end first when the new start lies beyond the current end
+            if (newDate2 != null && newDate1 != null && newDate1.isAfter(eventTask.getEndDate())) {
                 eventTask.setEndDate(newDate2);
-            }
-        } else {
-            // Task (Todo) - should not have any date fields
-            if (newDate1 != null || newDate2 != null) {
-                throw new PazuzuExceptions.BadTaskException("Todo tasks do not have date fields");
+                eventTask.setStartDate(newDate1);
+            } else {
+                if (newDate1 != null) {
+                    eventTask.setStartDate(newDate1);
+                }
+                if (newDate2 != null) {
+                    eventTask.setEndDate(newDate2);
+                }
             }
         }
         
+        fireTaskUpdated(task);
+        return task;
+    }
+    
+    /**
+     * Records an occurrence of a recurring task as completed.
+     * 
+     * @param taskNumber the 1-indexed position of the recurring task
+     * @param date the date of the occurrence to complete
+     * @return the recurring task
+     * @throws IndexOutOfBoundsException if the task number is invalid
+     * @throws PazuzuExceptions.BadTaskException if the task is not recurring or has no occurrence on that date
+     */
+    public RecurringTask completeOccurrence(int taskNumber, LocalDate date)
+            throws IndexOutOfBoundsException, PazuzuExceptions.BadTaskException {
+        RecurringTask task = getOccurrenceOwner(taskNumber, date);
+        fireTaskUpdating(task);
+        task.completeOccurrence(date);
+        fireTaskUpdated(task);
+        return task;
+    }
+    
+    /**
+     * Records an occurrence of a recurring task as skipped.
+     * 
+     * @param taskNumber the 1-indexed position of the recurring task
+     * @param date the date of the occurrence to skip
+     * @return the recurring task
+     * @throws IndexOutOfBoundsException if the task number is invalid
+     * @throws PazuzuExceptions.BadTaskException if the task is not recurring or has no occurrence on that date
+     */
+    public RecurringTask skipOccurrence(int taskNumber, LocalDate date)
+            throws IndexOutOfBoundsException, PazuzuExceptions.BadTaskException {
+        RecurringTask task = getOccurrenceOwner(taskNumber, date);
+        fireTaskUpdating(task);
+        task.skipOccurrence(date);
+        fireTaskUpdated(task);
         return task;
     }
     
+    /**
+     * Gets the recurring task at the given position, checking that it has an occurrence on the given date.
+     */
+    private RecurringTask getOccurrenceOwner(int taskNumber, LocalDate date)
+            throws IndexOutOfBoundsException, PazuzuExceptions.BadTaskException {
+        validateTaskNumber(taskNumber);
+        Task task = tasks.get(taskNumber - 1);
+        if (!(task instanceof RecurringTask)) {
+            throw new PazuzuExceptions.BadTaskException("Task is not recurring");
+        }
+        RecurringTask recurringTask = (RecurringTask) task;
+        if (!recurringTask.isOccurrenceDate(date)) {
+            throw new PazuzuExceptions.BadTaskException("No occurrence on that date");
+        }
+        return recurringTask;
+    }
+    
+    /**
+     * Notifies all listeners that the given task is about to change.
+     * 
+     * @param task the task about to change
+     */
+    private void fireTaskUpdating(Task task) {
+        for (TaskListener listener : listeners) {
+            listener.taskUpdating(task);
+        }
+    }
+    
+    /**
+     * Notifies all listeners that the given task has changed.
+     * 
+     * @param task the changed task
+     */
+    private void fireTaskUpdated(Task task) {
+        for (TaskListener listener : listeners) {
+            listener.taskUpdated(task);
+        }
+    }
+    
     /**
      * Validates that a task number is within valid range (1-indexed).
      * 
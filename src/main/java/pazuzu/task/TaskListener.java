@@ -0,0 +1,37 @@
+package pazuzu.task;
+
+/**
+ * Receives notifications whenever a TaskList is changed.
+ * Used to keep secondary indexes in step with the canonical list without rescanning it.
+ */
+public interface TaskListener {
+    /**
+     * Called after a task has been added to the list.
+     *
+     * @param taskNumber the 1-indexed position the task now occupies
+     * @param task the added task
+     */
+    void taskAdded(int taskNumber, Task task);
+
+    /**
+     * Called after a task has been removed from the list.
+     *
+     * @param taskNumber the 1-indexed position the task occupied before removal
+     * @param task the removed task
+     */
+    void taskRemoved(int taskNumber, Task task);
+
+    /**
+     * Called just before a task in the list is changed, while it still holds its old values.
+     *
+     * @param task the task about to change
+     */
+    void taskUpdating(Task task);
+
+    /**
+     * Called after a task in the list has been changed.
+     *
+     * @param task the changed task
+     */
+    void taskUpdated(Task task);
+}
@@ -0,0 +1,100 @@
+package pazuzu.transfer;
+
+import java.util.ArrayList;
+
+import pazuzu.task.Task;
+
+/**
+ * Tasks as comma-separated values with a header line naming the fields.
+ * Fields holding commas, quotes or surrounding spaces are quoted, with quotes doubled, as in RFC 4180.
+ * Each task must fit on one line.
+ */
+public class CsvTaskFormat extends TaskFormat {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    @Override
+    public String getHeader() {
+        return String.join(String.valueOf(SEPARATOR), FIELD_NAMES);
+    }
+
+    @Override
+    public String format(Task task) {
+        StringBuilder line = new StringBuilder();
+        String[] fields = toFields(task);
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(SEPARATOR);
+            }
+            appendField(line, fields[i]);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public Task parse(String line) {
+        ArrayList<String> values = splitLine(line);
+        if (values == null || values.size() > FIELD_NAMES.length) {
+            return null;
+        }
+        String[] fields = new String[FIELD_NAMES.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = i < values.size() ? values.get(i) : "";
+        }
+        return fromFields(fields);
+    }
+
+    private static void appendField(StringBuilder line, String field) {
+        boolean needsQuotes = field.indexOf(SEPARATOR) != -1 || field.indexOf(QUOTE) != -1
+                || (!field.isEmpty() && (field.charAt(0) == ' ' || field.charAt(field.length() - 1) == ' '));
+        if (!needsQuotes) {
+            line.append(field);
+            return;
+        }
+        line.append(QUOTE);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == QUOTE) {
+                line.append(QUOTE);
+            }
+            line.append(c);
+        }
+        line.append(QUOTE);
+    }
+
+    /**
+     * Splits a line into its values, undoing the quoting.
+     *
+     * @return the values, or null if a quoted value is not closed
+     */
+    private static ArrayList<String> splitLine(String line) {
+        ArrayList<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isQuoted) {
+                if (c != QUOTE) {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    value.append(QUOTE);
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == QUOTE) {
+                isQuoted = true;
+            } else if (c == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (isQuoted) {
+            return null;
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
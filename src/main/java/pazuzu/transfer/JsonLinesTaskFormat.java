@@ -0,0 +1,72 @@
+package pazuzu.transfer;
+
+import java.util.List;
+import java.util.Map;
+
+import pazuzu.task.Task;
+import pazuzu.util.Json;
+
+/**
+ * Tasks as JSON Lines: one JSON object per line, with a key for each field that applies to the task.
+ * Tags are an array of strings and done is a boolean; every other value is a string.
+ */
+public class JsonLinesTaskFormat extends TaskFormat {
+    @Override
+    public String getHeader() {
+        return null;
+    }
+
+    @Override
+    public String format(Task task) {
+        String[] fields = toFields(task);
+        StringBuilder line = new StringBuilder("{");
+        for (int i = 0; i < fields.length; i++) {
+            if (i != DONE && i != TAGS && fields[i].isEmpty()) {
+                continue;
+            }
+            if (line.length() > 1) {
+                line.append(", ");
+            }
+            line.append(Json.quote(FIELD_NAMES[i])).append(": ");
+            if (i == DONE) {
+                line.append(fields[i]);
+            } else if (i == TAGS) {
+                appendTags(line, task.getTags());
+            } else {
+                line.append(Json.quote(fields[i]));
+            }
+        }
+        return line.append('}').toString();
+    }
+
+    @Override
+    public Task parse(String line) {
+        Map<String, Object> values;
+        try {
+            values = Json.parseFlatObject(line);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String[] fields = new String[FIELD_NAMES.length];
+        for (int i = 0; i < fields.length; i++) {
+            Object value = values.get(FIELD_NAMES[i]);
+            if (value instanceof List) {
+                fields[i] = String.join(" ", ((List<?>) value).stream().map(String::valueOf).toList());
+            } else {
+                fields[i] = value == null ? "" : value.toString();
+            }
+        }
+        return fromFields(fields);
+    }
+
+    private static void appendTags(StringBuilder line, List<String> tags) {
+        line.append('[');
+        for (int i = 0; i < tags.size(); i++) {
+            if (i > 0) {
+                line.append(", ");
+            }
+            line.append(Json.quote(tags.get(i)));
+        }
+        line.append(']');
+    }
+}
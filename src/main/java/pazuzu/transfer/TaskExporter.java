@@ -0,0 +1,61 @@
+package pazuzu.transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import pazuzu.task.TaskList;
+
+/**
+ * Streams a task list to a file one line at a time, so no copy of the whole file is built in memory.
+ */
+public class TaskExporter {
+    private final TaskFormat format;
+
+    /**
+     * Creates an exporter that writes the given format.
+     *
+     * @param format the format of the files to write
+     */
+    public TaskExporter(TaskFormat format) {
+        assert format != null : "Format cannot be null";
+        this.format = format;
+    }
+
+    /**
+     * Writes every task in the list to the file, replacing what it held.
+     *
+     * @param tasks the tasks to write
+     * @param path the file to write, in UTF-8
+     * @return the number of tasks written
+     * @throws IOException if the file cannot be written
+     */
+    public int exportFile(TaskList tasks, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            return exportTo(tasks, writer);
+        }
+    }
+
+    /**
+     * Writes the header, if the format has one, and then every task in the list in order.
+     *
+     * @param tasks the tasks to write
+     * @param writer where to write the lines
+     * @return the number of tasks written
+     * @throws IOException if writing fails
+     */
+    public int exportTo(TaskList tasks, Writer writer) throws IOException {
+        if (format.getHeader() != null) {
+            writer.write(format.getHeader());
+            writer.write('\n');
+        }
+        for (int i = 0; i < tasks.getSize(); i++) {
+            writer.write(format.format(tasks.getTask(i)));
+            writer.write('\n');
+        }
+        return tasks.getSize();
+    }
+}
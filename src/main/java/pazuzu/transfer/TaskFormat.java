@@ -0,0 +1,206 @@
+package pazuzu.transfer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+
+/**
+ * A file format for moving tasks in and out of Pazuzu, one task per line.
+ * Every format has the same fields; subclasses only decide how a line encodes them.
+ * Dates are ISO date-times such as 2024-10-15T14:30, so files stay readable by other programs.
+ * Parsing only creates the task; it is safe to call from several threads at once.
+ */
+public abstract class TaskFormat {
+    static final String[] FIELD_NAMES = {"type", "name", "done", "start", "end", "every", "tags", "completed", "records"};
+    static final int TYPE = 0;
+    static final int NAME = 1;
+    static final int DONE = 2;
+    static final int START = 3;
+    static final int END = 4;
+    static final int EVERY = 5;
+    static final int TAGS = 6;
+    static final int COMPLETED = 7;
+    static final int RECORDS = 8;
+
+    private static final String TODO_TYPE = "todo";
+    private static final String DEADLINE_TYPE = "deadline";
+    private static final String EVENT_TYPE = "event";
+    private static final String RECUR_TYPE = "recur";
+    private static final String TAG_SEPARATOR = " ";
+    private static final String CSV_EXTENSION = ".csv";
+    private static final String[] JSON_LINES_EXTENSIONS = {".jsonl", ".ndjson"};
+
+    /**
+     * Picks the format for a file from its extension: .csv, or .jsonl and .ndjson for JSON Lines.
+     *
+     * @param path the path of the file
+     * @return the format, or null if the extension is not one of these
+     */
+    public static TaskFormat forPath(String path) {
+        String lowerPath = path.toLowerCase();
+        if (lowerPath.endsWith(CSV_EXTENSION)) {
+            return new CsvTaskFormat();
+        }
+        for (String extension : JSON_LINES_EXTENSIONS) {
+            if (lowerPath.endsWith(extension)) {
+                return new JsonLinesTaskFormat();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the line that starts a file in this format.
+     *
+     * @return the header line, or null if the format has none
+     */
+    public abstract String getHeader();
+
+    /**
+     * Encodes a task as one line, without the line break.
+     *
+     * @param task the task to encode
+     * @return the line
+     */
+    public abstract String format(Task task);
+
+    /**
+     * Decodes a line into a new task whose name and tags are not yet interned.
+     *
+     * @param line the line, without the line break
+     * @return the task, or null if the line is not a valid task
+     */
+    public abstract Task parse(String line);
+
+    /**
+     * Splits a task into its fields, with empty strings for fields that do not apply.
+     */
+    static String[] toFields(Task task) {
+        String[] fields = new String[FIELD_NAMES.length];
+        Arrays.fill(fields, "");
+        fields[NAME] = task.getName();
+        fields[DONE] = String.valueOf(task.checkIsDone());
+        fields[TAGS] = String.join(TAG_SEPARATOR, task.getTags());
+        if (task.getCompletedAt() != null) {
+            fields[COMPLETED] = task.getCompletedAt().toString();
+        }
+        if (task instanceof RecurringTask) {
+            RecurringTask series = (RecurringTask) task;
+            fields[TYPE] = RECUR_TYPE;
+            fields[START] = series.getStart().toString();
+            fields[EVERY] = series.getInterval() + " " + series.getFrequency().name().toLowerCase();
+            fields[RECORDS] = series.getRecords();
+        } else if (task instanceof Event) {
+            fields[TYPE] = EVENT_TYPE;
+            fields[START] = ((Event) task).getStartDate().toString();
+            fields[END] = ((Event) task).getEndDate().toString();
+        } else if (task instanceof Deadline) {
+            fields[TYPE] = DEADLINE_TYPE;
+            fields[START] = ((Deadline) task).getDeadline().toString();
+        } else {
+            fields[TYPE] = TODO_TYPE;
+        }
+        return fields;
+    }
+
+    /**
+     * Builds a task from its fields, where missing fields are empty strings.
+     *
+     * @return the task, or null if a field is missing or malformed
+     */
+    static Task fromFields(String[] fields) {
+        String name = fields[NAME].trim();
+        if (name.isEmpty() || hasControlCharacter(name)) {
+            return null;
+        }
+        try {
+            Task task = createTask(fields[TYPE].trim().toLowerCase(), name, fields);
+            if (task == null) {
+                return null;
+            }
+            List<String> tags = parseTags(fields[TAGS]);
+            if (tags == null) {
+                return null;
+            }
+            task.setTags(tags);
+            if (Boolean.parseBoolean(fields[DONE].trim())) {
+                String completed = fields[COMPLETED].trim();
+                task.markDone(completed.isEmpty() ? LocalDateTime.now() : LocalDateTime.parse(completed));
+            }
+            return task;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Task createTask(String type, String name, String[] fields) {
+        switch (type) {
+            case TODO_TYPE:
+                return new Task(name);
+            case DEADLINE_TYPE:
+                return new Deadline(name, LocalDateTime.parse(fields[START].trim()));
+            case EVENT_TYPE:
+                return new Event(name, LocalDateTime.parse(fields[START].trim()), LocalDateTime.parse(fields[END].trim()));
+            case RECUR_TYPE:
+                return createRecurringTask(name, fields);
+            default:
+                return null;
+        }
+    }
+
+    private static Task createRecurringTask(String name, String[] fields) {
+        String[] rule = fields[EVERY].trim().split(" +");
+        RecurringTask.Frequency frequency = rule.length == 2 ? RecurringTask.Frequency.fromWord(rule[1]) : null;
+        if (frequency == null) {
+            return null;
+        }
+        int interval = Integer.parseInt(rule[0]);
+        if (interval < 1) {
+            return null;
+        }
+        RecurringTask task = new RecurringTask(name, LocalDateTime.parse(fields[START].trim()), frequency, interval);
+        if (!fields[RECORDS].isBlank()) {
+            task.restoreRecords(fields[RECORDS]);
+        }
+        return task;
+    }
+
+    /**
+     * Reads space-separated tags, with or without their # prefix.
+     *
+     * @return the tags, or null if one is not a valid tag
+     */
+    private static List<String> parseTags(String text) {
+        ArrayList<String> tags = new ArrayList<>();
+        for (String word : text.trim().split(" +")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String tag = Task.toTag(word.startsWith(Task.TAG_PREFIX) ? word : Task.TAG_PREFIX + word);
+            if (tag == null) {
+                return null;
+            }
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    /**
+     * Checks for line breaks, tabs and other control characters, which would break the storage file.
+     */
+    private static boolean hasControlCharacter(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+package pazuzu.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.util.NameInterner;
+
+/**
+ * Streams tasks from a file. The calling thread reads the file in chunks of lines,
+ * worker threads parse the chunks, and the calling thread collects the parsed tasks in file order.
+ * Only a few chunks of lines are in flight at once, so apart from the tasks themselves memory stays flat
+ * however long the file is. The tasks are only added to a list once the whole file has been read,
+ * so a file that fails partway through changes nothing.
+ */
+public class TaskImporter {
+    public static final int DEFAULT_CHUNK_LINES = 4096;
+    // Chunks in flight per worker: one being parsed and one waiting
+    private static final int CHUNKS_PER_WORKER = 2;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final TaskFormat format;
+    private final NameInterner names;
+    private final int workerCount;
+    private final int chunkLines;
+
+    /**
+     * Creates an importer with one worker per processor.
+     *
+     * @param format the format of the files to read
+     * @param names the interner shared by the names and tags of imported tasks
+     */
+    public TaskImporter(TaskFormat format, NameInterner names) {
+        this(format, names, Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_LINES);
+    }
+
+    /**
+     * Creates an importer with the given number of workers and lines per chunk.
+     *
+     * @param format the format of the files to read
+     * @param names the interner shared by the names and tags of imported tasks
+     * @param workerCount the number of threads that parse lines
+     * @param chunkLines the number of lines handed to a worker at once
+     */
+    public TaskImporter(TaskFormat format, NameInterner names, int workerCount, int chunkLines) {
+        assert format != null : "Format cannot be null";
+        assert names != null : "Name interner cannot be null";
+        assert workerCount > 0 : "Importer needs at least one worker";
+        assert chunkLines > 0 : "Chunks must hold at least one line";
+        this.format = format;
+        this.names = names;
+        this.workerCount = workerCount;
+        this.chunkLines = chunkLines;
+    }
+
+    /**
+     * Reads every valid task in the file, in file order.
+     *
+     * @param path the file to read, in UTF-8
+     * @return the tasks read and how many lines were skipped
+     * @throws IOException if the file cannot be read completely
+     */
+    public Result readFile(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return readFrom(reader);
+        }
+    }
+
+    /**
+     * Reads every valid task from the reader, in input order.
+     * Blank lines and a leading header line are ignored; other lines that are not valid tasks are skipped.
+     *
+     * @param reader the lines to read
+     * @return the tasks read and how many lines were skipped
+     * @throws IOException if reading fails, parsing fails unexpectedly or the import is interrupted
+     */
+    public Result readFrom(BufferedReader reader) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "pazuzu-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayDeque<Future<Task[]>> pending = new ArrayDeque<>();
+        Result result = new Result();
+        try {
+            List<String> chunk = readChunk(reader, true);
+            while (!chunk.isEmpty()) {
+                List<String> lines = chunk;
+                pending.addLast(workers.submit(() -> parseChunk(lines)));
+                if (pending.size() >= workerCount * CHUNKS_PER_WORKER) {
+                    collectChunk(pending.pollFirst(), result);
+                }
+                chunk = readChunk(reader, false);
+            }
+            while (!pending.isEmpty()) {
+                collectChunk(pending.pollFirst(), result);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Reads up to a chunk of non-blank lines, dropping the header line at the start of the input.
+     */
+    private List<String> readChunk(BufferedReader reader, boolean isFirst) throws IOException {
+        ArrayList<String> lines = new ArrayList<>(chunkLines);
+        String line;
+        while (lines.size() < chunkLines && (line = reader.readLine()) != null) {
+            if (isFirst) {
+                isFirst = false;
+                if (!line.isEmpty() && line.charAt(0) == BYTE_ORDER_MARK) {
+                    line = line.substring(1);
+                }
+                if (format.getHeader() != null && line.trim().equalsIgnoreCase(format.getHeader())) {
+                    continue;
+                }
+            }
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Parses each line of a chunk, leaving null for lines that are not valid tasks.
+     */
+    private Task[] parseChunk(List<String> lines) {
+        Task[] parsed = new Task[lines.size()];
+        for (int i = 0; i < parsed.length; i++) {
+            try {
+                parsed[i] = format.parse(lines.get(i));
+            } catch (RuntimeException e) {
+                // A line the format did not foresee, such as a date out of range, is skipped like any other
+                parsed[i] = null;
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Waits for a parsed chunk and collects its tasks, sharing their names and tags with the rest of Pazuzu.
+     */
+    private void collectChunk(Future<Task[]> chunk, Result result) throws IOException {
+        Task[] parsed;
+        try {
+            parsed = chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Parsing a chunk failed", e.getCause());
+        }
+        for (Task task : parsed) {
+            if (task == null) {
+                result.skippedCount++;
+                continue;
+            }
+            task.setName(names.intern(task.getName()));
+            if (!task.getTags().isEmpty()) {
+                task.setTags(task.getTags().stream().map(names::intern).toList());
+            }
+            result.tasks.add(task);
+        }
+    }
+
+    /**
+     * The tasks read from one file, waiting to be added to a list.
+     */
+    public static class Result {
+        private final ArrayList<Task> tasks = new ArrayList<>();
+        private int skippedCount;
+
+        /**
+         * Adds the tasks read to the end of the list, in file order.
+         *
+         * @param list the list to add to
+         */
+        public void addTo(TaskList list) {
+            for (Task task : tasks) {
+                list.addTask(task);
+            }
+        }
+
+        public List<Task> getTasks() {
+            return tasks;
+        }
+
+        public int getImportedCount() {
+            return tasks.size();
+        }
+
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package pazuzu.ui.components;
+
+import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Region;
+
+/**
+ * A row of the chat history. The list view only creates enough cells to fill the window
+ * and reuses them as it scrolls, so each cell keeps one DialogBox and shows whichever message it is given.
+ */
+public class ChatCell extends ListCell<ChatMessage> {
+    // Leaves room for the vertical scroll bar, so rows never need a horizontal one
+    private static final double SCROLL_BAR_WIDTH = 16;
+
+    private final DialogBox dialogBox = DialogBox.getPazuzuDialog("", null);
+    private final Image userImage;
+    private final Image pazuzuImage;
+
+    /**
+     * Creates a cell that sizes its dialog box to the width of the list.
+     *
+     * @param list the list view the cell belongs to
+     * @param userImage the picture shown beside the user's messages
+     * @param pazuzuImage the picture shown beside Pazuzu's messages
+     */
+    public ChatCell(ListView<ChatMessage> list, Image userImage, Image pazuzuImage) {
+        this.userImage = userImage;
+        this.pazuzuImage = pazuzuImage;
+        dialogBox.prefWidthProperty().bind(list.widthProperty().subtract(SCROLL_BAR_WIDTH));
+        dialogBox.setMaxWidth(Region.USE_PREF_SIZE);
+        setPrefWidth(0);
+        setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        setStyle("-fx-background-color: transparent; -fx-padding: 2 0 2 0;");
+    }
+
+    @Override
+    protected void updateItem(ChatMessage message, boolean isEmpty) {
+        super.updateItem(message, isEmpty);
+        if (isEmpty || message == null) {
+            dialogBox.clearMessage();
+            setGraphic(null);
+            return;
+        }
+        dialogBox.showMessage(message, message.isFromUser() ? userImage : pazuzuImage);
+        setGraphic(dialogBox);
+    }
+}
@@ -0,0 +1,45 @@
+package pazuzu.ui.components;
+
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+/**
+ * One message in the chat history, from the user or from Pazuzu.
+ * The text is observable so a reply can be filled in after its message is shown.
+ */
+public class ChatMessage {
+    private final boolean isFromUser;
+    private final ReadOnlyStringWrapper text;
+
+    private ChatMessage(boolean isFromUser, String text) {
+        this.isFromUser = isFromUser;
+        this.text = new ReadOnlyStringWrapper(text);
+    }
+
+    public static ChatMessage fromUser(String text) {
+        return new ChatMessage(true, text);
+    }
+
+    public static ChatMessage fromPazuzu(String text) {
+        return new ChatMessage(false, text);
+    }
+
+    public boolean isFromUser() {
+        return isFromUser;
+    }
+
+    public String getText() {
+        return text.get();
+    }
+
+    /**
+     * Replaces the text of the message, such as when a pending reply arrives. Must be called on the FX thread.
+     */
+    public void setText(String text) {
+        this.text.set(text);
+    }
+
+    public ReadOnlyStringProperty textProperty() {
+        return text.getReadOnlyProperty();
+    }
+}
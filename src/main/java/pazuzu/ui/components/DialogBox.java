@@ -2,12 +2,9 @@ package pazuzu.ui.components;
 
 import java.io.IOException;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -25,6 +22,8 @@ public class DialogBox extends HBox {
     @FXML
     private VBox messageBubble;
 
+    private boolean isUserStyled = true;
+
     private DialogBox(String text, Image img) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(MainWindow.class.getResource("/view/DialogBox.fxml"));
@@ -59,45 +58,58 @@ public class DialogBox extends HBox {
     }
     
     /**
-     * Applies user message styling (blue bubble, right-aligned).
+     * Applies user message styling (blue bubble, right-aligned, picture on the right).
      */
     private void applyUserStyling() {
         dialog.setStyle("-fx-background-color: #007AFF; -fx-text-fill: white; -fx-background-radius: 18; " +
                        "-fx-padding: 12 16 12 16; -fx-font-size: 15px; -fx-font-family: 'Segoe UI', 'Arial', sans-serif; " +
                        "-fx-font-weight: 500;");
         messageBubble.setAlignment(Pos.TOP_RIGHT);
+        this.setAlignment(Pos.TOP_RIGHT);
+        this.getChildren().setAll(messageBubble, displayPicture);
+        isUserStyled = true;
     }
     
     /**
-     * Applies AI message styling (gray bubble, left-aligned).
+     * Applies AI message styling (gray bubble, left-aligned, picture on the left).
      */
     private void applyAIStyling() {
         dialog.setStyle("-fx-background-color: #E5E5EA; -fx-text-fill: #000000; -fx-background-radius: 18; " +
                        "-fx-padding: 12 16 12 16; -fx-font-size: 15px; -fx-font-family: 'Segoe UI', 'Arial', sans-serif; " +
                        "-fx-font-weight: 500;");
         messageBubble.setAlignment(Pos.TOP_LEFT);
+        this.setAlignment(Pos.TOP_LEFT);
+        this.getChildren().setAll(displayPicture, messageBubble);
+        isUserStyled = false;
     }
 
     /**
-     * Flips the dialog box such that the ImageView is on the left and text on the right.
+     * Shows a message from the chat history, following changes to its text.
+     * A reused dialog box is only restyled when the sender changes.
      */
-    private void flip() {
-        this.setAlignment(Pos.TOP_LEFT);
-        ObservableList<Node> tmp = FXCollections.observableArrayList(this.getChildren());
-        FXCollections.reverse(tmp);
-        this.getChildren().setAll(tmp);
+    public void showMessage(ChatMessage message, Image img) {
+        if (message.isFromUser() != isUserStyled) {
+            if (message.isFromUser()) {
+                applyUserStyling();
+            } else {
+                applyAIStyling();
+            }
+        }
+        dialog.textProperty().bind(message.textProperty());
+        displayPicture.setImage(img);
     }
 
-    public static DialogBox getUserDialog(String s, Image i) {
-        var db = new DialogBox(s, i);
-        db.applyUserStyling();
-        return db;
+    /**
+     * Stops following the message last shown, so it can be dropped from memory.
+     */
+    public void clearMessage() {
+        dialog.textProperty().unbind();
+        dialog.setText("");
     }
 
     public static DialogBox getPazuzuDialog(String s, Image i) {
         var db = new DialogBox(s, i);
         db.applyAIStyling();
-        db.flip();
         return db;
     }
 }
@@ -2,26 +2,33 @@ package pazuzu.ui.controller;
 
 import javafx.application.Platform;
 import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
-import javafx.scene.control.ScrollPane;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.HBox;
-import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 import pazuzu.Pazuzu;
-import pazuzu.ui.components.DialogBox;
+import pazuzu.command.Response;
+import pazuzu.concurrent.CommandLoop;
+import pazuzu.ui.components.ChatCell;
+import pazuzu.ui.components.ChatMessage;
 
 /**
  * Controller for the main GUI.
  */
 public class MainWindow extends AnchorPane {
+    private static final String PENDING_TEXT = "...";
+    private static final String FAILED_TEXT = "Something went wrong running that command. Please try again.";
+    // Older messages are dropped past this many, so the history's memory stays bounded too
+    private static final int MAX_MESSAGES = 10_000;
+
     @FXML
-    private ScrollPane scrollPane;
-    @FXML
-    private VBox dialogContainer;
+    private ListView<ChatMessage> dialogList;
     @FXML
     private TextField userInput;
     @FXML
@@ -30,13 +37,21 @@ public class MainWindow extends AnchorPane {
     private HBox inputContainer;
 
     private Pazuzu pazuzu;
+    private CommandLoop commands;
+    private final ObservableList<ChatMessage> messages = FXCollections.observableArrayList();
 
     private Image userImage = new Image(this.getClass().getResourceAsStream("/images/user.png"));
     private Image pazuzuImage = new Image(this.getClass().getResourceAsStream("/images/ai.png"));
 
+    /**
+     * Shows the chat history in a virtualized list, so only the messages on screen have nodes
+     * and the window stays as fast in a long session as in a new one.
+     */
     @FXML
     public void initialize() {
-        scrollPane.vvalueProperty().bind(dialogContainer.heightProperty());
+        dialogList.setItems(messages);
+        dialogList.setCellFactory(list -> new ChatCell(list, userImage, pazuzuImage));
+        dialogList.setFocusTraversable(false);
         
         // Initialize send button state
         updateSendButtonState();
@@ -60,15 +75,38 @@ public class MainWindow extends AnchorPane {
         sendButton.setDisable(!hasText);
     }
 
-    /** Injects the Pazuzu instance */
+    /** Injects the Pazuzu instance, which from now on runs commands on its own thread */
     public void setPazuzu(Pazuzu pazuzu) {
         this.pazuzu = pazuzu;
-        dialogContainer.getChildren().add(DialogBox.getPazuzuDialog("Pazuzu, what u want?", pazuzuImage));
+        commands = new CommandLoop(pazuzu, CommandLoop.DEFAULT_CAPACITY);
+        commands.start();
+        addMessages(ChatMessage.fromPazuzu("Pazuzu, what u want?"));
+        pazuzu.startReminders(this::showReminder);
+    }
+
+    /**
+     * Shows a reminder from Pazuzu. Safe to call from any thread.
+     */
+    private void showReminder(String reminder) {
+        Platform.runLater(() -> addMessages(ChatMessage.fromPazuzu(reminder)));
+    }
+
+    /**
+     * Appends messages to the history, dropping the oldest past the limit, and scrolls to the newest.
+     */
+    private void addMessages(ChatMessage... newMessages) {
+        messages.addAll(newMessages);
+        if (messages.size() > MAX_MESSAGES) {
+            messages.remove(0, messages.size() - MAX_MESSAGES);
+        }
+        dialogList.scrollTo(messages.size() - 1);
     }
 
     /**
-     * Creates two dialog boxes, one echoing user input and the other containing Duke's reply and then appends them to
-     * the dialog container. Clears the user input after processing.
+     * Adds two messages, one echoing user input and the other a pending reply from Pazuzu, to the chat history.
+     * The command runs off the FX thread and its reply replaces the pending text when it is done,
+     * so the window stays responsive; replies keep their place even if they finish out of order.
+     * Clears the user input after submitting.
      */
     @FXML
     private void handleUserInput() {
@@ -79,19 +117,28 @@ public class MainWindow extends AnchorPane {
             return;
         }
         
-        String response = pazuzu.processCommand(input);
-        dialogContainer.getChildren().addAll(
-                DialogBox.getUserDialog(input, userImage),
-                DialogBox.getPazuzuDialog(response, pazuzuImage)
-        );
+        ChatMessage reply = ChatMessage.fromPazuzu(PENDING_TEXT);
+        addMessages(ChatMessage.fromUser(input), reply);
         userInput.clear();
+        commands.submit(input).whenComplete((response, failure) ->
+                Platform.runLater(() -> showResponse(reply, response, failure)));
+    }
 
-        // Check for bye command and exit after 2 seconds
-        if (input.equals("bye")) {
+    /**
+     * Shows the reply to a command in its pending message, and exits 2 seconds after a bye command.
+     * The reply usually grows its row, so the newest message is scrolled back into view if the reply is last.
+     */
+    private void showResponse(ChatMessage reply, Response response, Throwable failure) {
+        reply.setText(failure != null ? FAILED_TEXT : response.getText());
+        if (!messages.isEmpty() && messages.get(messages.size() - 1) == reply) {
+            dialogList.scrollTo(messages.size() - 1);
+        }
+        if (failure == null && response.isExit()) {
+            pazuzu.stopReminders();
+            commands.stop();
             PauseTransition delay = new PauseTransition(Duration.seconds(2));
             delay.setOnFinished(event -> Platform.exit());
             delay.play();
         }
     }
 }
-
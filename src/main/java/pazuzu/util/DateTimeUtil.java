@@ -11,4 +11,10 @@ public class DateTimeUtil {
      * Format: MMM dd yyyy HH:mm (e.g., "Dec 02 2019 18:00")
      */
     public static final DateTimeFormatter OUTPUT_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy HH:mm");
+
+    /**
+     * Output formatter for displaying dates without a time.
+     * Format: MMM dd yyyy (e.g., "Dec 02 2019")
+     */
+    public static final DateTimeFormatter OUTPUT_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd yyyy");
 }
@@ -0,0 +1,197 @@
+package pazuzu.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the few JSON values Pazuzu needs, without a JSON library:
+ * string literals, and flat objects such as the lines of a JSON Lines file.
+ */
+public final class Json {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Quotes a string as a JSON string literal, escaping quotes, backslashes and control characters.
+     *
+     * @param text the text to quote
+     * @return the JSON string literal
+     */
+    public static String quote(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c == '\n') {
+                quoted.append("\\n");
+            } else if (c == '\t') {
+                quoted.append("\\t");
+            } else if (c == '\r') {
+                quoted.append("\\r");
+            } else if (c < ' ') {
+                quoted.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Parses a JSON object whose values are strings, numbers, true, false, null or arrays of strings.
+     * Numbers are kept as their text; nested objects are not supported.
+     *
+     * @param text the JSON text of one object
+     * @return the values by key, with null for JSON null, Boolean, String or a List of strings
+     * @throws IllegalArgumentException if the text is not such an object
+     */
+    public static Map<String, Object> parseFlatObject(String text) throws IllegalArgumentException {
+        Reader reader = new Reader(text);
+        HashMap<String, Object> values = new HashMap<>();
+        reader.expect('{');
+        if (!reader.skipIf('}')) {
+            do {
+                String key = reader.readString();
+                reader.expect(':');
+                values.put(key, reader.readValue());
+            } while (reader.skipIf(','));
+            reader.expect('}');
+        }
+        reader.expectEnd();
+        return values;
+    }
+
+    /**
+     * Reads JSON tokens from a string, skipping whitespace between them.
+     */
+    private static class Reader {
+        private final String text;
+        private int position;
+
+        private Reader(String text) {
+            this.text = text;
+        }
+
+        private Object readValue() {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            } else if (c == '[') {
+                return readStringArray();
+            } else if (text.startsWith("true", position)) {
+                position += 4;
+                return Boolean.TRUE;
+            } else if (text.startsWith("false", position)) {
+                position += 5;
+                return Boolean.FALSE;
+            } else if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            int start = position;
+            while (position < text.length() && "+-.0123456789eE".indexOf(text.charAt(position)) != -1) {
+                position++;
+            }
+            if (position == start) {
+                throw new IllegalArgumentException("Unexpected character at " + position);
+            }
+            return text.substring(start, position);
+        }
+
+        private List<String> readStringArray() {
+            expect('[');
+            ArrayList<String> items = new ArrayList<>();
+            if (!skipIf(']')) {
+                do {
+                    items.add(readString());
+                } while (skipIf(','));
+                expect(']');
+            }
+            return items;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder result = new StringBuilder();
+            while (true) {
+                if (position >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated string");
+                }
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return result.toString();
+                } else if (c != '\\') {
+                    result.append(c);
+                } else if (position >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated escape");
+                } else {
+                    result.append(readEscape(text.charAt(position++)));
+                }
+            }
+        }
+
+        private char readEscape(char c) {
+            switch (c) {
+                case 'n':
+                    return '\n';
+                case 't':
+                    return '\t';
+                case 'r':
+                    return '\r';
+                case 'b':
+                    return '\b';
+                case 'f':
+                    return '\f';
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw new IllegalArgumentException("Short unicode escape");
+                    }
+                    char decoded = (char) Integer.parseInt(text, position, position + 4, 16);
+                    position += 4;
+                    return decoded;
+                default:
+                    return c;
+            }
+        }
+
+        private char peek() {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return text.charAt(position);
+        }
+
+        private boolean skipIf(char c) {
+            if (peek() != c) {
+                return false;
+            }
+            position++;
+            return true;
+        }
+
+        private void expect(char c) {
+            if (!skipIf(c)) {
+                throw new IllegalArgumentException("Expected " + c + " at " + position);
+            }
+        }
+
+        private void expectEnd() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw new IllegalArgumentException("Unexpected text after object at " + position);
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package pazuzu.util;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Shares one String instance between all tasks with the same name.
+ * Names are held weakly, so a name is forgotten once no task uses it any more.
+ */
+public class NameInterner {
+    // Approximate sizes on a 64-bit JVM with compressed pointers and compact strings
+    private static final int STRING_OBJECT_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int ALIGNMENT_BYTES = 8;
+
+    private final WeakHashMap<String, WeakReference<String>> names = new WeakHashMap<>();
+    private long reuseCount;
+
+    /**
+     * Returns the shared instance of the given name, making it the shared instance if there is none yet.
+     *
+     * @param name the name to intern
+     * @return a String equal to the name that is shared by every caller
+     */
+    public synchronized String intern(String name) {
+        WeakReference<String> reference = names.get(name);
+        String shared = reference == null ? null : reference.get();
+        if (shared != null) {
+            reuseCount++;
+            return shared;
+        }
+        names.put(name, new WeakReference<>(name));
+        return name;
+    }
+
+    /**
+     * Gets how many times an existing instance was handed out instead of keeping a new copy.
+     *
+     * @return the number of reused names
+     */
+    public synchronized long getReuseCount() {
+        return reuseCount;
+    }
+
+    /**
+     * Estimates the heap taken by a String, including its backing array.
+     *
+     * @param name the string to measure
+     * @return the estimated size in bytes
+     */
+    public static long estimateBytes(String name) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) name.length() * bytesPerChar;
+        arrayBytes = (arrayBytes + ALIGNMENT_BYTES - 1) / ALIGNMENT_BYTES * ALIGNMENT_BYTES;
+        return STRING_OBJECT_BYTES + arrayBytes;
+    }
+}
@@ -0,0 +1,245 @@
+package pazuzu.workspace;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+
+import pazuzu.history.UndoLog;
+import pazuzu.index.DateHistogram;
+import pazuzu.index.DueQueue;
+import pazuzu.index.FuzzyIndex;
+import pazuzu.index.NgramFilter;
+import pazuzu.index.SortedTaskView;
+import pazuzu.index.TagIndex;
+import pazuzu.index.TaskPositions;
+import pazuzu.index.TaskStatistics;
+import pazuzu.reminder.ReminderScheduler;
+import pazuzu.storage.Archive;
+import pazuzu.storage.Storage;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.task.TaskListener;
+import pazuzu.util.NameInterner;
+
+/**
+ * One named task list together with its storage, archive, indexes and undo history.
+ * Everything here is built when the list is loaded and dropped when it is evicted.
+ */
+public class Workspace {
+    private static final int MAX_UNDO_STEPS = 100;
+    private static final long MAX_UNDO_BYTES = 256 * 1024;
+    // A task and its entries in every index, apart from its name
+    private static final int TASK_BYTES = 512;
+
+    private final String name;
+    private final Storage storage;
+    private final Archive archive;
+    private final TaskList tasks;
+    private final FuzzyIndex fuzzyIndex = new FuzzyIndex();
+    private final NgramFilter findFilter = new NgramFilter();
+    private final LinkedHashMap<String, SortedTaskView> views = new LinkedHashMap<>();
+    private final TaskStatistics statistics = new TaskStatistics();
+    private final DateHistogram histogram = new DateHistogram();
+    private final DueQueue dueQueue = new DueQueue();
+    private final TagIndex tagIndex = new TagIndex();
+    private final TaskPositions positions = new TaskPositions();
+    private final UndoLog undoLog;
+    private final ReminderScheduler reminders;
+    private boolean hasUnsavedChanges;
+    private long changeCount;
+    private long taskBytes;
+
+    /**
+     * Loads a task list from its storage, archives tasks finished before the cutoff and builds the indexes.
+     *
+     * @param name the name of the list
+     * @param storage the storage of the list
+     * @param coldStorage the storage of the list's archive
+     * @param archiveCutoff tasks completed before this time are archived on load
+     * @param reminders the reminder scheduler shared by all lists
+     */
+    public Workspace(String name, Storage storage, Storage coldStorage, LocalDateTime archiveCutoff,
+            ReminderScheduler reminders) {
+        this.name = name;
+        this.storage = storage;
+        this.archive = new Archive(coldStorage);
+        this.tasks = storage.loadTasks();
+        // Archive before the indexes are built, so they never see the old tasks
+        boolean hasArchived = false;
+        try {
+            hasArchived = !archive.archiveCompletedBefore(tasks, archiveCutoff).isEmpty();
+        } catch (IOException e) {
+            // The tasks stay in the list and are archived on a later load
+            System.out.println("Error archiving tasks: " + e.getMessage());
+        }
+        tasks.addListener(fuzzyIndex);
+        tasks.addListener(findFilter);
+        for (SortedTaskView view : new SortedTaskView[] {
+                SortedTaskView.byDeadline(), SortedTaskView.byStartDate(), SortedTaskView.byRecurrence(),
+                SortedTaskView.byName(), SortedTaskView.byStatus()}) {
+            tasks.addListener(view);
+            views.put(view.getName(), view);
+        }
+        tasks.addListener(statistics);
+        tasks.addListener(histogram);
+        tasks.addListener(dueQueue);
+        tasks.addListener(tagIndex);
+        tasks.addListener(positions);
+        this.reminders = reminders;
+        // Reminders kept from when this list was last dropped are replaced by the ones it schedules now
+        reminders.releaseUnloaded(name);
+        tasks.addListener(reminders);
+        this.undoLog = new UndoLog(tasks, MAX_UNDO_STEPS, MAX_UNDO_BYTES);
+        tasks.addListener(new ChangeTracker());
+        // The file still holds the archived tasks until the list is saved without them
+        hasUnsavedChanges = hasArchived;
+        try {
+            flush();
+        } catch (IOException e) {
+            // Kept unsaved, so the save is tried again and the list is not dropped before it succeeds
+            System.out.println("Error saving tasks to file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Estimates the memory held by the list, its indexes and its undo history.
+     * The size of the tasks is kept up to date as they change, so this takes constant time.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateBytes() {
+        return taskBytes + undoLog.getByteCount();
+    }
+
+    /**
+     * Checks if the list has changed since it was last saved.
+     *
+     * @return true if there are unsaved changes
+     */
+    public boolean hasUnsavedChanges() {
+        return hasUnsavedChanges;
+    }
+
+    /**
+     * Gets the number of changes made to the list since it was loaded,
+     * so a copy of the list can tell whether it is still current.
+     *
+     * @return the number of changes
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    /**
+     * Saves the list to its storage if it has changed since it was last saved.
+     * The list only counts as saved once the file has been written.
+     *
+     * @throws IOException if the file cannot be written, in which case the changes stay unsaved
+     */
+    public void flush() throws IOException {
+        if (hasUnsavedChanges) {
+            storage.saveTasks(tasks);
+            hasUnsavedChanges = false;
+        }
+    }
+
+    /**
+     * Saves the list before it is dropped from memory. Its pending reminders stay scheduled,
+     * holding only the tasks they are for, until the list is loaded again.
+     *
+     * @throws IOException if the list cannot be saved, in which case it must stay in memory
+     */
+    public void close() throws IOException {
+        flush();
+        reminders.keepUnloaded(name, tasks.getAllTasks());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TaskList getTasks() {
+        return tasks;
+    }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public FuzzyIndex getFuzzyIndex() {
+        return fuzzyIndex;
+    }
+
+    public NgramFilter getFindFilter() {
+        return findFilter;
+    }
+
+    public LinkedHashMap<String, SortedTaskView> getViews() {
+        return views;
+    }
+
+    public TaskStatistics getStatistics() {
+        return statistics;
+    }
+
+    public DateHistogram getHistogram() {
+        return histogram;
+    }
+
+    public DueQueue getDueQueue() {
+        return dueQueue;
+    }
+
+    public TagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    public TaskPositions getPositions() {
+        return positions;
+    }
+
+    public UndoLog getUndoLog() {
+        return undoLog;
+    }
+
+    /**
+     * Notes and counts every change to the list, so flushing skips lists that are already saved,
+     * and keeps the estimated size of the tasks up to date.
+     */
+    private class ChangeTracker implements TaskListener {
+        @Override
+        public void taskAdded(int taskNumber, Task task) {
+            hasUnsavedChanges = true;
+            changeCount++;
+            taskBytes += estimateTaskBytes(task);
+        }
+
+        @Override
+        public void taskRemoved(int taskNumber, Task task) {
+            hasUnsavedChanges = true;
+            changeCount++;
+            taskBytes -= estimateTaskBytes(task);
+        }
+
+        @Override
+        public void taskUpdating(Task task) {
+            // Only a finished update counts as a change, but the old name may be replaced
+            taskBytes -= estimateTaskBytes(task);
+        }
+
+        @Override
+        public void taskUpdated(Task task) {
+            hasUnsavedChanges = true;
+            changeCount++;
+            taskBytes += estimateTaskBytes(task);
+        }
+
+        private long estimateTaskBytes(Task task) {
+            return TASK_BYTES + NameInterner.estimateBytes(task.getName());
+        }
+    }
+}
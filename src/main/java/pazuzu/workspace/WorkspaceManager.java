@@ -0,0 +1,176 @@
+package pazuzu.workspace;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.reminder.ReminderScheduler;
+import pazuzu.storage.Storage;
+import pazuzu.util.NameInterner;
+
+/**
+ * Keeps the named task lists that are in memory, loading each one the first time it is used.
+ * Loaded lists are kept in least recently used order. Once their estimated memory goes over
+ * the budget, the least recently used lists are saved and dropped until it fits again,
+ * but the list in use and lists that fail to save are never dropped.
+ */
+public class WorkspaceManager {
+    public static final String DEFAULT_LIST = "default";
+    private static final String DEFAULT_FILE_NAME = "pazuzu.txt";
+    private static final String DEFAULT_ARCHIVE_FILE_NAME = "archive.txt";
+    private static final String LISTS_DIRECTORY = "lists/";
+    private static final String LIST_FILE_SUFFIX = ".txt";
+    private static final String ARCHIVE_FILE_SUFFIX = ".archive.txt";
+    private static final Pattern LIST_NAME_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+
+    private final String dataDirectory;
+    private final NameInterner names;
+    private final ReminderScheduler reminders;
+    private final int archiveAfterDays;
+    private final long memoryBudgetBytes;
+    // Access order puts the least recently used list first
+    private final LinkedHashMap<String, Workspace> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private int evictionCount;
+
+    /**
+     * Creates a manager for the lists kept in the given data directory.
+     *
+     * @param dataDirectory the directory of the storage files, ending with a slash
+     * @param names the interner shared by all lists for task names
+     * @param reminders the reminder scheduler attached to every loaded list
+     * @param archiveAfterDays tasks done more than this many days ago are archived when a list is loaded
+     * @param memoryBudgetBytes the estimated memory that loaded lists may use together
+     */
+    public WorkspaceManager(String dataDirectory, NameInterner names, ReminderScheduler reminders,
+            int archiveAfterDays, long memoryBudgetBytes) {
+        assert dataDirectory.endsWith("/") : "Data directory must end with a slash";
+        assert memoryBudgetBytes > 0 : "Memory budget must be positive";
+        this.dataDirectory = dataDirectory;
+        this.names = names;
+        this.reminders = reminders;
+        this.archiveAfterDays = archiveAfterDays;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Gets the list with the given name, loading it if it is not in memory,
+     * then drops the least recently used other lists while over the memory budget.
+     *
+     * @param name the name of the list
+     * @return the list, now the most recently used
+     * @throws PazuzuExceptions.BadTaskException if the name is not a valid list name
+     */
+    public Workspace get(String name) throws PazuzuExceptions.BadTaskException {
+        if (!LIST_NAME_PATTERN.matcher(name).matches()) {
+            throw new PazuzuExceptions.BadTaskException("Invalid list name");
+        }
+        Workspace workspace = loaded.get(name);
+        if (workspace == null) {
+            workspace = load(name);
+            loaded.put(name, workspace);
+        }
+        evictOver(workspace);
+        return workspace;
+    }
+
+    /**
+     * Saves every list in memory. A list that fails to save keeps its changes and does not stop the others.
+     *
+     * @return true if every list was saved
+     */
+    public boolean flushAll() {
+        boolean isSaved = true;
+        for (Workspace workspace : loaded.values()) {
+            try {
+                workspace.flush();
+            } catch (IOException e) {
+                System.out.println("Error saving tasks to file: " + e.getMessage());
+                isSaved = false;
+            }
+        }
+        return isSaved;
+    }
+
+    /**
+     * Checks if the list with the given name is in memory, without counting as a use.
+     *
+     * @param name the name of the list
+     * @return true if the list is loaded
+     */
+    public boolean isLoaded(String name) {
+        return loaded.containsKey(name);
+    }
+
+    /**
+     * Gets the number of lists in memory.
+     *
+     * @return the number of loaded lists
+     */
+    public int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Gets the number of lists dropped from memory to stay within the budget.
+     *
+     * @return the number of evictions
+     */
+    public int getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the estimated memory of all lists in memory.
+     *
+     * @return the estimated size in bytes
+     */
+    public long estimateBytes() {
+        long bytes = 0;
+        for (Workspace workspace : loaded.values()) {
+            bytes += workspace.estimateBytes();
+        }
+        return bytes;
+    }
+
+    public long getMemoryBudgetBytes() {
+        return memoryBudgetBytes;
+    }
+
+    private Workspace load(String name) {
+        boolean isDefault = name.equals(DEFAULT_LIST);
+        String filePath = isDefault ? dataDirectory + DEFAULT_FILE_NAME
+                : dataDirectory + LISTS_DIRECTORY + name + LIST_FILE_SUFFIX;
+        String archivePath = isDefault ? dataDirectory + DEFAULT_ARCHIVE_FILE_NAME
+                : dataDirectory + LISTS_DIRECTORY + name + ARCHIVE_FILE_SUFFIX;
+        return new Workspace(name, new Storage(filePath, names), new Storage(archivePath, names),
+                LocalDateTime.now().minusDays(archiveAfterDays), reminders);
+    }
+
+    /**
+     * Saves and drops lists from the least recently used end until the rest fit the budget.
+     * A list that cannot be saved is kept, so its unsaved changes are not lost.
+     */
+    private void evictOver(Workspace inUse) {
+        long bytes = estimateBytes();
+        Iterator<Map.Entry<String, Workspace>> iterator = loaded.entrySet().iterator();
+        while (bytes > memoryBudgetBytes && iterator.hasNext()) {
+            Workspace workspace = iterator.next().getValue();
+            if (workspace == inUse) {
+                continue;
+            }
+            try {
+                workspace.close();
+            } catch (IOException e) {
+                System.out.println("Error saving tasks to file: " + e.getMessage());
+                continue;
+            }
+            bytes -= workspace.estimateBytes();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import pazuzu.Pazuzu;
+import pazuzu.server.ApiServer;
+
+/**
+ * Measures ApiServer throughput and latency with many concurrent clients on localhost.
+ * Not a unit test; run its main method with the test classes on the class path,
+ * optionally passing the number of clients and the requests each sends.
+ */
+public class ApiServerLoadBenchmark {
+    private static final int DEFAULT_CLIENTS = 2000;
+    private static final int DEFAULT_REQUESTS_PER_CLIENT = 10;
+    private static final int WRITE_EVERY = 10;
+
+    /**
+     * Starts a server on a temporary list and prints requests per second and latency percentiles.
+     *
+     * @param args the number of clients and the requests per client, both optional
+     * @throws Exception if the server cannot start or a request fails
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REQUESTS_PER_CLIENT;
+        String directory = Files.createTempDirectory("pazuzu-load").toString() + "/";
+        ApiServer server = new ApiServer(new Pazuzu(directory),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        URL url = new URL("http://localhost:" + server.getPort() + ApiServer.COMMAND_PATH);
+
+        long[] latencies = new long[clients * requestsPerClient];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        String command = r % WRITE_EVERY == 0 ? "todo load " + client + " #load" : "find load " + client;
+                        long before = System.nanoTime();
+                        send(url, command);
+                        latencies[client * requestsPerClient + r] = System.nanoTime() - before;
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads[c].start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - started;
+        server.stop(0);
+
+        Arrays.sort(latencies);
+        System.out.printf("%d clients, %d requests in %.2f s: %.0f requests/s%n", clients, latencies.length,
+                elapsed / 1e9, latencies.length / (elapsed / 1e9));
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", percentile(latencies, 0.50) / 1e6,
+                percentile(latencies, 0.99) / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static void send(URL url, String command) throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", ApiServer.COMMAND_CONTENT_TYPE);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(command.getBytes(StandardCharsets.UTF_8));
+        }
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("Status " + connection.getResponseCode() + " for " + command);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            in.transferTo(new ByteArrayOutputStream());
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))];
+    }
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import pazuzu.Pazuzu;
+import pazuzu.server.ApiServer;
+
+/**
+ * Test class for ApiServer.
+ */
+public class ApiServerTest {
+    private Path directory;
+    private ApiServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pazuzu-server-test");
+        server = new ApiServer(new Pazuzu(directory.toString() + "/"),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws Exception {
+        return send(newPost(path, body).header("Content-Type", ApiServer.COMMAND_CONTENT_TYPE));
+    }
+
+    private HttpRequest.Builder newPost(String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testPostCommand_RunsCommandAndRepliesWithJson() throws Exception {
+        HttpResponse<String> response = post(ApiServer.COMMAND_PATH, "todo say \"hi\"");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"response\": \"Got it. I've added this task:\\n  [T][ ] say \\\"hi\\\"\\n"
+                + "Now you have 1 tasks in the list.\"}", response.body());
+        assertEquals("{\"response\": \"1. [T][ ] say \\\"hi\\\"\"}", post(ApiServer.COMMAND_PATH, "List").body());
+    }
+
+    @Test
+    public void testPostCommand_FailedCommand_RepliesWithErrorCode() throws Exception {
+        HttpResponse<String> response = post(ApiServer.COMMAND_PATH, "mark 7");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"response\": \"No such task\", \"error\": \"no_such_task\"}", response.body());
+    }
+
+    @Test
+    public void testRequests_WrongMethodPathOrBody_AreRejected() throws Exception {
+        HttpRequest get = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + ApiServer.COMMAND_PATH))
+                .GET().build();
+
+        assertEquals(405, client.send(get, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(404, post("/other", "List").statusCode());
+        assertEquals(400, post(ApiServer.COMMAND_PATH, "  ").statusCode());
+        assertEquals(413, post(ApiServer.COMMAND_PATH, "todo " + "x".repeat(70 * 1024)).statusCode());
+    }
+
+    @Test
+    public void testPostCommand_SimpleContentType_IsRejected() throws Exception {
+        assertEquals(415, send(newPost(ApiServer.COMMAND_PATH, "todo from a form")).statusCode());
+        assertEquals(415, send(newPost(ApiServer.COMMAND_PATH, "todo from a form")
+                .header("Content-Type", "text/plain")).statusCode());
+        assertEquals(200, send(newPost(ApiServer.COMMAND_PATH, "List")
+                .header("Content-Type", ApiServer.COMMAND_CONTENT_TYPE + "; charset=utf-8")).statusCode());
+        assertEquals("{\"response\": \"No tasks in your list.\"}", post(ApiServer.COMMAND_PATH, "List").body());
+    }
+
+    @Test
+    public void testPostCommand_FromWebPage_IsRejected() throws Exception {
+        HttpResponse<String> response = send(newPost(ApiServer.COMMAND_PATH, "delete 1")
+                .header("Content-Type", ApiServer.COMMAND_CONTENT_TYPE)
+                .header("Origin", "https://example.com"));
+
+        assertEquals(403, response.statusCode());
+    }
+
+    @Test
+    public void testPostCommand_ForeignHost_IsRejected() throws Exception {
+        assertTrue(postRaw("evil.example:" + server.getPort()).startsWith("HTTP/1.1 403"));
+        assertTrue(postRaw("127.0.0.1:" + server.getPort()).startsWith("HTTP/1.1 200"));
+        assertTrue(postRaw("[::1]:" + server.getPort()).startsWith("HTTP/1.1 200"));
+    }
+
+    /**
+     * Posts a List command over a plain socket, since HttpClient does not allow setting the Host header.
+     */
+    private String postRaw(String host) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            String request = "POST " + ApiServer.COMMAND_PATH + " HTTP/1.1\r\nHost: " + host
+                    + "\r\nContent-Type: " + ApiServer.COMMAND_CONTENT_TYPE
+                    + "\r\nContent-Length: 4\r\nConnection: close\r\n\r\nList";
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            return new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+
+    @Test
+    public void testStop_SavesTasks() throws Exception {
+        post(ApiServer.COMMAND_PATH, "todo saved on stop");
+
+        server.stop(0);
+
+        assertEquals(1, Files.readAllLines(directory.resolve("pazuzu.txt")).size());
+    }
+}
@@ -0,0 +1,150 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.CommandResult;
+import pazuzu.command.ErrorResult;
+import pazuzu.storage.Archive;
+import pazuzu.storage.Storage;
+import pazuzu.task.Deadline;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.util.NameInterner;
+
+/**
+ * Test class for Archive and the completion times kept by Storage.
+ */
+public class ArchiveTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 12, 31, 12, 0);
+    private Path directory;
+    private TaskList taskList;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pazuzu-archive-test");
+        taskList = new TaskList();
+        Task oldTask = new Task("old chore");
+        oldTask.markDone(NOW.minusDays(40));
+        Task recentTask = new Deadline("recent deadline", NOW.minusDays(1));
+        recentTask.markDone(NOW.minusDays(2));
+        taskList.addTask(oldTask);
+        taskList.addTask(new Task("open chore"));
+        taskList.addTask(recentTask);
+    }
+
+    @Test
+    public void testArchiveCompletedBefore_MovesOnlyOldDoneTasks() throws IOException {
+        Archive archive = new Archive(new Storage(directory.resolve("archive.txt").toString(), new NameInterner()));
+
+        List<Task> archived = archive.archiveCompletedBefore(taskList, NOW.minusDays(30));
+
+        assertEquals(1, archived.size());
+        assertEquals("old chore", archived.get(0).getName());
+        assertEquals(2, taskList.getSize());
+        assertEquals(1, archive.getArchivedCount());
+        assertEquals("[T][X] old chore", archive.loadArchived().getTask(0).getTask());
+    }
+
+    @Test
+    public void testArchiveCompletedBefore_AppendsAcrossRuns() throws IOException {
+        String archivePath = directory.resolve("archive.txt").toString();
+        new Archive(new Storage(archivePath, new NameInterner())).archiveCompletedBefore(taskList, NOW.minusDays(30));
+        Archive reopened = new Archive(new Storage(archivePath, new NameInterner()));
+
+        reopened.archiveCompletedBefore(taskList, NOW);
+
+        assertEquals(2, reopened.getArchivedCount());
+        TaskList archived = reopened.loadArchived();
+        assertEquals("old chore", archived.getTask(0).getName());
+        assertEquals("recent deadline", archived.getTask(1).getName());
+    }
+
+    @Test
+    public void testArchiveCompletedBefore_UnwritableArchive_KeepsTasks() throws IOException {
+        // A directory where the archive file should be cannot be opened for writing
+        Path archivePath = Files.createDirectory(directory.resolve("archive.txt"));
+        Archive archive = new Archive(new Storage(archivePath.toString(), new NameInterner()));
+
+        assertThrows(IOException.class, () -> archive.archiveCompletedBefore(taskList, NOW));
+
+        assertEquals(3, taskList.getSize());
+        assertEquals("old chore", taskList.getTask(0).getName());
+        assertEquals("recent deadline", taskList.getTask(2).getName());
+    }
+
+    @Test
+    public void testArchiveCompletedBefore_TasksAlreadyAtEndOfArchive_AreNotAddedAgain() throws IOException {
+        String archivePath = directory.resolve("archive.txt").toString();
+        TaskList earlier = new TaskList();
+        for (int i = 0; i < 500; i++) {
+            Task task = new Task("chore " + i);
+            task.markDone(NOW.minusDays(100).plusMinutes(i));
+            earlier.addTask(task);
+        }
+        new Archive(new Storage(archivePath, new NameInterner())).archiveCompletedBefore(earlier, NOW);
+        // As if the task list failed to save after the last three chores were archived
+        TaskList reloaded = new TaskList();
+        for (int i = 497; i < 500; i++) {
+            Task task = new Task("chore " + i);
+            task.markDone(NOW.minusDays(100).plusMinutes(i));
+            reloaded.addTask(task);
+        }
+        reloaded.addTask(taskList.getTask(0));
+        Archive archive = new Archive(new Storage(archivePath, new NameInterner()));
+
+        List<Task> archived = archive.archiveCompletedBefore(reloaded, NOW.minusDays(30));
+
+        assertEquals(4, archived.size());
+        assertEquals(0, reloaded.getSize());
+        assertEquals(501, archive.getArchivedCount());
+        TaskList loaded = archive.loadArchived();
+        assertEquals(501, loaded.getSize());
+        assertEquals("chore 499", loaded.getTask(499).getName());
+        assertEquals("old chore", loaded.getTask(500).getName());
+    }
+
+    @Test
+    public void testLoad_ListStillHoldingArchivedTasks_ArchivesThemOnce() throws IOException {
+        String line = "1. [T][X] old chore\tcompleted: 2023-01-01T10:00\n";
+        Files.writeString(directory.resolve("pazuzu.txt"), line + "2. [T][ ] open chore\n");
+        Files.writeString(directory.resolve("archive.txt"), line);
+
+        Pazuzu pazuzu = new Pazuzu(directory.toString() + "/");
+
+        assertEquals("1. [T][ ] open chore", pazuzu.processCommand("List"));
+        assertEquals(1, Files.readAllLines(directory.resolve("archive.txt")).size());
+        assertEquals(List.of("1. [T][ ] open chore"), Files.readAllLines(directory.resolve("pazuzu.txt")));
+    }
+
+    @Test
+    public void testArchiveCommand_UnwritableArchive_ReturnsErrorAndKeepsTasks() throws IOException {
+        Pazuzu pazuzu = new Pazuzu(directory.toString() + "/");
+        pazuzu.execute("todo old chore");
+        pazuzu.execute("mark 1");
+        Files.createDirectory(directory.resolve("archive.txt"));
+
+        CommandResult result = pazuzu.execute("archive 0");
+
+        assertEquals(ErrorResult.Code.ARCHIVE_WRITE, assertInstanceOf(ErrorResult.class, result).getCode());
+        assertEquals("1. [T][X] old chore", pazuzu.processCommand("List"));
+    }
+
+    @Test
+    public void testSaveTasks_CompletionTimeRoundTrips() throws IOException {
+        Storage storage = new Storage(directory.resolve("tasks.txt").toString(), new NameInterner());
+        storage.saveTasks(taskList);
+
+        TaskList loaded = storage.loadTasks();
+
+        assertEquals(NOW.minusDays(40), loaded.getTask(0).getCompletedAt());
+        assertNull(loaded.getTask(1).getCompletedAt());
+        assertEquals(taskList.getTask(2).getTask(), loaded.getTask(2).getTask());
+    }
+}
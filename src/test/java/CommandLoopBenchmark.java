@@ -0,0 +1,96 @@
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import pazuzu.Pazuzu;
+import pazuzu.concurrent.CommandLoop;
+
+/**
+ * Compares applying commands from many threads under one lock, saving after each change,
+ * with the single-writer CommandLoop. Prints throughput and latency percentiles for each.
+ * Not a unit test; run its main method with the test classes on the class path,
+ * optionally passing the number of threads and the commands each sends.
+ */
+public class CommandLoopBenchmark {
+    private static final int DEFAULT_THREADS = 64;
+    private static final int DEFAULT_COMMANDS_PER_THREAD = 2000;
+    private static final int WRITE_EVERY = 10;
+
+    /**
+     * A way of running one command and waiting for its response.
+     */
+    private interface Executor {
+        String execute(String command);
+    }
+
+    /**
+     * Runs the same workload under a lock and through the loop.
+     *
+     * @param args the number of threads and the commands per thread, both optional
+     * @throws Exception if a run fails
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_THREADS;
+        int commandsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_COMMANDS_PER_THREAD;
+
+        Pazuzu locked = createPazuzu();
+        run("lock", threads, commandsPerThread, command -> {
+            synchronized (locked) {
+                return locked.processCommand(command);
+            }
+        });
+
+        CommandLoop loop = new CommandLoop(createPazuzu(), CommandLoop.DEFAULT_CAPACITY);
+        loop.start();
+        run("loop", threads, commandsPerThread, command -> loop.submit(command).join().getText());
+        loop.stop();
+        System.out.printf("loop: %d changes saved in %d batches, %d reads from snapshots%n",
+                loop.getAppliedCount(), loop.getBatchCount(), loop.getSnapshotReadCount());
+    }
+
+    private static Pazuzu createPazuzu() throws Exception {
+        return new Pazuzu(Files.createTempDirectory("pazuzu-loop-benchmark").toString() + "/");
+    }
+
+    private static void run(String name, int threadCount, int commandsPerThread, Executor executor)
+            throws InterruptedException {
+        long[] latencies = new long[threadCount * commandsPerThread];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int c = 0; c < commandsPerThread; c++) {
+                    String command = c % WRITE_EVERY == 0
+                            ? "todo bench " + thread + " " + c : "find bench " + thread + " " + (c - c % WRITE_EVERY);
+                    long before = System.nanoTime();
+                    executor.execute(command);
+                    latencies[thread * commandsPerThread + c] = System.nanoTime() - before;
+                }
+            });
+            threads[t].start();
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - started;
+
+        Arrays.sort(latencies);
+        System.out.printf("%s: %d threads, %d commands in %.2f s: %.0f commands/s%n", name, threadCount,
+                latencies.length, elapsed / 1e9, latencies.length / (elapsed / 1e9));
+        System.out.printf("%s: latency p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n", name,
+                percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                percentile(latencies, 0.999) / 1e6, latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(fraction * (sorted.length - 1)))];
+    }
+}
@@ -0,0 +1,206 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.CommandInput;
+import pazuzu.command.Response;
+import pazuzu.command.TaskListResult;
+import pazuzu.concurrent.CommandLoop;
+import pazuzu.task.Task;
+
+/**
+ * Test class for CommandLoop and the snapshots it answers reads from.
+ */
+public class CommandLoopTest {
+    private Path directory;
+    private CommandLoop loop;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pazuzu-loop-test");
+        loop = new CommandLoop(new Pazuzu(directory.toString() + "/"), 16);
+        loop.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        loop.stop();
+    }
+
+    @Test
+    public void testSubmit_AppliesChangesInOrderAndSavesBeforeReplying() throws IOException {
+        List<CompletableFuture<Response>> replies = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            replies.add(loop.submit("todo task " + i));
+        }
+
+        for (int i = 1; i <= 100; i++) {
+            assertTrue(replies.get(i - 1).join().getText().endsWith("Now you have " + i + " tasks in the list."));
+        }
+        assertEquals(100, Files.readAllLines(directory.resolve("pazuzu.txt")).size());
+        assertEquals(100, loop.getAppliedCount());
+        assertTrue(loop.getBatchCount() <= 100);
+    }
+
+    @Test
+    public void testSubmit_ReadsAfterReplySeeTheChange() {
+        loop.submit("todo read book").join();
+        loop.submit("todo buy milk").join();
+        loop.submit("mark 1").join();
+
+        assertEquals("1. [T][X] read book\n2. [T][ ] buy milk", loop.submit("List").join().getText());
+        assertEquals("Found:\n1. [T][ ] buy milk", loop.submit("find MILK").join().getText());
+        assertEquals("No tasks found containing: bread", loop.submit("find bread").join().getText());
+        assertEquals(3, loop.getSnapshotReadCount());
+    }
+
+    @Test
+    public void testSubmit_WithoutWaiting_TakesEffectInSubmissionOrder() {
+        CompletableFuture<Response> added = loop.submit("todo read book");
+        CompletableFuture<Response> listed = loop.submit("List");
+        CompletableFuture<Response> found = loop.submit("find book");
+
+        assertEquals("1. [T][ ] read book", listed.join().getText());
+        assertEquals("Found:\n1. [T][ ] read book", found.join().getText());
+        assertTrue(added.isDone());
+    }
+
+    @Test
+    public void testSubmit_Bye_AsksToExit() {
+        assertFalse(loop.submit("todo read book").join().isExit());
+        Response bye = loop.submit("bye").join();
+
+        assertEquals("Bye.", bye.getText());
+        assertTrue(bye.isExit());
+        assertFalse(loop.submit("bye now").join().isExit());
+    }
+
+    @Test
+    public void testSubmit_ListAfterSortedView_RunsOnWriterToResetNumbering() {
+        loop.submit("todo b").join();
+        loop.submit("todo a").join();
+        loop.submit("List name").join();
+
+        assertEquals("1. [T][ ] b\n2. [T][ ] a", loop.submit("List").join().getText());
+        assertEquals(0, loop.getSnapshotReadCount());
+        loop.submit("mark 1").join();
+        assertEquals("1. [T][X] b\n2. [T][ ] a", loop.submit("List").join().getText());
+    }
+
+    @Test
+    public void testSnapshot_MatchesProcessCommand() {
+        Pazuzu pazuzu = new Pazuzu(directory.resolve("direct").toString() + "/");
+        assertEquals(pazuzu.processCommand("List"), pazuzu.getSnapshot().answer(CommandInput.parse("List")).render());
+        pazuzu.processCommand("todo write report");
+        pazuzu.processCommand("todo file report");
+        Pazuzu.Snapshot snapshot = pazuzu.getSnapshot();
+
+        for (String command : new String[] {"List", "find report", "find nothing", "find  "}) {
+            CommandInput input = CommandInput.parse(command);
+            if (snapshot.canAnswer(input)) {
+                assertEquals(pazuzu.processCommand(command), snapshot.answer(input).render(), command);
+            }
+        }
+        assertSame(snapshot, pazuzu.getSnapshot());
+        pazuzu.processCommand("delete 1");
+        assertEquals(1, pazuzu.getSnapshot().getSize());
+    }
+
+    @Test
+    public void testSnapshot_SharesCopiesOfUnchangedTasks() {
+        Pazuzu pazuzu = new Pazuzu(directory.resolve("direct").toString() + "/");
+        pazuzu.processCommand("todo write report");
+        pazuzu.processCommand("todo file report");
+        CommandInput list = CommandInput.parse("List");
+        List<Task> before = ((TaskListResult) pazuzu.getSnapshot().answer(list)).getTasks();
+
+        pazuzu.processCommand("mark 2");
+        pazuzu.processCommand("todo Call Bob");
+        List<Task> after = ((TaskListResult) pazuzu.getSnapshot().answer(list)).getTasks();
+
+        assertSame(before.get(0), after.get(0));
+        assertNotSame(before.get(1), after.get(1));
+        assertFalse(before.get(1).checkIsDone());
+        assertTrue(after.get(1).checkIsDone());
+        assertEquals("Found:\n1. [T][ ] Call Bob",
+                pazuzu.getSnapshot().answer(CommandInput.parse("find cALL b")).render());
+    }
+
+    @Test
+    public void testSnapshot_AfterUse_CopiesTheNewList() {
+        Pazuzu pazuzu = new Pazuzu(directory.resolve("direct").toString() + "/");
+        pazuzu.processCommand("todo write report");
+        assertEquals(1, pazuzu.getSnapshot().getSize());
+
+        pazuzu.processCommand("use work");
+        pazuzu.processCommand("todo plan sprint");
+        pazuzu.processCommand("todo review code");
+
+        assertEquals("1. [T][ ] plan sprint\n2. [T][ ] review code",
+                pazuzu.getSnapshot().answer(CommandInput.parse("List")).render());
+    }
+
+    @Test
+    public void testSubmit_DuringStop_EveryReplyCompletesAndAppliedChangesAreSaved() throws Exception {
+        int threadCount = 4;
+        ArrayList<CompletableFuture<Response>> replies = new ArrayList<>();
+        CountDownLatch started = new CountDownLatch(threadCount);
+        Thread[] submitters = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            submitters[t] = new Thread(() -> {
+                ArrayList<CompletableFuture<Response>> own = new ArrayList<>();
+                started.countDown();
+                for (int i = 0; i < 2000; i++) {
+                    CompletableFuture<Response> reply = loop.submit("todo task " + thread + "-" + i);
+                    own.add(reply);
+                    if (reply.isCompletedExceptionally()) {
+                        break;
+                    }
+                }
+                synchronized (replies) {
+                    replies.addAll(own);
+                }
+            });
+            submitters[t].start();
+        }
+        started.await();
+        while (loop.getAppliedCount() == 0) {
+            Thread.yield();
+        }
+        loop.stop();
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        int appliedCount = 0;
+        for (CompletableFuture<Response> reply : replies) {
+            // A command left in the buffer would never be answered and this would hang
+            reply.handle((response, failure) -> null).get(10, TimeUnit.SECONDS);
+            if (!reply.isCompletedExceptionally()) {
+                appliedCount++;
+            }
+        }
+        assertEquals(appliedCount, loop.getAppliedCount());
+        assertEquals(appliedCount, Files.readAllLines(directory.resolve("pazuzu.txt")).size());
+    }
+
+    @Test
+    public void testSubmit_AfterStop_Fails() {
+        loop.stop();
+
+        assertThrows(CompletionException.class, () -> loop.submit("todo late").join());
+    }
+}
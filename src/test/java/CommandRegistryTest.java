@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pazuzu.command.CommandInput;
+import pazuzu.command.CommandRegistry;
+import pazuzu.command.CommandRegistry.Arguments;
+import pazuzu.command.MessageResult;
+import pazuzu.exception.PazuzuExceptions;
+
+/**
+ * Test class for CommandRegistry and CommandInput.
+ */
+public class CommandRegistryTest {
+    private CommandRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new CommandRegistry();
+        registry.register("bye", Arguments.NONE, input -> new MessageResult("bye"));
+        registry.register("List", Arguments.OPTIONAL, input -> new MessageResult("list:" + input.getArguments()));
+        registry.register("mark", Arguments.REQUIRED, input -> new MessageResult("mark:" + input.getArguments()));
+    }
+
+    @Test
+    public void testParse_SplitsAtFirstSpace() {
+        CommandInput input = CommandInput.parse("deadline a b | 2023-12-25");
+
+        assertEquals("deadline", input.getKeyword());
+        assertEquals("a b | 2023-12-25", input.getArguments());
+        assertEquals(9, input.getArgumentsStart());
+        assertTrue(input.hasArguments());
+    }
+
+    @Test
+    public void testParse_KeywordOnly_HasNoArguments() {
+        CommandInput input = CommandInput.parse("List");
+
+        assertEquals("List", input.getKeyword());
+        assertEquals("", input.getArguments());
+        assertFalse(input.hasArguments());
+    }
+
+    @Test
+    public void testDispatch_FindsHandlerByKeyword() throws Exception {
+        assertEquals("bye", registry.dispatch(CommandInput.parse("bye")).render());
+        assertEquals("list:", registry.dispatch(CommandInput.parse("List")).render());
+        assertEquals("list:name", registry.dispatch(CommandInput.parse("List name")).render());
+        assertEquals("mark:2", registry.dispatch(CommandInput.parse("mark 2")).render());
+    }
+
+    @Test
+    public void testDispatch_WrongArguments_ThrowsUndefinedCmdException() {
+        assertThrows(PazuzuExceptions.UndefinedCmdException.class,
+                () -> registry.dispatch(CommandInput.parse("bye now")).render());
+        assertThrows(PazuzuExceptions.UndefinedCmdException.class,
+                () -> registry.dispatch(CommandInput.parse("mark")).render());
+    }
+
+    @Test
+    public void testDispatch_UnknownOrPartialKeyword_ThrowsUndefinedCmdException() {
+        assertThrows(PazuzuExceptions.UndefinedCmdException.class,
+                () -> registry.dispatch(CommandInput.parse("list")).render());
+        assertThrows(PazuzuExceptions.UndefinedCmdException.class,
+                () -> registry.dispatch(CommandInput.parse("marker 2")).render());
+    }
+}
@@ -0,0 +1,95 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.CommandResult;
+import pazuzu.command.ErrorResult;
+import pazuzu.command.FormattedResult;
+import pazuzu.command.TaskListResult;
+import pazuzu.command.TaskResult;
+
+/**
+ * Test class for the results Pazuzu.execute returns and the text they render.
+ */
+public class CommandResultTest {
+    private Pazuzu pazuzu;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        pazuzu = new Pazuzu(Files.createTempDirectory("pazuzu-result-test").toString() + "/");
+    }
+
+    @Test
+    public void testExecute_Todo_ReturnsAddedTask() {
+        CommandResult result = pazuzu.execute("todo read book");
+
+        TaskResult added = assertInstanceOf(TaskResult.class, result);
+        assertEquals(TaskResult.Action.ADDED, added.getAction());
+        assertEquals("read book", added.getTask().getName());
+        assertEquals(1, added.getTaskCount());
+        assertEquals("Got it. I've added this task:\n  [T][ ] read book\nNow you have 1 tasks in the list.",
+                result.render());
+    }
+
+    @Test
+    public void testExecute_List_KeepsTasksAsTheyWere() {
+        pazuzu.execute("todo read book");
+        pazuzu.execute("todo buy milk");
+        TaskListResult listed = assertInstanceOf(TaskListResult.class, pazuzu.execute("List"));
+
+        pazuzu.execute("mark 1");
+        pazuzu.execute("delete 2");
+
+        assertEquals(2, listed.getTasks().size());
+        assertFalse(listed.getTasks().get(0).checkIsDone());
+        assertEquals("1. [T][ ] read book\n2. [T][ ] buy milk", listed.render());
+    }
+
+    @Test
+    public void testExecute_Delete_RendersWarningForOpenTask() {
+        pazuzu.execute("todo read book");
+        TaskResult deleted = assertInstanceOf(TaskResult.class, pazuzu.execute("delete 1"));
+
+        assertEquals(TaskResult.Action.DELETED, deleted.getAction());
+        assertEquals("Deleted task [T][ ] read book\nGuess ur not locked-in enough for this", deleted.render());
+    }
+
+    @Test
+    public void testExecute_Failures_ReturnErrorCodes() {
+        assertErrorCode(ErrorResult.Code.UNDEFINED_COMMAND, pazuzu.execute("blah"));
+        assertErrorCode(ErrorResult.Code.BAD_TASK, pazuzu.execute("deadline no date"));
+        assertErrorCode(ErrorResult.Code.NO_SUCH_TASK, pazuzu.execute("mark 3"));
+        assertErrorCode(ErrorResult.Code.UNKNOWN_VIEW, pazuzu.execute("List nothing"));
+        assertEquals("No such task", pazuzu.processCommand("mark 3"));
+    }
+
+    @Test
+    public void testExecute_Count_ReturnsValuesWithoutFormatting() {
+        pazuzu.execute("deadline submit report | 2023-12-25 1400");
+        FormattedResult counted = assertInstanceOf(FormattedResult.class,
+                pazuzu.execute("count 2023-12-01 | 2023-12-31"));
+
+        assertEquals(4, counted.getValueCount());
+        assertEquals(1L, ((Number) counted.getValue(2)).longValue());
+        assertEquals("From Dec 01 2023 to Dec 31 2023: 1 deadlines, 0 events", counted.render());
+    }
+
+    @Test
+    public void testExecute_FindWithoutMatches_IsEmptyList() {
+        pazuzu.execute("todo read book");
+        TaskListResult found = assertInstanceOf(TaskListResult.class, pazuzu.execute("find zebra"));
+
+        assertTrue(found.isEmpty());
+        assertFalse(found.isError());
+        assertEquals("No tasks found containing: zebra", found.render());
+    }
+
+    private static void assertErrorCode(ErrorResult.Code code, CommandResult result) {
+        assertTrue(result.isError());
+        assertEquals(code, ((ErrorResult) result).getCode());
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import pazuzu.Pazuzu;
+import pazuzu.cli.ConsoleRepl;
+
+/**
+ * Test class for ConsoleRepl.
+ */
+public class ConsoleReplTest {
+
+    @Test
+    public void testRun_PromptsAndPrintsResponsesUntilBye() throws IOException {
+        Path directory = Files.createTempDirectory("pazuzu-console-test");
+        StringWriter output = new StringWriter();
+        ConsoleRepl console = new ConsoleRepl(new Pazuzu(directory.toString() + "/"),
+                new BufferedReader(new StringReader("todo read book\n\n  List  \nbye\ntodo never run\n")),
+                new PrintWriter(output));
+
+        console.run();
+
+        String text = output.toString();
+        assertTrue(text.startsWith("> Got it. I've added this task:"));
+        assertTrue(text.contains("> 1. [T][ ] read book"));
+        assertTrue(text.trim().endsWith("> Bye."));
+        assertFalse(text.contains("never run"));
+        assertEquals(1, Files.readAllLines(directory.resolve("pazuzu.txt")).size());
+    }
+
+    @Test
+    public void testRun_ExitsOnlyWhenTheCommandAsksTo() throws IOException {
+        Path directory = Files.createTempDirectory("pazuzu-console-test");
+        StringWriter output = new StringWriter();
+        ConsoleRepl console = new ConsoleRepl(new Pazuzu(directory.toString() + "/"),
+                new BufferedReader(new StringReader("bye now\ntodo read book\n  bye  \ntodo never run\n")),
+                new PrintWriter(output));
+
+        console.run();
+
+        String text = output.toString();
+        assertTrue(text.contains("read book"));
+        assertTrue(text.trim().endsWith("> Bye."));
+        assertFalse(text.contains("never run"));
+        assertEquals(1, Files.readAllLines(directory.resolve("pazuzu.txt")).size());
+    }
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.index.DateHistogram;
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for DateHistogram covering range counts, window growth and updates from TaskList changes.
+ */
+public class DateHistogramTest {
+    private TaskList taskList;
+    private DateHistogram histogram;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        histogram = new DateHistogram();
+        taskList.addListener(histogram);
+    }
+
+    @Test
+    public void testCounts_DeadlinesAndEventsKeptApart() {
+        taskList.addTask(new Task("buy groceries"));
+        taskList.addTask(new Deadline("submit assignment", LocalDateTime.of(2023, 12, 25, 14, 0)));
+        taskList.addTask(new Event("team meeting",
+                LocalDateTime.of(2023, 12, 26, 10, 0), LocalDateTime.of(2023, 12, 26, 12, 0)));
+
+        assertEquals(1, histogram.countDeadlines(LocalDate.of(2023, 12, 25), LocalDate.of(2023, 12, 25)));
+        assertEquals(0, histogram.countEvents(LocalDate.of(2023, 12, 25), LocalDate.of(2023, 12, 25)));
+        assertEquals(1, histogram.countEvents(LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31)));
+    }
+
+    @Test
+    public void testCounts_DatesFarApartGrowWindow() {
+        taskList.addTask(new Deadline("now", LocalDateTime.of(2023, 12, 25, 0, 0)));
+        taskList.addTask(new Deadline("later", LocalDateTime.of(2050, 1, 1, 0, 0)));
+        taskList.addTask(new Deadline("earlier", LocalDateTime.of(1990, 6, 1, 0, 0)));
+        taskList.addTask(new Deadline("far future", LocalDateTime.of(900000, 1, 1, 0, 0)));
+
+        assertEquals(4, histogram.countDeadlines(LocalDate.of(1, 1, 1), LocalDate.of(999999, 1, 1)));
+        assertEquals(2, histogram.countDeadlines(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1)));
+        assertEquals(1, histogram.countDeadlines(LocalDate.of(1990, 6, 1), LocalDate.of(1990, 6, 1)));
+    }
+
+    @Test
+    public void testCounts_FollowEditAndDelete() throws PazuzuExceptions.BadTaskException {
+        taskList.addTask(new Deadline("submit assignment", LocalDateTime.of(2023, 12, 25, 14, 0)));
+        taskList.editTask(1, "_", LocalDateTime.of(2024, 1, 3, 9, 0), null);
+
+        assertEquals(0, histogram.countDeadlines(LocalDate.of(2023, 12, 25), LocalDate.of(2023, 12, 31)));
+        assertEquals(1, histogram.countDeadlines(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 7)));
+
+        taskList.deleteTask(1);
+        assertEquals(0, histogram.countDeadlines(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 7)));
+    }
+}
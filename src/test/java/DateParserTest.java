@@ -0,0 +1,134 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.parser.DateParser;
+
+/**
+ * Test class for DateParser, checking its direct date reading against the formatters it replaces
+ * and its cache of parsed strings.
+ */
+public class DateParserTest {
+    private static final DateTimeFormatter[] FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd"),
+        DateTimeFormatter.ofPattern("dd-MM-yyyy"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("MM-dd-yyyy"),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy")
+    };
+    private static final String[] SHAPES = {"%04d-%02d-%02d", "%04d/%02d/%02d", "%3$02d-%2$02d-%1$04d",
+        "%3$02d/%2$02d/%1$04d", "%2$02d-%3$02d-%1$04d", "%2$02d/%3$02d/%1$04d"};
+
+    private final DateParser parser = new DateParser();
+
+    /**
+     * Parses a date with the formatter list alone, or returns null if every formatter rejects it.
+     */
+    private static LocalDate parseWithFormatters(String text) {
+        for (DateTimeFormatter formatter : FORMATTERS) {
+            try {
+                return LocalDate.parse(text, formatter);
+            } catch (DateTimeParseException e) {
+                // Try the next formatter
+            }
+        }
+        return null;
+    }
+
+    private LocalDate parseOrNull(String text) {
+        try {
+            return parser.parseDateTime(text).toLocalDate();
+        } catch (PazuzuExceptions.BadTaskException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testParseDateTime_AllShapes_MatchFormatters() {
+        for (int year : new int[] {0, 1, 1999, 2000, 2023, 2024, 2100, 9999}) {
+            for (int month = 0; month <= 13; month++) {
+                for (int day = 0; day <= 32; day++) {
+                    for (String shape : SHAPES) {
+                        String text = String.format(shape, year, month, day);
+                        assertEquals(parseWithFormatters(text), parseOrNull(text), text);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testParseDateTime_OddShapes_MatchFormatters() {
+        String[] texts = {"2023-1-05", "2023-12/25", "+20231-12-25", "20231-12-25", "23-12-25", "2023.12.25",
+            "12-25-2023", "25/12/2023", "2023-12-25x", "\u0662\u0660\u0662\u0663-12-25", "31-12-+2023", "2023-02-29"};
+        for (String text : texts) {
+            assertEquals(parseWithFormatters(text), parseOrNull(text), text);
+        }
+    }
+
+    @Test
+    public void testParseDateTime_SmartResolution_ClampsDayToMonth() throws PazuzuExceptions.BadTaskException {
+        assertEquals(LocalDateTime.of(2023, 2, 28, 0, 0), parser.parseDateTime("2023-02-30"));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), parser.parseDateTime("30/02/2024"));
+    }
+
+    @Test
+    public void testParseDateTime_TimeFormats() throws PazuzuExceptions.BadTaskException {
+        assertEquals(LocalDateTime.of(2023, 12, 25, 9, 5), parser.parseDateTime("2023-12-25 905"));
+        assertEquals(LocalDateTime.of(2023, 12, 25, 14, 37), parser.parseDateTime("  2023-12-25 \t 1437 "));
+        for (String text : new String[] {"2023-12-25 2400", "2023-12-25 0960", "2023-12-25 12345", "2023-12-25 14:37",
+            "2023-12-25 \u0661\u0664\u0663\u0667", "2023-12-25 x 1400"}) {
+            assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseDateTime(text), text);
+        }
+    }
+
+    @Test
+    public void testParseDateTime_RepeatedString_AnsweredFromCache() throws PazuzuExceptions.BadTaskException {
+        LocalDateTime first = parser.parseDateTime("2026-11-01 1800");
+        LocalDateTime second = parser.parseDateTime("2026-11-01 1800");
+
+        assertSame(first, second);
+        assertEquals(1, parser.getHitCount());
+        assertEquals(1, parser.getMissCount());
+        assertEquals(0.5, parser.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testParseDateTime_FullCache_EvictsLeastRecentlyUsed() throws PazuzuExceptions.BadTaskException {
+        DateParser smallParser = new DateParser(2);
+        smallParser.parseDateTime("2026-11-01");
+        smallParser.parseDateTime("2026-11-02");
+        smallParser.parseDateTime("2026-11-01");
+        smallParser.parseDateTime("2026-11-03");
+
+        assertEquals(2, smallParser.getCachedCount());
+        smallParser.parseDateTime("2026-11-01");
+        assertEquals(2, smallParser.getHitCount());
+        smallParser.parseDateTime("2026-11-02");
+        assertEquals(2, smallParser.getHitCount());
+    }
+
+    @Test
+    public void testParseDateTime_InvalidString_NotCached() {
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseDateTime("2026-13-01"));
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseDateTime("2026-13-01"));
+
+        assertEquals(0, parser.getHitCount());
+        assertEquals(0, parser.getCachedCount());
+    }
+
+    @Test
+    public void testParseDateTime_CacheOff_StillParses() throws PazuzuExceptions.BadTaskException {
+        DateParser uncached = new DateParser(0);
+
+        assertEquals(uncached.parseDateTime("2026-11-01"), uncached.parseDateTime("2026-11-01"));
+        assertEquals(0, uncached.getCachedCount());
+        assertEquals(0, uncached.getHitCount());
+    }
+}
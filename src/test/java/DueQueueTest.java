@@ -0,0 +1,90 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.index.DueQueue;
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for DueQueue covering ordering, date changes, marking and deletion.
+ */
+public class DueQueueTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 12, 1, 0, 0);
+    private TaskList taskList;
+    private DueQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        queue = new DueQueue();
+        taskList.addListener(queue);
+    }
+
+    @Test
+    public void testGetFirst_DeadlinesAndEventsInterleaved() {
+        taskList.addTask(new Deadline("submit assignment", BASE.plusDays(3)));
+        taskList.addTask(new Task("buy groceries"));
+        taskList.addTask(new Event("team meeting", BASE.plusDays(1), BASE.plusDays(5)));
+
+        List<Task> first = queue.getFirst(5);
+        assertEquals(2, first.size());
+        assertEquals("team meeting", first.get(0).getName());
+        assertEquals("submit assignment", first.get(1).getName());
+    }
+
+    @Test
+    public void testGetFirst_FollowsEditsMarksAndDeletes() throws Exception {
+        taskList.addTask(new Deadline("a", BASE.plusDays(3)));
+        taskList.addTask(new Deadline("b", BASE.plusDays(2)));
+        taskList.addTask(new Deadline("c", BASE.plusDays(1)));
+
+        taskList.editTask(1, "_", BASE, null);
+        assertEquals("a", queue.getFirst(1).get(0).getName());
+
+        taskList.markTask(1);
+        assertEquals("c", queue.getFirst(1).get(0).getName());
+
+        taskList.deleteTask(3);
+        assertEquals("b", queue.getFirst(1).get(0).getName());
+        assertEquals(1, queue.getSize());
+
+        taskList.unmarkTask(1);
+        assertEquals(2, queue.getSize());
+    }
+
+    @Test
+    public void testGetFirst_MatchesSortAfterRandomChanges() throws PazuzuExceptions.BadTaskException {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            taskList.addTask(new Deadline("task " + i, BASE.plusHours(random.nextInt(1000))));
+        }
+        for (int i = 0; i < 300; i++) {
+            int taskNumber = 1 + random.nextInt(taskList.getSize());
+            if (random.nextInt(4) == 0) {
+                taskList.deleteTask(taskNumber);
+            } else {
+                taskList.editTask(taskNumber, "_", BASE.plusHours(random.nextInt(1000)), null);
+            }
+        }
+
+        ArrayList<LocalDateTime> expected = new ArrayList<>();
+        for (Task task : taskList.getAllTasks()) {
+            expected.add(((Deadline) task).getDeadline());
+        }
+        expected.sort(Comparator.naturalOrder());
+        List<Task> first = queue.getFirst(20);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(expected.get(i), ((Deadline) first.get(i)).getDeadline());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pazuzu.parser.FieldTokenizer;
+
+/**
+ * Test class for FieldTokenizer.
+ */
+public class FieldTokenizerTest {
+
+    @Test
+    public void testSplit_CountsFieldsLikeStringSplit() {
+        String[] inputs = {"a | b | c", " a|b ", "a | b |", "a||", "|a", "|", "", "abc", "a | | c", "a | b | ",
+            "x|y|z|w|v"};
+        for (String input : inputs) {
+            int[] spans = new int[6];
+            assertEquals(input.trim().split("\\|").length, FieldTokenizer.split(input, 0, input.length(), '|', spans),
+                    "Field count of \"" + input + "\"");
+        }
+    }
+
+    @Test
+    public void testSplit_StoresTrimmedSpans() {
+        String input = "event  team meeting |2023-12-25 1400|  2023-12-25 1600 ";
+        int[] spans = new int[6];
+
+        assertEquals(3, FieldTokenizer.split(input, 6, input.length(), '|', spans));
+
+        assertEquals("team meeting", FieldTokenizer.toString(input, spans[0], spans[1]));
+        assertEquals("2023-12-25 1400", FieldTokenizer.toString(input, spans[2], spans[3]));
+        assertEquals("2023-12-25 1600", FieldTokenizer.toString(input, spans[4], spans[5]));
+    }
+
+    @Test
+    public void testSplit_MoreFieldsThanSpans_CountsAllStoresFirst() {
+        int[] spans = new int[4];
+
+        assertEquals(3, FieldTokenizer.split("a|b|c", 0, 5, '|', spans));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, spans);
+    }
+
+    @Test
+    public void testSplitWords_SkipsRunsOfWhitespace() {
+        String input = "  2 \t weeks ";
+        int[] spans = new int[4];
+
+        assertEquals(2, FieldTokenizer.splitWords(input, 0, input.length(), spans));
+        assertEquals("2", FieldTokenizer.toString(input, spans[0], spans[1]));
+        assertEquals("weeks", FieldTokenizer.toString(input, spans[2], spans[3]));
+    }
+
+    @Test
+    public void testParseInt_TrimsRegion() {
+        assertEquals(12, FieldTokenizer.parseInt("mark  12 ", 5, 9));
+        assertThrows(NumberFormatException.class, () -> FieldTokenizer.parseInt("mark   ", 5, 7));
+    }
+
+    @Test
+    public void testRegionEquals_ComparesWithoutCopying() {
+        assertTrue(FieldTokenizer.regionEquals("a | _ | b", 4, 5, "_"));
+        assertFalse(FieldTokenizer.regionEquals("a | __ | b", 4, 6, "_"));
+        assertEquals(-1, FieldTokenizer.lastIndexOf("abc", '|', 0, 3));
+        assertEquals(3, FieldTokenizer.lastIndexOf("a|b|c", '|', 0, 4));
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.index.FuzzyIndex;
+import pazuzu.task.Deadline;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for FuzzyIndex covering misspelt queries and keeping the index in step with TaskList changes.
+ */
+public class FuzzyIndexTest {
+    private TaskList taskList;
+    private FuzzyIndex fuzzyIndex;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        taskList.addTask(new Task("buy groceries"));
+        taskList.addTask(new Deadline("submit assignment", LocalDateTime.of(2023, 12, 25, 14, 0)));
+        fuzzyIndex = new FuzzyIndex();
+        taskList.addListener(fuzzyIndex);
+    }
+
+    @Test
+    public void testFindTasksNear_ExistingTasksIndexedOnRegistration() {
+        TaskList result = fuzzyIndex.findTasksNear("grocerys");
+        assertEquals(1, result.getSize());
+        assertEquals("buy groceries", result.getTask(0).getName());
+    }
+
+    @Test
+    public void testFindTasksNear_AllTokensMustMatch() {
+        assertEquals(1, fuzzyIndex.findTasksNear("submt asignment").getSize());
+        assertTrue(fuzzyIndex.findTasksNear("submit groceries").isEmpty());
+    }
+
+    @Test
+    public void testFindTasksNear_TooFarIsNotMatched() {
+        assertTrue(fuzzyIndex.findTasksNear("bxx").isEmpty());
+        assertTrue(fuzzyIndex.findTasksNear("assxxxxent").isEmpty());
+    }
+
+    @Test
+    public void testFindTasksNear_FollowsAddDeleteAndEdit() throws PazuzuExceptions.BadTaskException {
+        taskList.addTask(new Task("call dentist"));
+        assertEquals(1, fuzzyIndex.findTasksNear("dentst").getSize());
+
+        taskList.editTask(3, "call plumber", (LocalDateTime) null, (LocalDateTime) null);
+        assertTrue(fuzzyIndex.findTasksNear("dentst").isEmpty());
+        assertEquals(1, fuzzyIndex.findTasksNear("plumbr").getSize());
+
+        taskList.deleteTask(3);
+        assertTrue(fuzzyIndex.findTasksNear("plumbr").isEmpty());
+    }
+
+    @Test
+    public void testFindTasksNear_ManyRemovalsTriggerRebuild() {
+        for (int i = 0; i < 200; i++) {
+            taskList.addTask(new Task("chore" + i));
+        }
+        for (int i = 0; i < 200; i++) {
+            taskList.deleteTask(3);
+        }
+        assertTrue(fuzzyIndex.findTasksNear("chore5").isEmpty());
+        assertEquals(1, fuzzyIndex.findTasksNear("groceries").getSize());
+    }
+}
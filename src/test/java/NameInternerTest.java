@@ -0,0 +1,39 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.parser.CommandParser;
+import pazuzu.task.Task;
+import pazuzu.util.NameInterner;
+
+/**
+ * Test class for NameInterner covering instance sharing and the size estimate.
+ */
+public class NameInternerTest {
+
+    @Test
+    public void testIntern_EqualNamesShareInstance() {
+        NameInterner names = new NameInterner();
+        String first = names.intern(new String("wash dishes"));
+        String second = names.intern(new String("wash dishes"));
+
+        assertSame(first, second);
+        assertNotSame(first, names.intern(new String("take out bins")));
+        assertEquals(1, names.getReuseCount());
+    }
+
+    @Test
+    public void testParseTaskCommand_SharesNamesAcrossTaskTypes() throws PazuzuExceptions.BadTaskException {
+        CommandParser parser = new CommandParser(new NameInterner());
+        Task todo = parser.parseTaskCommand("todo wash dishes");
+        Task deadline = parser.parseTaskCommand("deadline wash dishes | 2023-12-25");
+
+        assertSame(todo.getName(), deadline.getName());
+    }
+
+    @Test
+    public void testEstimateBytes_WideCharactersCountDouble() {
+        assertEquals(24 + 16 + 8, NameInterner.estimateBytes("dishes"));
+        assertEquals(24 + 16 + 16, NameInterner.estimateBytes("\u6d17\u7897\u76e4\u5b50\u6d17\u7897"));
+    }
+}
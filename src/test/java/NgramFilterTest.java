@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.index.NgramFilter;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for NgramFilter covering definite misses and updates from TaskList changes.
+ */
+public class NgramFilterTest {
+    private TaskList taskList;
+    private NgramFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        taskList.addTask(new Task("Submit Assignment"));
+        filter = new NgramFilter();
+        taskList.addListener(filter);
+    }
+
+    @Test
+    public void testMightContain_NeverMissesASubstring() {
+        String name = "submit assignment";
+        for (int start = 0; start < name.length(); start++) {
+            for (int end = start + 1; end <= name.length(); end++) {
+                assertTrue(filter.mightContain(name.substring(start, end).toUpperCase()));
+            }
+        }
+        assertEquals(0, filter.getSkippedCount());
+    }
+
+    @Test
+    public void testMightContain_AbsentKeywordSkipped() {
+        assertFalse(filter.mightContain("groceries"));
+        assertEquals(1, filter.getSkippedCount());
+    }
+
+    @Test
+    public void testMightContain_FollowsEditsAndDeletes() throws PazuzuExceptions.BadTaskException {
+        taskList.editTask(1, "buy groceries", "_", "_");
+        assertTrue(filter.mightContain("groceries"));
+        assertFalse(filter.mightContain("assignment"));
+
+        taskList.deleteTask(1);
+        assertFalse(filter.mightContain("groceries"));
+    }
+
+    @Test
+    public void testMightContain_CaseOnlyEditsKeepCountsExact() throws PazuzuExceptions.BadTaskException {
+        taskList.editTask(1, "SUBMIT ASSIGNMENT", "_", "_");
+        taskList.editTask(1, "submit assignment", "_", "_");
+        assertTrue(filter.mightContain("Assignment"));
+
+        taskList.editTask(1, "buy milk", "_", "_");
+        assertFalse(filter.mightContain("assignment"));
+        assertFalse(filter.mightContain("submit"));
+        assertTrue(filter.mightContain("MILK"));
+    }
+
+    @Test
+    public void testMightContain_StaysCorrectAfterGrowthAndChurn() {
+        for (int i = 0; i < 2000; i++) {
+            taskList.addTask(new Task("chore number " + i));
+        }
+        for (int i = 0; i < 1900; i++) {
+            taskList.deleteTask(2);
+        }
+        assertTrue(filter.mightContain("number 1999"));
+        assertTrue(filter.mightContain("assignment"));
+        assertFalse(filter.mightContain("groceries"));
+    }
+}
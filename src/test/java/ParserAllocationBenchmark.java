@@ -0,0 +1,62 @@
+import java.lang.management.ManagementFactory;
+
+import pazuzu.command.CommandInput;
+import pazuzu.parser.CommandParser;
+
+/**
+ * Measures the bytes CommandParser allocates per command, for each kind of command.
+ * Not a unit test; run its main method with the test classes on the class path.
+ */
+public class ParserAllocationBenchmark {
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+    private static final String[] COMMANDS = {
+        "todo   buy groceries for the week   ",
+        "todo buy groceries #errands #Weekly for the week",
+        "deadline submit assignment | 2023-12-25 1400",
+        "event team meeting | 2023-12-25 1400 | 2023-12-25 1600",
+        "recur water plants | 2023-12-25 | 2 weeks",
+        "edit 3 | renamed task | _ | _",
+        "edit 3 | renamed task #urgent | _ | _",
+        "find groceries",
+        "mark 12",
+    };
+
+    /**
+     * Prints the average bytes allocated per parse of each command.
+     *
+     * @param args not used
+     * @throws Exception if a command fails to parse
+     */
+    public static void main(String[] args) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        CommandParser parser = new CommandParser();
+        long threadId = Thread.currentThread().getId();
+        for (String command : COMMANDS) {
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                parse(parser, command);
+            }
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                parse(parser, command);
+            }
+            long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+            System.out.printf("%-60s %8.1f bytes/command%n", command, (double) bytes / MEASURED_ROUNDS);
+        }
+    }
+
+    private static Object parse(CommandParser parser, String command) throws Exception {
+        CommandInput input = CommandInput.parse(command);
+        switch (input.getKeyword()) {
+            case "edit":
+                return parser.parseEditCommand(input);
+            case "find":
+                return parser.parseFindCommand(input);
+            case "mark":
+                return parser.parseTaskNumber(input);
+            default:
+                return parser.parseTaskCommand(input);
+        }
+    }
+}
@@ -2,8 +2,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import pazuzu.command.CommandInput;
 import pazuzu.parser.CommandParser;
 import pazuzu.exception.PazuzuExceptions;
 import pazuzu.task.Task;
@@ -182,31 +184,80 @@ public class ParserTest {
     // Tests for parseTaskNumber method
     @Test
     public void testParseTaskNumber_ValidNumbers() {
-        assertEquals(1, parser.parseTaskNumber("mark 1", 5));
-        assertEquals(42, parser.parseTaskNumber("unmark 42", 7));
-        assertEquals(999, parser.parseTaskNumber("delete 999", 7));
+        assertEquals(1, parser.parseTaskNumber(CommandInput.parse("mark 1")));
+        assertEquals(42, parser.parseTaskNumber(CommandInput.parse("unmark 42")));
+        assertEquals(999, parser.parseTaskNumber(CommandInput.parse("delete 999")));
     }
 
     @Test
     public void testParseTaskNumber_WithExtraSpaces() {
-        assertEquals(5, parser.parseTaskNumber("mark   5   ", 5));
-        assertEquals(10, parser.parseTaskNumber("delete    10", 7));
+        assertEquals(5, parser.parseTaskNumber(CommandInput.parse("mark   5   ")));
+        assertEquals(10, parser.parseTaskNumber(CommandInput.parse("delete    10")));
     }
 
     @Test
     public void testParseTaskNumber_InvalidFormat() {
         // Test non-numeric input
         assertThrows(NumberFormatException.class, () -> {
-            parser.parseTaskNumber("mark abc", 5);
+            parser.parseTaskNumber(CommandInput.parse("mark abc"));
         });
 
         // Test empty number
         assertThrows(NumberFormatException.class, () -> {
-            parser.parseTaskNumber("mark ", 5);
+            parser.parseTaskNumber(CommandInput.parse("mark "));
         });
 
         // Test negative number (technically valid integer but logically invalid)
-        assertEquals(-1, parser.parseTaskNumber("mark -1", 5));
+        assertEquals(-1, parser.parseTaskNumber(CommandInput.parse("mark -1")));
+    }
+
+    @Test
+    public void testParseCommands_ReadArgumentsAfterKeyword() throws PazuzuExceptions.BadTaskException {
+        assertEquals("milk", parser.parseFindCommand(CommandInput.parse("find   milk ")));
+        assertEquals("work", parser.parseUseCommand(CommandInput.parse("use Work")));
+        assertEquals("", parser.parseListCommand(CommandInput.parse("List ")));
+        assertEquals(3, parser.parseNextCommand(CommandInput.parse("next 3")));
+        assertEquals(1, parser.parseNextCommand(CommandInput.parse("next")));
+        assertArrayEquals(new String[]{"2", "_"}, parser.parseOccurrenceCommand(CommandInput.parse("complete 2")));
+        assertEquals("2", parser.parseEditCommand(CommandInput.parse("edit 2 | renamed | _ | _"))[0]);
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseFindCommand(CommandInput.parse("find ")));
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseEditCommand(CommandInput.parse("edit")));
+    }
+
+    @Test
+    public void testParseTaskCommand_OnlyTags_ThrowsBadTaskException() {
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseTaskCommand("todo #ops"));
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> parser.parseTaskCommand("deadline #ops"));
+    }
+
+    @Test
+    public void testParseTaskCommand_TagsAmongWords_AreCutFromTheName() throws PazuzuExceptions.BadTaskException {
+        Task task = parser.parseTaskCommand("todo buy #errands groceries #Weekly #errands");
+        assertEquals("buy groceries", task.getName());
+        assertEquals(2, task.getTags().size());
+        assertEquals("errands", task.getTags().get(0));
+        assertEquals("weekly", task.getTags().get(1));
+    }
+
+    @Test
+    public void testParseEditCommand_TaggedName_SplitsNameAndTags() throws PazuzuExceptions.BadTaskException {
+        String[] result = parser.parseEditCommand(CommandInput.parse("edit 3 | renamed task #urgent | _ | _"));
+        assertEquals("renamed task", result[1]);
+        assertEquals("urgent", result[4]);
+
+        String[] tagsOnly = parser.parseEditCommand(CommandInput.parse("edit 3 | #urgent | _ | _"));
+        assertEquals("_", tagsOnly[1]);
+        assertEquals("urgent", tagsOnly[4]);
+    }
+
+    @Test
+    public void testParseHistogramCommand_ExtraSpaces_AreIgnored() throws PazuzuExceptions.BadTaskException {
+        CommandInput input = CommandInput.parse("histogram  week  2024-01-01 |  2024-01-31 ");
+        assertEquals("week", parser.parseHistogramUnit(input));
+        assertArrayEquals(new LocalDate[]{LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)},
+                parser.parseHistogramRange(input));
+        assertThrows(PazuzuExceptions.BadTaskException.class,
+                () -> parser.parseHistogramUnit(CommandInput.parse("histogram week ")));
     }
 
     // Edge case tests
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+import pazuzu.index.RankedTree;
+
+/**
+ * Test class for RankedTree covering duplicates, positions and counts against a sorted list.
+ */
+public class RankedTreeTest {
+    @Test
+    public void testAddRemove_DuplicatesAreCountedSeparately() {
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.naturalOrder());
+        tree.add(5);
+        tree.add(3);
+        tree.add(5);
+
+        assertEquals(3, tree.size());
+        assertEquals(1, tree.countBefore(5));
+        assertEquals(Integer.valueOf(5), tree.get(2));
+        assertTrue(tree.remove(5));
+        assertEquals(2, tree.size());
+        assertEquals(Integer.valueOf(5), tree.get(1));
+        assertFalse(tree.remove(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(2));
+    }
+
+    @Test
+    public void testRandomChanges_MatchSortedList() {
+        Random random = new Random(11);
+        RankedTree<Integer> tree = new RankedTree<>(Comparator.naturalOrder());
+        ArrayList<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(Integer.valueOf(value)), tree.remove(value));
+            } else {
+                tree.add(value);
+                expected.add(value);
+            }
+        }
+        Collections.sort(expected);
+
+        assertEquals(expected, tree.toList());
+        for (int i = 0; i < expected.size(); i += 13) {
+            assertEquals(expected.get(i), tree.get(i));
+            assertEquals(expected.indexOf(expected.get(i)), tree.countBefore(expected.get(i)));
+        }
+    }
+}
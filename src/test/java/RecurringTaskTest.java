@@ -0,0 +1,139 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for RecurringTask covering occurrence expansion, completion records and their compaction.
+ */
+public class RecurringTaskTest {
+
+    @Test
+    public void testOccurrencesBetween_MonthlyDoesNotDrift() {
+        RecurringTask rent = new RecurringTask("rent", LocalDateTime.of(2024, 1, 31, 9, 0),
+                RecurringTask.Frequency.MONTH, 1);
+
+        List<LocalDateTime> occurrences = rent.getOccurrencesBetween(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 4, 30, 23, 59));
+
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 31, 9, 0), LocalDateTime.of(2024, 2, 29, 9, 0),
+                LocalDateTime.of(2024, 3, 31, 9, 0), LocalDateTime.of(2024, 4, 30, 9, 0)), occurrences);
+    }
+
+    @Test
+    public void testCompleteOccurrence_ContiguousRecordsFoldIntoRuns() {
+        RecurringTask gym = new RecurringTask("gym", LocalDateTime.of(2024, 1, 1, 7, 0),
+                RecurringTask.Frequency.DAY, 2);
+
+        gym.completeOccurrence(LocalDate.of(2024, 1, 5));
+        assertEquals("[R][ ] gym (every: 2 days from: Jan 01 2024 07:00; done: 2024-01-05)", gym.getTask());
+
+        gym.completeOccurrence(LocalDate.of(2024, 1, 1));
+        gym.skipOccurrence(LocalDate.of(2024, 1, 3));
+        assertEquals("[R][ ] gym (every: 2 days from: Jan 01 2024 07:00; done: 2024-01-01,2024-01-05;"
+                + " skip: 2024-01-03)", gym.getTask());
+        assertEquals(LocalDateTime.of(2024, 1, 7, 7, 0), gym.getNextOpenOccurrence(LocalDateTime.of(2023, 1, 1, 0, 0)));
+        assertEquals(2, gym.getOccurrencesBetween(
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 5, 23, 59)).size());
+
+        gym.completeOccurrence(LocalDate.of(2024, 1, 9));
+        gym.completeOccurrence(LocalDate.of(2024, 1, 7));
+        assertEquals("; done: 2024-01-01,2024-01-05..2024-01-09; skip: 2024-01-03", gym.getRecords());
+    }
+
+    @Test
+    public void testCompleteOccurrence_LongSeries_KeepsEveryRecordInRuns() {
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        RecurringTask daily = new RecurringTask("journal", first.atTime(21, 0), RecurringTask.Frequency.DAY, 1);
+        for (int day = 0; day < 1000; day++) {
+            daily.completeOccurrence(first.plusDays(day));
+        }
+        assertEquals("; done: " + first + ".." + first.plusDays(999), daily.getRecords());
+
+        // Outcomes that change every day cannot fold, but none of them is forgotten
+        RecurringTask gapped = new RecurringTask("journal", first.atTime(21, 0), RecurringTask.Frequency.DAY, 1);
+        for (int day = 1; day < 1000; day++) {
+            if (day % 2 == 0) {
+                gapped.completeOccurrence(first.plusDays(day));
+            } else {
+                gapped.skipOccurrence(first.plusDays(day));
+            }
+        }
+        assertFalse(gapped.isOccurrenceDone(first));
+        assertFalse(gapped.isOccurrenceDone(first.plusDays(1)));
+        assertTrue(gapped.isOccurrenceDone(first.plusDays(998)));
+        assertEquals(List.of(first.atTime(21, 0)), gapped.getOccurrencesBetween(first.atStartOfDay(),
+                first.plusDays(1).atTime(23, 59)));
+        assertEquals(first.plusDays(1000).atTime(21, 0), gapped.getNextOpenOccurrence(first.atTime(22, 0)));
+    }
+
+    @Test
+    public void testGetCurrentOccurrenceDate_StepsBackOverSkippedRun() {
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        RecurringTask daily = new RecurringTask("journal", first.atTime(21, 0), RecurringTask.Frequency.DAY, 1);
+        daily.completeOccurrence(first.plusDays(1));
+        for (int day = 2; day < 500; day++) {
+            daily.skipOccurrence(first.plusDays(day));
+        }
+
+        assertEquals(first.plusDays(1), daily.getCurrentOccurrenceDate(first.plusDays(499).atTime(22, 0)));
+        assertEquals("; done: 2024-01-02; skip: 2024-01-03.." + first.plusDays(499), daily.getRecords());
+        daily.completeOccurrence(first.plusDays(250));
+        assertEquals("; done: 2024-01-02," + first.plusDays(250) + "; skip: 2024-01-03.." + first.plusDays(249)
+                + "," + first.plusDays(251) + ".." + first.plusDays(499), daily.getRecords());
+    }
+
+    @Test
+    public void testRestoreRecords_RoundTripsFormattedString() {
+        RecurringTask original = new RecurringTask("review", LocalDateTime.of(2024, 1, 1, 9, 0),
+                RecurringTask.Frequency.WEEK, 1);
+        original.completeOccurrence(LocalDate.of(2024, 1, 1));
+        original.completeOccurrence(LocalDate.of(2024, 1, 22));
+        original.skipOccurrence(LocalDate.of(2024, 1, 29));
+
+        RecurringTask restored = new RecurringTask("review", LocalDateTime.of(2024, 1, 1, 9, 0),
+                RecurringTask.Frequency.WEEK, 1);
+        restored.restoreRecords("; done to: 2024-01-01; done: 2024-01-22; skip: 2024-01-29");
+
+        assertEquals(original.getTask(), restored.getTask());
+        assertTrue(restored.isOccurrenceDone(LocalDate.of(2024, 1, 22)));
+        assertFalse(restored.isOccurrenceDone(LocalDate.of(2024, 1, 8)));
+    }
+
+    @Test
+    public void testRestoreRecords_DoneToWithSkips_KeepsSkipsApart() {
+        RecurringTask restored = new RecurringTask("gym", LocalDateTime.of(2024, 1, 1, 7, 0),
+                RecurringTask.Frequency.DAY, 2);
+        restored.restoreRecords("; done to: 2024-01-07; skip: 2024-01-03");
+
+        assertEquals("; done: 2024-01-01,2024-01-05..2024-01-07; skip: 2024-01-03", restored.getRecords());
+        assertFalse(restored.isOccurrenceDone(LocalDate.of(2024, 1, 3)));
+        assertEquals(LocalDate.of(2024, 1, 1), restored.getCurrentOccurrenceDate(LocalDateTime.of(2024, 1, 4, 7, 0)));
+
+        RecurringTask reloaded = new RecurringTask("gym", LocalDateTime.of(2024, 1, 1, 7, 0),
+                RecurringTask.Frequency.DAY, 2);
+        reloaded.restoreRecords(restored.getRecords());
+        assertEquals(restored.getTask(), reloaded.getTask());
+    }
+
+    @Test
+    public void testCompleteOccurrence_RejectsDatesOutsideSeries() throws PazuzuExceptions.BadTaskException {
+        TaskList taskList = new TaskList();
+        taskList.addTask(new Task("buy groceries"));
+        taskList.addTask(new RecurringTask("gym", LocalDateTime.of(2024, 1, 1, 7, 0),
+                RecurringTask.Frequency.DAY, 2));
+
+        assertThrows(PazuzuExceptions.BadTaskException.class,
+                () -> taskList.completeOccurrence(1, LocalDate.of(2024, 1, 1)));
+        assertThrows(PazuzuExceptions.BadTaskException.class,
+                () -> taskList.completeOccurrence(2, LocalDate.of(2024, 1, 2)));
+        assertTrue(taskList.completeOccurrence(2, LocalDate.of(2024, 1, 3)).isOccurrenceDone(LocalDate.of(2024, 1, 3)));
+    }
+}
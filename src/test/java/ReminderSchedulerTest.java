@@ -0,0 +1,101 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import pazuzu.reminder.ReminderScheduler;
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for ReminderScheduler covering lead time, delivery order and rescheduling on task changes.
+ */
+public class ReminderSchedulerTest {
+    private static final Duration LEAD_TIME = Duration.ofMinutes(15);
+    private TaskList taskList;
+    private ReminderScheduler reminders;
+    private LocalDateTime now;
+
+    @BeforeEach
+    public void setUp() {
+        now = LocalDateTime.now();
+        taskList = new TaskList();
+        reminders = new ReminderScheduler(LEAD_TIME);
+        taskList.addListener(reminders);
+    }
+
+    @Test
+    public void testDeliverDue_RemindsLeadTimeBeforeDeadline() {
+        LocalDateTime due = now.plusHours(1);
+        taskList.addTask(new Deadline("submit report", due));
+
+        assertEquals(List.of(), deliver(due.minus(LEAD_TIME).minusSeconds(2)));
+        List<String> delivered = deliver(due.minus(LEAD_TIME).plusSeconds(1));
+
+        assertEquals(1, delivered.size());
+        assertTrue(delivered.get(0).contains("due soon"));
+        assertTrue(delivered.get(0).contains("submit report"));
+        assertEquals(0, reminders.getPendingCount());
+    }
+
+    @Test
+    public void testDeliverDue_InOrderOfDueTime() {
+        taskList.addTask(new Deadline("second", now.plusHours(3)));
+        taskList.addTask(new Event("first", now.plusHours(1), now.plusHours(2)));
+        taskList.addTask(new Deadline("third", now.plusHours(5)));
+
+        List<String> delivered = deliver(now.plusHours(6));
+
+        assertEquals(3, delivered.size());
+        assertTrue(delivered.get(0).contains("starting soon") && delivered.get(0).contains("first"));
+        assertTrue(delivered.get(1).contains("second"));
+        assertTrue(delivered.get(2).contains("third"));
+    }
+
+    @Test
+    public void testEdit_MovesReminderToNewDeadline() throws Exception {
+        taskList.addTask(new Deadline("submit report", now.plusHours(1)));
+
+        taskList.editTask(1, "submit report", now.plusHours(4), null);
+
+        assertEquals(1, reminders.getPendingCount());
+        assertEquals(List.of(), deliver(now.plusHours(2)));
+        assertEquals(1, deliver(now.plusHours(4)).size());
+    }
+
+    @Test
+    public void testMarkAndDelete_CancelReminders() throws Exception {
+        taskList.addTask(new Deadline("marked", now.plusHours(1)));
+        taskList.addTask(new Deadline("deleted", now.plusHours(1)));
+        taskList.addTask(new Deadline("already past", now.minusHours(1)));
+
+        taskList.markTask(1);
+        taskList.deleteTask(2);
+
+        assertEquals(0, reminders.getPendingCount());
+        assertEquals(List.of(), deliver(now.plusHours(2)));
+    }
+
+    @Test
+    public void testDeliverDue_RecurringTask_SchedulesNextOccurrence() {
+        taskList.addTask(new RecurringTask("stand-up", now.plusHours(1), RecurringTask.Frequency.DAY, 1));
+
+        assertEquals(1, deliver(now.plusHours(1)).size());
+        assertEquals(1, reminders.getPendingCount());
+        assertEquals(List.of(), deliver(now.plusHours(12)));
+        assertEquals(1, deliver(now.plusHours(25)).size());
+    }
+
+    private List<String> deliver(LocalDateTime time) {
+        ArrayList<String> delivered = new ArrayList<>();
+        reminders.deliverDue(time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), delivered::add);
+        return delivered;
+    }
+}
@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import pazuzu.concurrent.RingBuffer;
+
+/**
+ * Test class for RingBuffer.
+ */
+public class RingBufferTest {
+    @Test
+    public void testOfferAndPoll_KeepOrderAcrossLaps() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        assertTrue(buffer.isEmpty());
+        assertNull(buffer.poll());
+
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(buffer.offer(lap * 4 + i));
+            }
+            assertFalse(buffer.offer(-1), "A full buffer must refuse elements");
+            for (int i = 0; i < 4; i++) {
+                assertEquals(Integer.valueOf(lap * 4 + i), buffer.poll());
+            }
+            assertTrue(buffer.isEmpty());
+        }
+    }
+
+    @Test
+    public void testOffer_ManyProducers_ConsumerSeesEachElementOnceInProducerOrder() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 50_000;
+        RingBuffer<int[]> buffer = new RingBuffer<>(64);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new int[] {producer, i})) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        int[] nextExpected = new int[producers];
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        int received = 0;
+        while (received < producers * perProducer) {
+            int[] element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            if (element[1] != nextExpected[element[0]]) {
+                outOfOrder.set(true);
+            }
+            nextExpected[element[0]] = element[1] + 1;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(outOfOrder.get());
+        assertTrue(buffer.isEmpty());
+        for (int p = 0; p < producers; p++) {
+            assertEquals(perProducer, nextExpected[p]);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import pazuzu.Pazuzu;
+import pazuzu.cli.ScriptRunner;
+
+/**
+ * Test class for ScriptRunner and the deferred saving it relies on.
+ */
+public class ScriptRunnerTest {
+    private Path directory;
+    private Path taskFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pazuzu-script-test");
+        taskFile = directory.resolve("pazuzu.txt");
+    }
+
+    private Pazuzu createPazuzu() {
+        return new Pazuzu(directory.toString() + "/");
+    }
+
+    @Test
+    public void testRun_WritesEachResponseAndSavesAtEnd() throws IOException {
+        StringWriter output = new StringWriter();
+        ScriptRunner runner = new ScriptRunner(createPazuzu(), new PrintWriter(output), 0);
+
+        int count = runner.run(new BufferedReader(new StringReader("todo read book\n\ntodo buy milk\nmark 1\n")));
+
+        assertEquals(3, count);
+        assertTrue(output.toString().contains("Now you have 2 tasks in the list."));
+        assertEquals(List.of("1. [T][X] read book", "2. [T][ ] buy milk"),
+                Files.readAllLines(taskFile).stream().map(line -> line.split("\t")[0]).toList());
+    }
+
+    @Test
+    public void testRun_StopsAtBye() throws IOException {
+        StringWriter output = new StringWriter();
+        ScriptRunner runner = new ScriptRunner(createPazuzu(), new PrintWriter(output), 0);
+
+        int count = runner.run(new BufferedReader(new StringReader("todo a\nbye\ntodo b\n")));
+
+        assertEquals(2, count);
+        assertEquals(1, Files.readAllLines(taskFile).size());
+    }
+
+    @Test
+    public void testRun_StopsAtByeWithSurroundingSpaces() throws IOException {
+        StringWriter output = new StringWriter();
+        ScriptRunner runner = new ScriptRunner(createPazuzu(), new PrintWriter(output), 0);
+
+        int count = runner.run(new BufferedReader(new StringReader("todo a\n  bye \ntodo b\n")));
+
+        assertEquals(2, count);
+        assertTrue(output.toString().contains("Bye."));
+        assertEquals(1, Files.readAllLines(taskFile).size());
+    }
+
+    @Test
+    public void testSetSaveInterval_SavesOnlyEveryNChanges() throws IOException {
+        Pazuzu pazuzu = createPazuzu();
+        pazuzu.setSaveInterval(2);
+
+        pazuzu.processCommand("todo a");
+        assertFalse(Files.exists(taskFile));
+        pazuzu.processCommand("todo b");
+        assertEquals(2, Files.readAllLines(taskFile).size());
+        pazuzu.processCommand("todo c");
+        assertEquals(2, Files.readAllLines(taskFile).size());
+
+        pazuzu.flush();
+        assertEquals(3, Files.readAllLines(taskFile).size());
+    }
+}
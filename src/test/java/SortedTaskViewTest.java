@@ -0,0 +1,111 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import pazuzu.Pazuzu;
+import pazuzu.index.SortedTaskView;
+import pazuzu.index.TaskPositions;
+import pazuzu.task.Deadline;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for SortedTaskView and TaskPositions, and for commands that use view numbers.
+ */
+public class SortedTaskViewTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 12, 1, 0, 0);
+    private TaskList taskList;
+    private SortedTaskView deadlineView;
+    private SortedTaskView nameView;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        deadlineView = SortedTaskView.byDeadline();
+        nameView = SortedTaskView.byName();
+        taskList.addListener(deadlineView);
+        taskList.addListener(nameView);
+    }
+
+    @Test
+    public void testGetTasks_StaysSortedThroughAddsDeletesAndEdits() throws Exception {
+        taskList.addTask(new Deadline("b", BASE.plusDays(2)));
+        taskList.addTask(new Task("c"));
+        taskList.addTask(new Deadline("a", BASE.plusDays(1)));
+        assertEquals(List.of("a", "b"), names(deadlineView.getTasks()));
+        assertEquals(List.of("a", "b", "c"), names(nameView.getTasks()));
+
+        taskList.editTask(1, "b", BASE, null);
+        assertEquals(List.of("b", "a"), names(deadlineView.getTasks()));
+
+        taskList.editTask(2, "A2", (LocalDateTime) null, null);
+        assertEquals(List.of("a", "A2", "b"), names(nameView.getTasks()));
+
+        taskList.deleteTask(1);
+        assertEquals(List.of("a"), names(deadlineView.getTasks()));
+        assertEquals(2, nameView.getSize());
+    }
+
+    @Test
+    public void testGetTask_EqualKeysKeepTheOrderTheyJoined() {
+        taskList.addTask(new Deadline("first", BASE));
+        taskList.addTask(new Deadline("second", BASE));
+        taskList.addTask(new Deadline("third", BASE));
+
+        assertEquals("first", deadlineView.getTask(1).getName());
+        assertEquals("third", deadlineView.getTask(3).getName());
+        assertThrows(IndexOutOfBoundsException.class, () -> deadlineView.getTask(4));
+    }
+
+    @Test
+    public void testTaskPositions_MatchListAfterRandomChanges() {
+        TaskPositions positions = new TaskPositions();
+        taskList.addListener(positions);
+        Random random = new Random(3);
+        for (int i = 0; i < 2000; i++) {
+            if (taskList.getSize() > 0 && random.nextInt(3) == 0) {
+                taskList.deleteTask(1 + random.nextInt(taskList.getSize()));
+            } else if (random.nextBoolean()) {
+                // Inserting at the front over and over uses up the room between keys
+                taskList.insertTask(1, new Task("front " + i));
+            } else {
+                taskList.insertTask(1 + random.nextInt(taskList.getSize() + 1), new Task("task " + i));
+            }
+        }
+
+        for (int i = 0; i < taskList.getSize(); i++) {
+            assertEquals(i + 1, positions.getTaskNumber(taskList.getTask(i)));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> positions.getTaskNumber(new Task("stray")));
+    }
+
+    @Test
+    public void testMarkAndDelete_UseViewNumbers() throws IOException {
+        Pazuzu pazuzu = new Pazuzu(Files.createTempDirectory("pazuzu-view-test").toString() + "/");
+        pazuzu.execute("todo water plants");
+        pazuzu.execute("deadline late | 2023-12-20 1200");
+        pazuzu.execute("deadline early | 2023-12-10 1200");
+        pazuzu.execute("List deadline");
+
+        pazuzu.execute("mark 1");
+        pazuzu.execute("delete 2");
+
+        assertEquals("1. [T][ ] water plants\n2. [D][X] early (by: Dec 10 2023 12:00)",
+                pazuzu.processCommand("List"));
+    }
+
+    private static List<String> names(List<Task> tasks) {
+        ArrayList<String> names = new ArrayList<>();
+        for (Task task : tasks) {
+            names.add(task.getName());
+        }
+        return names;
+    }
+}
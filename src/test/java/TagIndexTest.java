@@ -0,0 +1,100 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.index.TagIndex;
+import pazuzu.parser.CommandParser;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for TagIndex and tag parsing covering intersections and updates from TaskList changes.
+ */
+public class TagIndexTest {
+    private TaskList taskList;
+    private TagIndex tagIndex;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        tagIndex = new TagIndex();
+        taskList.addListener(tagIndex);
+    }
+
+    @Test
+    public void testParseTaskCommand_TagsRemovedFromName() throws PazuzuExceptions.BadTaskException {
+        Task task = new CommandParser().parseTaskCommand("deadline fix #Ops server | 2023-12-25 1400 #urgent #ops");
+
+        assertEquals("fix server", task.getName());
+        assertEquals(List.of("ops", "urgent"), task.getTags());
+        assertEquals("[D][ ] fix server (by: Dec 25 2023 14:00) #ops #urgent", task.getTask());
+    }
+
+    @Test
+    public void testParseTaskCommand_NumberAfterHashStaysInName() throws PazuzuExceptions.BadTaskException {
+        Task task = new CommandParser().parseTaskCommand("todo fix bug #123 in #2nd-pass #ops");
+
+        assertEquals("fix bug #123 in #2nd-pass", task.getName());
+        assertEquals(List.of("ops"), task.getTags());
+        assertNull(Task.toTag("#123"));
+        assertEquals("v2", Task.toTag("#V2"));
+    }
+
+    @Test
+    public void testFindTasksTagged_FollowsEditsAndDeletes() throws PazuzuExceptions.BadTaskException {
+        Task first = new Task("fix server");
+        first.setTags(List.of("ops", "urgent"));
+        Task second = new Task("write docs");
+        second.setTags(List.of("ops"));
+        taskList.addTask(first);
+        taskList.addTask(second);
+
+        assertEquals(List.of(first), tagIndex.findTasksTagged(List.of("urgent", "ops")));
+
+        taskList.editTask(2, "_", List.of("urgent", "ops"), null, null);
+        assertEquals(2, tagIndex.findTasksTagged(List.of("ops", "urgent")).size());
+
+        taskList.deleteTask(1);
+        assertEquals(List.of(second), tagIndex.findTasksTagged(List.of("ops", "urgent")));
+        assertEquals(0, tagIndex.countTasksTagged("missing"));
+    }
+
+    @Test
+    public void testFindTasksTagged_MatchesScanAfterRandomChanges() {
+        Random random = new Random(7);
+        String[] tagNames = {"a", "b", "c", "d"};
+        for (int i = 0; i < 500; i++) {
+            if (taskList.getSize() > 0 && random.nextInt(3) == 0) {
+                taskList.deleteTask(1 + random.nextInt(taskList.getSize()));
+                continue;
+            }
+            ArrayList<String> tags = new ArrayList<>();
+            for (String tag : tagNames) {
+                if (random.nextBoolean()) {
+                    tags.add(tag);
+                }
+            }
+            Task task = new Task("task " + i);
+            task.setTags(tags);
+            taskList.addTask(task);
+        }
+
+        List<String> query = List.of("a", "c");
+        int expected = 0;
+        for (Task task : taskList.getAllTasks()) {
+            if (task.getTags().containsAll(query)) {
+                expected++;
+            }
+        }
+        List<Task> found = tagIndex.findTasksTagged(query);
+        assertEquals(expected, found.size());
+        for (Task task : found) {
+            assertTrue(task.getTags().containsAll(query));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import pazuzu.Pazuzu;
+import pazuzu.task.Deadline;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.transfer.TaskFormat;
+import pazuzu.transfer.TaskImporter;
+import pazuzu.util.NameInterner;
+
+/**
+ * Measures how fast tasks stream in from CSV and JSON Lines files, both into a bare list
+ * and through the import command with every index and the storage file.
+ * Not a unit test; run its main method with the test classes on the class path.
+ * Arguments: [rows] [rows through the import command], 1000000 and 100000 by default.
+ */
+public class TaskImportBenchmark {
+    private static final int DEFAULT_ROWS = 1_000_000;
+    private static final int DEFAULT_COMMAND_ROWS = 100_000;
+    private static final int DISTINCT_NAMES = 5_000;
+
+    /**
+     * Writes the files, imports them and prints rows per second and the heap left in use.
+     *
+     * @param args the number of rows, then the number of rows imported through the command
+     * @throws IOException if a file cannot be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        int commandRows = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_COMMAND_ROWS;
+        Path directory = Files.createTempDirectory("pazuzu-import-benchmark");
+        System.out.printf("%d processors%n", Runtime.getRuntime().availableProcessors());
+        for (String extension : new String[] {".csv", ".jsonl"}) {
+            Path file = directory.resolve("tasks" + extension);
+            writeFile(file, TaskFormat.forPath(file.toString()), rows);
+            importIntoList(file, rows);
+            Path commandFile = directory.resolve("command" + extension);
+            writeFile(commandFile, TaskFormat.forPath(commandFile.toString()), commandRows);
+            importThroughCommand(directory, commandFile, commandRows);
+        }
+    }
+
+    private static void writeFile(Path file, TaskFormat format, int rows) throws IOException {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            if (format.getHeader() != null) {
+                writer.write(format.getHeader());
+                writer.write('\n');
+            }
+            for (int i = 0; i < rows; i++) {
+                String name = "task number " + (i % DISTINCT_NAMES);
+                Task task = i % 2 == 0 ? new Task(name) : new Deadline(name, start.plusHours(i % 10_000));
+                writer.write(format.format(task));
+                writer.write('\n');
+            }
+        }
+        System.out.printf("%s: %d rows, %d MB%n", file.getFileName(), rows, Files.size(file) >> 20);
+    }
+
+    private static void importIntoList(Path file, int rows) throws IOException {
+        TaskList tasks = new TaskList();
+        long startHeap = usedHeap();
+        long startTime = System.nanoTime();
+        TaskImporter.Result result = new TaskImporter(TaskFormat.forPath(file.toString()), new NameInterner())
+                .readFile(file);
+        result.addTo(tasks);
+        long nanos = System.nanoTime() - startTime;
+        assert result.getImportedCount() == rows : "Every row must import";
+        System.out.printf("  into a list: %.0f rows/s, %d MB heap for %d tasks%n",
+                rows * 1e9 / nanos, (usedHeap() - startHeap) >> 20, tasks.getSize());
+    }
+
+    private static void importThroughCommand(Path directory, Path file, int rows) throws IOException {
+        Path dataDirectory = Files.createTempDirectory(directory, "data");
+        Pazuzu pazuzu = new Pazuzu(dataDirectory.toString() + "/");
+        long startTime = System.nanoTime();
+        String response = pazuzu.processCommand("import " + file);
+        long nanos = System.nanoTime() - startTime;
+        System.out.printf("  through the import command: %.0f rows/s (%s)%n", rows * 1e9 / nanos, response);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
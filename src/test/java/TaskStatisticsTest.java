@@ -0,0 +1,126 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import pazuzu.index.TaskStatistics;
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for TaskStatistics covering the counters and the time-window counts.
+ */
+public class TaskStatisticsTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 12, 1, 12, 0);
+    private TaskList taskList;
+    private TaskStatistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        statistics = new TaskStatistics();
+        taskList.addListener(statistics);
+    }
+
+    @Test
+    public void testCounters_FollowAddsDeletesEditsAndMarks() throws Exception {
+        taskList.addTask(new Task("read book"));
+        taskList.addTask(new Deadline("pay rent", NOW.minusDays(1)));
+        taskList.addTask(new Event("meeting", NOW.plusHours(2), NOW.plusHours(3)));
+        taskList.addTask(new RecurringTask("gym", NOW, RecurringTask.Frequency.WEEK, 1));
+        assertEquals(4, statistics.getTotalCount());
+        assertEquals(1, statistics.getTodoCount());
+        assertEquals(1, statistics.getDeadlineCount());
+        assertEquals(1, statistics.getEventCount());
+        assertEquals(1, statistics.getRecurringCount());
+        assertEquals(0, statistics.getDoneCount());
+
+        taskList.markTask(1);
+        assertEquals(1, statistics.getDoneCount());
+        assertEquals(3, statistics.getOpenCount());
+
+        taskList.editTask(2, "pay rent late", NOW.plusDays(1), null);
+        assertEquals(1, statistics.getDeadlineCount());
+        assertEquals(0, statistics.countOverdueDeadlines(NOW));
+
+        taskList.deleteTask(1);
+        assertEquals(3, statistics.getTotalCount());
+        assertEquals(0, statistics.getTodoCount());
+        assertEquals(0, statistics.getDoneCount());
+        assertEquals(3, statistics.getOpenCount());
+    }
+
+    @Test
+    public void testCountOverdueDeadlines_OnlyOpenDeadlinesBeforeNow() throws Exception {
+        taskList.addTask(new Deadline("a", NOW.minusDays(2)));
+        taskList.addTask(new Deadline("b", NOW.minusDays(2)));
+        taskList.addTask(new Deadline("c", NOW));
+        taskList.addTask(new Deadline("d", NOW.plusDays(1)));
+        assertEquals(2, statistics.countOverdueDeadlines(NOW));
+
+        taskList.markTask(1);
+        assertEquals(1, statistics.countOverdueDeadlines(NOW));
+        assertEquals(2, statistics.countOverdueDeadlines(NOW.plusMinutes(1)));
+
+        taskList.unmarkTask(1);
+        taskList.deleteTask(2);
+        assertEquals(1, statistics.countOverdueDeadlines(NOW));
+    }
+
+    @Test
+    public void testCountEventsStartingBetween_IncludesStartExcludesEnd() throws Exception {
+        taskList.addTask(new Event("at now", NOW, NOW.plusHours(1)));
+        taskList.addTask(new Event("soon", NOW.plusHours(5), NOW.plusHours(6)));
+        taskList.addTask(new Event("at end", NOW.plusHours(24), NOW.plusHours(25)));
+        taskList.addTask(new Event("past", NOW.minusHours(1), NOW));
+
+        assertEquals(2, statistics.countEventsStartingBetween(NOW, NOW.plusHours(24)));
+        assertEquals(0, statistics.countEventsStartingBetween(NOW.plusHours(24), NOW));
+
+        taskList.editTask(3, "_", NOW.plusHours(23), NOW.plusHours(25));
+        assertEquals(3, statistics.countEventsStartingBetween(NOW, NOW.plusHours(24)));
+        taskList.markTask(2);
+        assertEquals(2, statistics.countEventsStartingBetween(NOW, NOW.plusHours(24)));
+    }
+
+    @Test
+    public void testCountOverdueDeadlines_MatchesScanAfterRandomChanges() throws Exception {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            taskList.addTask(new Deadline("task " + i, NOW.plusHours(random.nextInt(200) - 100)));
+        }
+        for (int i = 0; i < 400; i++) {
+            int taskNumber = 1 + random.nextInt(taskList.getSize());
+            switch (random.nextInt(3)) {
+                case 0:
+                    taskList.deleteTask(taskNumber);
+                    break;
+                case 1:
+                    taskList.editTask(taskNumber, "_", NOW.plusHours(random.nextInt(200) - 100), null);
+                    break;
+                default:
+                    if (taskList.getTaskByNumber(taskNumber).checkIsDone()) {
+                        taskList.unmarkTask(taskNumber);
+                    } else {
+                        taskList.markTask(taskNumber);
+                    }
+            }
+        }
+
+        for (int hours = -120; hours <= 120; hours += 7) {
+            LocalDateTime time = NOW.plusHours(hours);
+            int expected = 0;
+            for (Task task : taskList.getAllTasks()) {
+                if (!task.checkIsDone() && ((Deadline) task).getDeadline().isBefore(time)) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, statistics.countOverdueDeadlines(time));
+        }
+    }
+}
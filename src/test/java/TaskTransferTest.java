@@ -0,0 +1,228 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import pazuzu.Pazuzu;
+import pazuzu.command.CommandResult;
+import pazuzu.command.ErrorResult;
+import pazuzu.command.TaskResult;
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.RecurringTask;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+import pazuzu.transfer.CsvTaskFormat;
+import pazuzu.transfer.JsonLinesTaskFormat;
+import pazuzu.transfer.TaskExporter;
+import pazuzu.transfer.TaskFormat;
+import pazuzu.transfer.TaskImporter;
+import pazuzu.util.Json;
+import pazuzu.util.NameInterner;
+
+/**
+ * Test class for importing and exporting tasks as CSV and JSON Lines.
+ */
+public class TaskTransferTest {
+    private Path directory;
+    private Pazuzu pazuzu;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pazuzu-transfer-test");
+        pazuzu = new Pazuzu(directory.toString() + "/");
+    }
+
+    @Test
+    public void testCsv_RoundTrip_KeepsEveryKindOfTask() throws IOException {
+        assertRoundTrip(new CsvTaskFormat());
+    }
+
+    @Test
+    public void testJsonLines_RoundTrip_KeepsEveryKindOfTask() throws IOException {
+        assertRoundTrip(new JsonLinesTaskFormat());
+    }
+
+    @Test
+    public void testCsv_Format_QuotesCommasAndQuotes() {
+        Task task = new Task("say \"hi\", then leave");
+
+        String line = new CsvTaskFormat().format(task);
+
+        assertEquals("todo,\"say \"\"hi\"\", then leave\",false,,,,,,", line);
+        assertEquals("say \"hi\", then leave", new CsvTaskFormat().parse(line).getName());
+    }
+
+    @Test
+    public void testJsonLines_Parse_AcceptsTagsWithOrWithoutPrefix() {
+        Task task = new JsonLinesTaskFormat().parse(
+                "{\"type\": \"deadline\", \"name\": \"file taxes\", \"start\": \"2024-04-15T23:59\","
+                + " \"tags\": [\"#Money\", \"admin\"], \"extra\": 3}");
+
+        Deadline deadline = assertInstanceOf(Deadline.class, task);
+        assertEquals(LocalDateTime.of(2024, 4, 15, 23, 59), deadline.getDeadline());
+        assertEquals(List.of("money", "admin"), deadline.getTags());
+    }
+
+    @Test
+    public void testParse_MalformedLines_ReturnNull() {
+        TaskFormat csv = new CsvTaskFormat();
+        TaskFormat jsonLines = new JsonLinesTaskFormat();
+
+        assertNull(csv.parse("chore,sweep,false"));
+        assertNull(csv.parse("todo,,false"));
+        assertNull(csv.parse("deadline,pay rent,false,next week"));
+        assertNull(csv.parse("todo,\"unclosed,false"));
+        assertNull(csv.parse("todo,tagged,false,,,,bad tag!"));
+        assertNull(csv.parse("recur,gym,false,2024-01-01T07:00,,0 days"));
+        assertNull(jsonLines.parse("{\"type\": \"todo\", \"name\": \"cut off\""));
+        assertNull(jsonLines.parse("[\"todo\", \"not an object\"]"));
+    }
+
+    @Test
+    public void testImporter_ManyChunks_KeepsInputOrderAndCountsSkippedLines() throws IOException {
+        StringBuilder input = new StringBuilder(new CsvTaskFormat().getHeader()).append('\n');
+        for (int i = 0; i < 1000; i++) {
+            input.append(i % 100 == 99 ? "not a task" : "todo,task " + i + ",false,,,,shared").append('\n');
+        }
+        TaskList tasks = new TaskList();
+
+        TaskImporter.Result result = new TaskImporter(new CsvTaskFormat(), new NameInterner(), 3, 7)
+                .readFrom(new BufferedReader(new StringReader(input.toString())));
+        result.addTo(tasks);
+
+        assertEquals(990, result.getImportedCount());
+        assertEquals(10, result.getSkippedCount());
+        int expected = 0;
+        for (int i = 0; i < tasks.getSize(); i++, expected++) {
+            if (expected % 100 == 99) {
+                expected++;
+            }
+            assertEquals("task " + expected, tasks.getTask(i).getName());
+        }
+        assertSame(tasks.getTask(0).getTags().get(0), tasks.getTask(989).getTags().get(0));
+    }
+
+    @Test
+    public void testImportCommand_AddsTasksAndCannotBeUndone() throws IOException {
+        Path file = directory.resolve("tasks.jsonl");
+        Files.writeString(file, "{\"type\": \"todo\", \"name\": \"read book\"}\n"
+                + "{\"type\": \"event\", \"name\": \"broken\", \"start\": \"2024-01-01T10:00\"}\n"
+                + "{\"type\": \"todo\", \"name\": \"buy milk\", \"done\": true}\n");
+        pazuzu.execute("todo water plants");
+
+        String response = pazuzu.processCommand("import " + file);
+
+        assertEquals("Imported 2 tasks from " + file + ", skipping 1 invalid lines."
+                + " Now you have 3 tasks in the list. Importing can't be undone.", response);
+        assertEquals("1. [T][ ] water plants\n2. [T][ ] read book\n3. [T][X] buy milk",
+                pazuzu.processCommand("List"));
+        assertEquals("Nothing to undo.", pazuzu.processCommand("undo"));
+        assertTrue(Files.readString(directory.resolve("pazuzu.txt")).contains("buy milk"));
+    }
+
+    @Test
+    public void testExportCommand_WritesFileThatImportsBack() throws IOException {
+        pazuzu.execute("todo read book #home");
+        pazuzu.execute("deadline return book | 2024-01-05 1800");
+        Path file = directory.resolve("out.csv");
+
+        assertEquals("Exported 2 tasks to " + file + ".", pazuzu.processCommand("export " + file));
+        pazuzu.execute("use copy");
+        pazuzu.execute("import " + file);
+
+        assertEquals("1. [T][ ] read book #home\n2. [D][ ] return book (by: Jan 05 2024 18:00)",
+                pazuzu.processCommand("List"));
+    }
+
+    @Test
+    public void testImportCommand_ReadFailsPartway_LeavesListAndHistoryUnchanged() throws IOException {
+        Path file = directory.resolve("broken.csv");
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            lines.append("todo,task ").append(i).append(",false\n");
+        }
+        byte[] valid = lines.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] broken = Arrays.copyOf(valid, valid.length + 14);
+        // "todo,bad" followed by a byte that is never valid UTF-8
+        System.arraycopy("todo,bad".getBytes(StandardCharsets.UTF_8), 0, broken, valid.length, 8);
+        broken[valid.length + 8] = (byte) 0xFF;
+        System.arraycopy(",false".getBytes(StandardCharsets.UTF_8), 0, broken, valid.length + 9, 5);
+        Files.write(file, broken);
+        pazuzu.execute("todo water plants");
+
+        CommandResult result = pazuzu.execute("import " + file);
+
+        assertEquals(ErrorResult.Code.FILE_ACCESS, assertInstanceOf(ErrorResult.class, result).getCode());
+        assertEquals("1. [T][ ] water plants", pazuzu.processCommand("List"));
+        TaskResult undone = assertInstanceOf(TaskResult.class, pazuzu.execute("undo"));
+        assertEquals(TaskResult.Action.UNDONE, undone.getAction());
+        assertEquals("No tasks in your list.", pazuzu.processCommand("List"));
+    }
+
+    @Test
+    public void testImportCommand_BadFile_ReturnsErrorCodes() {
+        assertEquals(ErrorResult.Code.FILE_TYPE,
+                assertInstanceOf(ErrorResult.class, pazuzu.execute("import tasks.txt")).getCode());
+        assertEquals(ErrorResult.Code.FILE_ACCESS, assertInstanceOf(ErrorResult.class,
+                pazuzu.execute("import " + directory.resolve("missing.csv"))).getCode());
+        assertEquals(ErrorResult.Code.BAD_TASK,
+                assertInstanceOf(ErrorResult.class, pazuzu.execute("export ")).getCode());
+    }
+
+    @Test
+    public void testParseFlatObject_ReadsEscapesArraysAndLiterals() {
+        Map<String, Object> values = Json.parseFlatObject(
+                "{\"a\": \"line\\nbreak \\u00e9\", \"b\": [\"x\", \"y\"], \"c\": true, \"d\": null, \"e\": -1.5e3}");
+
+        assertEquals("line\nbreak \u00e9", values.get("a"));
+        assertEquals(List.of("x", "y"), values.get("b"));
+        assertEquals(Boolean.TRUE, values.get("c"));
+        assertTrue(values.containsKey("d"));
+        assertNull(values.get("d"));
+        assertEquals("-1.5e3", values.get("e"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseFlatObject("{\"a\": {\"nested\": 1}}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseFlatObject("{\"a\": 1} trailing"));
+    }
+
+    private void assertRoundTrip(TaskFormat format) throws IOException {
+        TaskList tasks = new TaskList();
+        Task todo = new Task("read, \"book\"");
+        todo.setTags(List.of("home", "slow"));
+        todo.markDone(LocalDateTime.of(2024, 1, 2, 9, 30));
+        tasks.addTask(todo);
+        tasks.addTask(new Deadline("return book", LocalDateTime.of(2024, 1, 5, 18, 0)));
+        tasks.addTask(new Event("trip", LocalDateTime.of(2024, 2, 1, 8, 0), LocalDateTime.of(2024, 2, 3, 20, 0)));
+        RecurringTask gym = new RecurringTask("gym", LocalDateTime.of(2024, 1, 1, 7, 0),
+                RecurringTask.Frequency.WEEK, 2);
+        gym.completeOccurrence(LocalDate.of(2024, 1, 1));
+        gym.skipOccurrence(LocalDate.of(2024, 1, 15));
+        tasks.addTask(gym);
+        StringWriter output = new StringWriter();
+
+        assertEquals(4, new TaskExporter(format).exportTo(tasks, output));
+        TaskList imported = new TaskList();
+        TaskImporter.Result result = new TaskImporter(format, new NameInterner(), 2, 1)
+                .readFrom(new BufferedReader(new StringReader(output.toString())));
+        result.addTo(imported);
+
+        assertEquals(4, result.getImportedCount());
+        assertEquals(0, result.getSkippedCount());
+        for (int i = 0; i < tasks.getSize(); i++) {
+            assertEquals(tasks.getTask(i).getTask(), imported.getTask(i).getTask());
+            assertEquals(tasks.getTask(i).getCompletedAt(), imported.getTask(i).getCompletedAt());
+        }
+    }
+}
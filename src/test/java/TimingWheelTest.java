@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import pazuzu.reminder.TimingWheel;
+
+/**
+ * Test class for TimingWheel covering expiry times, cascading between levels, cancelling and expiry order.
+ */
+public class TimingWheelTest {
+    private static final long TICK = 1000;
+    private static final long START = 5_000_000;
+    private TimingWheel<String> wheel;
+
+    @BeforeEach
+    public void setUp() {
+        wheel = new TimingWheel<>(TICK, START);
+    }
+
+    @Test
+    public void testAdvanceTo_NeverExpiresEarly() {
+        wheel.schedule(START + 1500, "late");
+        wheel.schedule(START - 3000, "past");
+
+        assertEquals(List.of("past"), wheel.advanceTo(START + 1999));
+        assertEquals(List.of("late"), wheel.advanceTo(START + 2000));
+        assertEquals(0, wheel.getSize());
+    }
+
+    @Test
+    public void testAdvanceTo_TimersOnEveryLevelCascadeDown() {
+        // 64 slots per level, so these land on levels 0 to 3 and some sit on a level boundary
+        long[] ticks = {1, 63, 64, 65, 4095, 4096, 4097, 64 * 64 * 64 - 1, 64 * 64 * 64 + 5};
+        for (long tick : ticks) {
+            wheel.schedule(START + tick * TICK, "t" + tick);
+        }
+
+        for (long tick : ticks) {
+            assertEquals(List.of(), wheel.advanceTo(START + (tick - 1) * TICK), "before " + tick);
+            assertEquals(List.of("t" + tick), wheel.advanceTo(START + tick * TICK), "at " + tick);
+        }
+        assertEquals(0, wheel.getSize());
+    }
+
+    @Test
+    public void testCancel_TimerNeverExpires() {
+        TimingWheel.Timer<String> cancelled = wheel.schedule(START + 100 * TICK, "cancelled");
+        wheel.schedule(START + 100 * TICK, "kept");
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+
+        assertFalse(cancelled.isPending());
+        assertEquals(1, wheel.getSize());
+        assertEquals(List.of("kept"), wheel.advanceTo(START + 200 * TICK));
+    }
+
+    @Test
+    public void testCancel_AfterExpiry_DoesNothing() {
+        TimingWheel.Timer<String> timer = wheel.schedule(START + TICK, "done");
+        wheel.advanceTo(START + TICK);
+
+        wheel.cancel(timer);
+
+        assertEquals(0, wheel.getSize());
+    }
+
+    @Test
+    public void testAdvanceTo_MatchesSortedTimesAfterRandomSchedulesAndCancels() {
+        Random random = new Random(11);
+        TreeMap<Long, List<String>> expected = new TreeMap<>();
+        ArrayList<TimingWheel.Timer<String>> timers = new ArrayList<>();
+        ArrayList<Long> timerTicks = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            long tick = 1 + random.nextInt(300_000);
+            timers.add(wheel.schedule(START + tick * TICK, "p" + i));
+            timerTicks.add(tick);
+        }
+        for (int i = 0; i < timers.size(); i++) {
+            if (random.nextInt(4) == 0) {
+                wheel.cancel(timers.get(i));
+            } else {
+                expected.computeIfAbsent(timerTicks.get(i), tick -> new ArrayList<>()).add("p" + i);
+            }
+        }
+
+        long now = 0;
+        while (now < 300_000) {
+            long previous = now;
+            now += 1 + random.nextInt(20_000);
+            ArrayList<String> due = new ArrayList<>();
+            for (List<String> payloads : expected.subMap(previous, false, now, true).values()) {
+                due.addAll(payloads);
+            }
+            assertEquals(due, wheel.advanceTo(START + now * TICK), "up to tick " + now);
+        }
+        assertEquals(0, wheel.getSize());
+    }
+}
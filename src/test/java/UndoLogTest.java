@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.history.UndoLog;
+import pazuzu.index.TaskStatistics;
+import pazuzu.task.Deadline;
+import pazuzu.task.Event;
+import pazuzu.task.Task;
+import pazuzu.task.TaskList;
+
+/**
+ * Test class for UndoLog covering undo and redo of each kind of change and the bound on kept steps.
+ */
+public class UndoLogTest {
+    private TaskList taskList;
+    private UndoLog undoLog;
+
+    @BeforeEach
+    public void setUp() {
+        taskList = new TaskList();
+        taskList.addTask(new Task("existing task"));
+        undoLog = new UndoLog(taskList, 3, Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testUndo_ExistingTasksNotRecorded() {
+        assertNull(undoLog.undo());
+        assertEquals(1, taskList.getSize());
+    }
+
+    @Test
+    public void testUndoRedo_DeleteRestoresPosition() {
+        taskList.addTask(new Task("second task"));
+        undoLog.closeStep();
+        taskList.deleteTask(1);
+        undoLog.closeStep();
+
+        undoLog.undo();
+        assertEquals("existing task", taskList.getTask(0).getName());
+        assertEquals("second task", taskList.getTask(1).getName());
+
+        undoLog.redo();
+        assertEquals(1, taskList.getSize());
+        assertEquals("second task", taskList.getTask(0).getName());
+    }
+
+    @Test
+    public void testUndoRedo_EditRestoresAllFields() throws PazuzuExceptions.BadTaskException {
+        taskList.addTask(new Event("team meeting",
+                LocalDateTime.of(2023, 12, 26, 10, 0), LocalDateTime.of(2023, 12, 26, 12, 0)));
+        undoLog.closeStep();
+        taskList.editTask(2, "standup", LocalDateTime.of(2023, 12, 27, 13, 0), LocalDateTime.of(2023, 12, 27, 14, 0));
+        undoLog.closeStep();
+
+        undoLog.undo();
+        Event event = (Event) taskList.getTask(1);
+        assertEquals("team meeting", event.getName());
+        assertEquals(LocalDateTime.of(2023, 12, 26, 10, 0), event.getStartDate());
+        assertEquals(LocalDateTime.of(2023, 12, 26, 12, 0), event.getEndDate());
+
+        undoLog.redo();
+        assertEquals("standup", event.getName());
+        assertEquals(LocalDateTime.of(2023, 12, 27, 14, 0), event.getEndDate());
+    }
+
+    @Test
+    public void testUndo_OtherListenersFollow() throws PazuzuExceptions.MarkingException {
+        TaskStatistics statistics = new TaskStatistics();
+        taskList.addListener(statistics);
+        taskList.addTask(new Deadline("submit assignment", LocalDateTime.of(2023, 12, 25, 14, 0)));
+        undoLog.closeStep();
+        taskList.markTask(2);
+        undoLog.closeStep();
+
+        undoLog.undo();
+        assertEquals(0, statistics.getDoneCount());
+        undoLog.undo();
+        assertEquals(0, statistics.getDeadlineCount());
+        assertEquals(1, statistics.getTotalCount());
+    }
+
+    @Test
+    public void testUndoRedo_StepWithSeveralChanges_ReturnsTaskChangedLast() throws PazuzuExceptions.MarkingException {
+        Task first = new Task("first task");
+        taskList.addTask(first);
+        taskList.addTask(new Task("second task"));
+        taskList.markTask(2);
+        undoLog.closeStep();
+
+        assertSame(first, undoLog.undo());
+        assertEquals(1, taskList.getSize());
+        assertFalse(first.checkIsDone());
+
+        assertSame(first, undoLog.redo());
+        assertEquals(3, taskList.getSize());
+        assertTrue(taskList.getTask(1).checkIsDone());
+    }
+
+    @Test
+    public void testCloseStep_OldestStepsDropped() {
+        for (int i = 0; i < 5; i++) {
+            taskList.addTask(new Task("task " + i));
+            undoLog.closeStep();
+        }
+
+        assertEquals(3, undoLog.getUndoCount());
+        while (undoLog.undo() != null) {
+            // Undo everything that was kept
+        }
+        assertEquals(3, taskList.getSize());
+        assertEquals("task 1", taskList.getTask(2).getName());
+    }
+
+    @Test
+    public void testRecord_NewChangeClearsRedo() {
+        taskList.addTask(new Task("second task"));
+        undoLog.undo();
+        taskList.addTask(new Task("third task"));
+
+        assertEquals(0, undoLog.getRedoCount());
+        assertNull(undoLog.redo());
+    }
+}
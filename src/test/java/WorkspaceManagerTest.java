@@ -0,0 +1,171 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+
+import pazuzu.exception.PazuzuExceptions;
+import pazuzu.reminder.ReminderScheduler;
+import pazuzu.task.Deadline;
+import pazuzu.task.Task;
+import pazuzu.util.NameInterner;
+import pazuzu.workspace.Workspace;
+import pazuzu.workspace.WorkspaceManager;
+
+/**
+ * Test class for WorkspaceManager.
+ */
+public class WorkspaceManagerTest {
+    private Path directory;
+    private ReminderScheduler reminders;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("pazuzu-workspace-test");
+        reminders = new ReminderScheduler(Duration.ofMinutes(15));
+    }
+
+    private WorkspaceManager createManager(long budgetBytes) {
+        return new WorkspaceManager(directory.toString() + "/", new NameInterner(), reminders, 30, budgetBytes);
+    }
+
+    @Test
+    public void testGet_LoadsEachListOnceAndKeepsItsTasksApart() throws PazuzuExceptions.BadTaskException {
+        WorkspaceManager manager = createManager(Long.MAX_VALUE);
+
+        Workspace work = manager.get("work");
+        work.getTasks().addTask(new Task("write report"));
+
+        assertSame(work, manager.get("work"));
+        assertEquals(0, manager.get(WorkspaceManager.DEFAULT_LIST).getTasks().getSize());
+        assertEquals(2, manager.getLoadedCount());
+    }
+
+    @Test
+    public void testGet_OverBudget_SavesAndDropsLeastRecentlyUsedList() throws PazuzuExceptions.BadTaskException {
+        WorkspaceManager manager = createManager(1);
+        Workspace work = manager.get("work");
+        work.getTasks().addTask(new Task("write report"));
+
+        manager.get("home");
+
+        assertFalse(manager.isLoaded("work"));
+        assertTrue(manager.isLoaded("home"));
+        assertEquals(1, manager.getEvictionCount());
+        assertTrue(Files.exists(directory.resolve("lists/work.txt")));
+        Workspace reloaded = manager.get("work");
+        assertNotSame(work, reloaded);
+        assertEquals("[T][ ] write report", reloaded.getTasks().getTask(0).getTask());
+    }
+
+    @Test
+    public void testGet_OverBudget_KeepsListThatFailsToSave() throws Exception {
+        WorkspaceManager manager = createManager(1);
+        Workspace work = manager.get("work");
+        work.getTasks().addTask(new Task("write report"));
+        // A directory where the list file should be cannot be opened for writing
+        Path listPath = Files.createDirectories(directory.resolve("lists/work.txt"));
+
+        manager.get("home");
+
+        assertTrue(manager.isLoaded("work"));
+        assertTrue(work.hasUnsavedChanges());
+        assertEquals(0, manager.getEvictionCount());
+        assertFalse(manager.flushAll());
+
+        Files.delete(listPath);
+        manager.get("home");
+
+        assertFalse(manager.isLoaded("work"));
+        assertEquals(1, manager.getEvictionCount());
+        assertEquals("[T][ ] write report", manager.get("work").getTasks().getTask(0).getTask());
+    }
+
+    @Test
+    public void testGet_RecentlyUsedListIsKeptOverOlderOne() throws PazuzuExceptions.BadTaskException {
+        WorkspaceManager manager = createManager(Long.MAX_VALUE);
+        manager.get("first").getTasks().addTask(new Task("a"));
+        manager.get("second").getTasks().addTask(new Task("b"));
+        manager.get("third").getTasks().addTask(new Task("c"));
+        manager.flushAll();
+        long firstBytes = manager.get("first").estimateBytes();
+
+        WorkspaceManager tight = new WorkspaceManager(directory.toString() + "/", new NameInterner(), reminders,
+                30, 2 * firstBytes + 1);
+        tight.get("second");
+        tight.get("first");
+        tight.get("third");
+
+        assertFalse(tight.isLoaded("second"));
+        assertTrue(tight.isLoaded("first"));
+        assertTrue(tight.isLoaded("third"));
+    }
+
+    @Test
+    public void testGet_EvictedList_KeepsSendingItsReminders() throws PazuzuExceptions.BadTaskException {
+        WorkspaceManager manager = createManager(1);
+        LocalDateTime due = LocalDateTime.now().plusHours(1);
+        manager.get("work").getTasks().addTask(new Deadline("submit report", due));
+
+        manager.get("home");
+        assertFalse(manager.isLoaded("work"));
+        ArrayList<String> delivered = new ArrayList<>();
+        reminders.deliverDue(toEpochMillis(due), delivered::add);
+
+        assertEquals(1, delivered.size());
+        assertTrue(delivered.get(0).contains("submit report"));
+    }
+
+    @Test
+    public void testGet_ReloadedList_DoesNotRemindTwice() throws PazuzuExceptions.BadTaskException {
+        WorkspaceManager manager = createManager(1);
+        LocalDateTime due = LocalDateTime.now().plusHours(1);
+        manager.get("work").getTasks().addTask(new Deadline("submit report", due));
+        manager.get("home");
+
+        manager.get("work");
+        ArrayList<String> delivered = new ArrayList<>();
+        reminders.deliverDue(toEpochMillis(due), delivered::add);
+
+        assertEquals(1, delivered.size());
+        assertEquals(0, reminders.getPendingCount());
+    }
+
+    @Test
+    public void testEstimateBytes_FollowsAddsEditsAndDeletes() throws Exception {
+        WorkspaceManager manager = createManager(Long.MAX_VALUE);
+        Workspace work = manager.get("work");
+        long emptyBytes = work.estimateBytes();
+        work.getTasks().addTask(new Task("a"));
+        work.getUndoLog().clear();
+        long oneTaskBytes = work.estimateBytes();
+
+        work.getTasks().editTask(1, "a much longer name than before", (LocalDateTime) null, null);
+        work.getUndoLog().clear();
+        assertTrue(work.estimateBytes() > oneTaskBytes);
+        work.getTasks().deleteTask(1);
+        work.getUndoLog().clear();
+
+        assertTrue(oneTaskBytes > emptyBytes);
+        assertEquals(emptyBytes, work.estimateBytes());
+        assertEquals(emptyBytes, manager.estimateBytes());
+    }
+
+    @Test
+    public void testGet_InvalidName_ThrowsBadTaskException() {
+        WorkspaceManager manager = createManager(Long.MAX_VALUE);
+
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> manager.get("../escape"));
+        assertThrows(PazuzuExceptions.BadTaskException.class, () -> manager.get(""));
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}